@@ -0,0 +1,53 @@
+package com.zoo.benchmark;
+
+import com.zoo.dto.AnimalResponse;
+import com.zoo.model.Animal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование сущностей в AnimalResponse, как в выдаче списков
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimalMappingBenchmark {
+
+    @Param({"100", "10000"})
+    int rows;
+
+    private List<Animal> animals;
+
+    @Setup
+    public void setUp() {
+        animals = BenchmarkData.animals(rows);
+    }
+
+    @Benchmark
+    public void fromEntity(Blackhole blackhole) {
+        for (Animal animal : animals) {
+            blackhole.consume(AnimalResponse.fromEntity(animal));
+        }
+    }
+
+    @Benchmark
+    public List<AnimalResponse> fromEntityToList() {
+        return animals.stream().map(AnimalResponse::fromEntity).toList();
+    }
+}
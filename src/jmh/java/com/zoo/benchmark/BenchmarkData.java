@@ -0,0 +1,47 @@
+package com.zoo.benchmark;
+
+import com.zoo.dto.AnimalResponse;
+import com.zoo.model.Animal;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Воспроизводимые наборы животных для бенчмарков
+ */
+final class BenchmarkData {
+
+    private static final String[] SPECIES = {
+            "Лев", "Тигр", "Жираф", "Слон", "Зебра", "Пингвин", "Белый медведь", "Красная панда"
+    };
+
+    private static final String[] NAMES = {
+            "Барсик", "Симба", "Матильда", "Граф \"Дракула\"", "Снежок", "Ричард, Львиное Сердце", "Кеша", "Luna"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static List<Animal> animals(int rows) {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Animal> animals = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Animal animal = new Animal(
+                    NAMES[random.nextInt(NAMES.length)] + " " + i,
+                    SPECIES[random.nextInt(SPECIES.length)],
+                    random.nextInt(40));
+            animal.setId((long) i + 1);
+            animal.setCreatedAt(base.plusSeconds(i).plusNanos(random.nextInt(1_000_000) * 1000L));
+            animal.setUpdatedAt(animal.getCreatedAt());
+            animals.add(animal);
+        }
+        return animals;
+    }
+
+    static List<AnimalResponse> responses(int rows) {
+        return animals(rows).stream().map(AnimalResponse::fromEntity).toList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.zoo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zoo.config.ExportProperties;
+import com.zoo.model.Animal;
+import com.zoo.service.FileStorageService;
+import com.zoo.service.export.ExportCatalog;
+import com.zoo.service.export.ExportProgress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Запись файлов выгрузки FileStorageService во временную директорию
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileExportBenchmark {
+
+    @Param({"1000", "100000"})
+    int rows;
+
+    private List<Animal> animals;
+    private Path directory;
+    private FileStorageService storage;
+
+    @Setup
+    public void setUp() throws IOException {
+        animals = BenchmarkData.animals(rows);
+        directory = Files.createTempDirectory("zoo-export-bench");
+        // Каталог без запуска (watcher и ротация не нужны), без сжатых вариантов - меряется только запись формата
+        ExportProperties properties = new ExportProperties();
+        properties.setGzipVariants(false);
+        ExportCatalog catalog = new ExportCatalog(directory.toString(), new ObjectMapper().findAndRegisterModules(), properties);
+        storage = new FileStorageService(directory.toString(), catalog, properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String csv() {
+        return storage.saveAnimalsToCsv(animals.stream(), ExportProgress.NONE);
+    }
+
+    @Benchmark
+    public String txt() {
+        return storage.saveAnimalsToTxt(animals.stream(), animals.size(), ExportProgress.NONE);
+    }
+
+    @Benchmark
+    public String json() {
+        return storage.saveAnimalsToJson(animals.stream(), ExportProgress.NONE);
+    }
+}
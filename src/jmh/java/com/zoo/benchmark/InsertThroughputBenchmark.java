@@ -0,0 +1,143 @@
+package com.zoo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zoo.MyApp;
+import com.zoo.dto.AnimalRequest;
+import com.zoo.dto.BatchInsertResult;
+import com.zoo.model.Animal;
+import com.zoo.service.AnimalBatchService;
+import com.zoo.service.AnimalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка записей по одной, как при последовательных POST /api/animals (транзакция и INSERT
+ * на запись), против пакетной вставки POST /api/animals/batch (NDJSON, пачки JDBC по app.batch.chunk-size).
+ * Результат - записей в секунду. По умолчанию база H2 в памяти; с -Djmh.args="-p database=postgres"
+ * - локальный PostgreSQL, база zoo_bench (createdb zoo_bench), где разница заметнее из-за сетевых
+ * обращений на каждую запись. После каждой итерации таблица очищается: иначе она и индексы
+ * в памяти растут от итерации к итерации, и результат дрейфует.
+ * <p>
+ * Запуск: mvn -Pjmh verify -Djmh.include=InsertThroughput
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 20, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class InsertThroughputBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"h2"})
+    String database;
+
+    private ConfigurableApplicationContext app;
+    private AnimalService animalService;
+    private AnimalBatchService animalBatchService;
+    private List<AnimalRequest> requests;
+    private byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--app.storage.directory=" + Files.createTempDirectory("zoo-insert-bench"),
+                "--app.snapshot.warm-start=false",
+                "--app.metrics.request-queries.enabled=false",
+                "--app.metrics.slow-query.enabled=false",
+                "--debug=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.zoo=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                // create-drop на пустой базе PostgreSQL предупреждает о каждой отсутствующей таблице
+                "--logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=ERROR",
+                "--logging.level.org.postgresql.Driver=WARN",
+                "--logging.level.org.postgresql.core.v3.ConnectionFactoryImpl=WARN",
+                "--logging.level.java.sql=WARN"));
+        switch (database) {
+            case "h2" -> args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:zoo-insert-bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"));
+            case "postgres" -> args.add(
+                    "--spring.datasource.url=jdbc:postgresql://localhost:5432/zoo_bench?reWriteBatchedInserts=true");
+            default -> throw new IllegalArgumentException("Неизвестная база: " + database);
+        }
+        app = new SpringApplicationBuilder(MyApp.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        animalService = app.getBean(AnimalService.class);
+        animalBatchService = app.getBean(AnimalBatchService.class);
+
+        requests = new ArrayList<>(ROWS);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ObjectMapper objectMapper = app.getBean(ObjectMapper.class);
+        for (Animal animal : BenchmarkData.animals(ROWS)) {
+            AnimalRequest request = new AnimalRequest();
+            request.setName(animal.getName());
+            request.setSpecies(animal.getSpecies());
+            request.setAge(animal.getAge());
+            requests.add(request);
+            objectMapper.writeValue(body, request);
+            body.write('\n');
+        }
+        ndjson = body.toByteArray();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearTable() {
+        animalService.deleteAllAnimals();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void single(Blackhole blackhole) {
+        for (AnimalRequest request : requests) {
+            blackhole.consume(animalService.addAnimal(request));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BatchInsertResult batch() {
+        BatchInsertResult result = animalBatchService.insertAll(new ByteArrayInputStream(ndjson));
+        if (result.inserted() != ROWS) {
+            throw new IllegalStateException("Вставлено " + result.inserted() + " из " + ROWS);
+        }
+        return result;
+    }
+}
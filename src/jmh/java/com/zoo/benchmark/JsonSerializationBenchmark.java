@@ -0,0 +1,73 @@
+package com.zoo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zoo.dto.AnimalResponse;
+import com.zoo.model.Animal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков Jackson: ответ REST (List&lt;AnimalResponse&gt;, компактно)
+ * и файл выгрузки (сущности с INDENT_OUTPUT, как в FileStorageService)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    int rows;
+
+    private List<AnimalResponse> responses;
+    private List<Animal> animals;
+    private ObjectMapper compactMapper;
+    private ObjectMapper indentingMapper;
+
+    @Setup
+    public void setUp() {
+        responses = BenchmarkData.responses(rows);
+        animals = BenchmarkData.animals(rows);
+        compactMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        indentingMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+                .enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Benchmark
+    public void responsesCompact() throws IOException {
+        compactMapper.writeValue(OutputStream.nullOutputStream(), responses);
+    }
+
+    @Benchmark
+    public byte[] responsesToBytes() throws IOException {
+        return compactMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public void entitiesCompact() throws IOException {
+        compactMapper.writeValue(OutputStream.nullOutputStream(), animals);
+    }
+
+    @Benchmark
+    public void entitiesIndented() throws IOException {
+        indentingMapper.writeValue(OutputStream.nullOutputStream(), animals);
+    }
+}
@@ -0,0 +1,119 @@
+package com.zoo.benchmark;
+
+import com.zoo.MyApp;
+import com.zoo.dto.AnimalResponse;
+import com.zoo.model.Animal;
+import com.zoo.repository.AnimalRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Страница списка из базы (H2 в памяти): сущности с копированием в AnimalResponse, как было,
+ * против выборки только столбцов ответа конструктором в JPQL. Обе в транзакции только для чтения,
+ * как в AnimalService. Выделение памяти на операцию - с -prof gc (gc.alloc.rate.norm),
+ * на строку - делением на rows.
+ * <p>
+ * Запуск: mvn -Pjmh verify -Djmh.include=ProjectionRead
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionReadBenchmark {
+
+    private static final int TABLE_ROWS = 20_000;
+
+    private static final String ENTITY_PAGE =
+            "SELECT a FROM Animal a WHERE a.id > :afterId ORDER BY a.id";
+
+    @Param({"100", "1000"})
+    int rows;
+
+    private ConfigurableApplicationContext app;
+    private AnimalRepository repository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        app = new SpringApplicationBuilder(MyApp.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:zoo-bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--app.storage.directory=" + Files.createTempDirectory("zoo-projection-bench"),
+                        "--app.snapshot.warm-start=false",
+                        "--app.metrics.request-queries.enabled=false",
+                        "--app.metrics.slow-query.enabled=false",
+                        "--debug=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.zoo=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        repository = app.getBean(AnimalRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                app.getBean(EntityManagerFactory.class));
+        readOnly = new TransactionTemplate(app.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        List<Animal> animals = new ArrayList<>(TABLE_ROWS);
+        for (Animal animal : BenchmarkData.animals(TABLE_ROWS)) {
+            animals.add(new Animal(animal.getName(), animal.getSpecies(), animal.getAge()));
+        }
+        new TransactionTemplate(app.getBean(PlatformTransactionManager.class))
+                .executeWithoutResult(status -> repository.saveAll(animals));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        app.close();
+    }
+
+    @Benchmark
+    public List<AnimalResponse> entities() {
+        return readOnly.execute(status -> entityManager.createQuery(ENTITY_PAGE, Animal.class)
+                .setParameter("afterId", 0L)
+                .setMaxResults(rows)
+                .getResultList()
+                .stream()
+                .map(AnimalResponse::fromEntity)
+                .toList());
+    }
+
+    @Benchmark
+    public List<AnimalResponse> projection() {
+        return readOnly.execute(status -> repository.findPageAfter(0L, Limit.of(rows)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.zoo.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая модель нагрузки: запросы каждой операции поступают с заданной частотой
+ * независимо от того, успевает ли сервер. Задержка считается от запланированного момента
+ * отправки, поэтому очередь на стороне клиента тоже попадает в измерение.
+ */
+final class ArrivalRateDriver {
+
+    private static final int MAX_IN_FLIGHT_PER_OPERATION = 2000;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    Map<String, OperationStats> run(List<Operation> operations, Duration duration) throws InterruptedException {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        List<Thread> schedulers = new ArrayList<>();
+        List<AtomicInteger> inFlight = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (Operation operation : operations) {
+            if (operation.ratePerSecond() <= 0) {
+                continue;
+            }
+            OperationStats operationStats = new OperationStats(operation.name(), operation.expectedRaces());
+            AtomicInteger pending = new AtomicInteger();
+            stats.put(operation.name(), operationStats);
+            inFlight.add(pending);
+            schedulers.add(Thread.ofVirtual().name("load-" + operation.name())
+                    .start(() -> schedule(operation, operationStats, pending, start, end)));
+        }
+
+        for (Thread scheduler : schedulers) {
+            scheduler.join();
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.stream().anyMatch(pending -> pending.get() > 0) && System.nanoTime() < drainDeadline) {
+            Thread.sleep(50);
+        }
+        return stats;
+    }
+
+    private static void schedule(Operation operation, OperationStats stats, AtomicInteger pending,
+                                 long start, long end) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / operation.ratePerSecond());
+        for (long arrival = 0; ; arrival++) {
+            long intended = start + arrival * interval;
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (pending.get() >= MAX_IN_FLIGHT_PER_OPERATION) {
+                stats.drop();
+                continue;
+            }
+            pending.incrementAndGet();
+            try {
+                operation.request().get().whenComplete((status, error) -> {
+                    stats.record(System.nanoTime() - intended, status, error);
+                    pending.decrementAndGet();
+                });
+            } catch (RuntimeException e) {
+                stats.record(System.nanoTime() - intended, null, e);
+                pending.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.zoo.loadtest;
+
+import com.zoo.MyApp;
+import com.zoo.service.AnimalService;
+import com.zoo.service.export.ExportFormat;
+import com.zoo.service.export.ExportProgress;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка нескольких миллионов записей в маленькой куче (-Xmx64m в профиле export-memory).
+ * Приложение запускается без веб-сервера на файловой базе H2: таблица лежит на диске,
+ * а не в куче, как было бы с базой в памяти. Таблица заполняется одним оператором на пачку,
+ * затем выгружается в каждом формате через AnimalService.saveAllAnimals.
+ * Проверка не пройдена, если не хватило памяти (-XX:+ExitOnOutOfMemoryError завершает JVM с кодом 3)
+ * или в файл записано не столько записей, сколько в таблице.
+ * <p>
+ * Запуск: mvn -Pexport-memory verify
+ * Параметры: -Dexport-memory.args="rows=5000000 formats=csv,json", -Dexport-memory.jvm.args="-Xmx48m ..."
+ */
+public final class ExportMemoryRunner {
+
+    private static final int SEED_BATCH_SIZE = 200_000;
+    private static final long MB = 1024 * 1024;
+
+    private ExportMemoryRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        long rows = Long.parseLong(options.getOrDefault("rows", "3000000"));
+        List<ExportFormat> formats = new ArrayList<>();
+        for (String format : options.getOrDefault("formats", "json,csv,txt,snapshot").split(",")) {
+            formats.add(ExportFormat.fromName(format));
+        }
+        Path work = Files.createTempDirectory("zoo-export-memory");
+        String url = options.getOrDefault("url", "jdbc:h2:file:" + work.resolve("db").toAbsolutePath()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;LAZY_QUERY_EXECUTION=TRUE;CACHE_SIZE=8192"
+                // Без фонового сжатия файла: на долгом ленивом курсоре H2 теряет прочитанные им блоки
+                + ";AUTO_COMPACT_FILL_RATE=0");
+
+        List<String> failures = new ArrayList<>();
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(MyApp.class)
+                .web(WebApplicationType.NONE)
+                .run(applicationArgs(url, work.resolve("storage")))) {
+            seed(app.getBean(JdbcTemplate.class), rows);
+            AnimalService animalService = app.getBean(AnimalService.class);
+
+            for (ExportFormat format : formats) {
+                resetPeakOldGen();
+                long[] written = new long[1];
+                long started = System.nanoTime();
+                String file = animalService.saveAllAnimals(format, new ExportProgress() {
+                    @Override
+                    public void rowWritten() {
+                        written[0]++;
+                    }
+
+                    @Override
+                    public void bytesWritten(long bytes) {
+                    }
+                });
+                long millis = (System.nanoTime() - started) / 1_000_000;
+                System.out.printf("%-8s %,d записей, %,d МБ, %,d мс, пик старого поколения %,d МБ, куча %,d МБ%n",
+                        format, written[0], Files.size(Path.of(file)) / MB, millis,
+                        peakOldGen() / MB, Runtime.getRuntime().maxMemory() / MB);
+                if (written[0] != rows) {
+                    failures.add(format + ": записано " + written[0] + " из " + rows);
+                }
+                Files.deleteIfExists(Path.of(file));
+                Files.deleteIfExists(Path.of(file + ".gz"));
+            }
+        } catch (OutOfMemoryError e) {
+            System.out.println("Не хватило памяти: " + e.getMessage());
+            System.exit(3);
+        }
+        deleteRecursively(work);
+
+        if (!failures.isEmpty()) {
+            System.out.println("Выгрузка неполная:");
+            failures.forEach(failure -> System.out.println("  " + failure));
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static String[] applicationArgs(String url, Path storage) {
+        Map<String, String> properties = new HashMap<>(Map.ofEntries(
+                Map.entry("spring.datasource.url", url),
+                Map.entry("spring.datasource.hikari.maximum-pool-size", "4"),
+                // Без удаления схемы при остановке: DROP большой таблицы в H2 требует больше памяти, чем выгрузка,
+                // а временная база все равно удаляется целиком
+                Map.entry("spring.jpa.hibernate.ddl-auto", "create"),
+                Map.entry("spring.jpa.show-sql", "false"),
+                Map.entry("spring.jpa.properties.hibernate.format_sql", "false"),
+                Map.entry("app.storage.directory", storage.toString()),
+                // Индексы чтения держат таблицу в памяти по замыслу; здесь проверяется только выгрузка
+                Map.entry("app.search-index.enabled", "false"),
+                Map.entry("app.species-histogram.enabled", "false"),
+                Map.entry("app.age-index.enabled", "false"),
+                Map.entry("app.snapshot.warm-start", "false"),
+                Map.entry("app.metrics.request-queries.enabled", "false"),
+                Map.entry("app.metrics.slow-query.enabled", "false"),
+                Map.entry("debug", "false"),
+                Map.entry("logging.level.root", "WARN"),
+                Map.entry("logging.level.com.zoo", "WARN"),
+                Map.entry("logging.level.org.hibernate.SQL", "WARN"),
+                Map.entry("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN"),
+                Map.entry("logging.level.org.postgresql.Driver", "WARN"),
+                Map.entry("logging.level.org.postgresql.core.v3.ConnectionFactoryImpl", "WARN"),
+                Map.entry("logging.level.java.sql", "WARN")
+        ));
+        if (url.startsWith("jdbc:h2:")) {
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        }
+        List<String> args = new ArrayList<>();
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return args.toArray(String[]::new);
+    }
+
+    /**
+     * Заполнение пачками INSERT ... SELECT: строки создает СУБД (generate_series есть в H2 и PostgreSQL),
+     * через кучу они не проходят
+     */
+    private static void seed(JdbcTemplate jdbcTemplate, long rows) {
+        System.out.printf("Заполнение базы: %,d животных%n", rows);
+        String sql = "INSERT INTO animals (id, name, species, age, created_at, updated_at, version) " +
+                "SELECT n, CONCAT('Животное ', n), CONCAT('Вид ', MOD(n, 40)), CAST(MOD(n, 30) AS INTEGER), ?, ?, 0 " +
+                "FROM generate_series(CAST(? AS BIGINT), CAST(? AS BIGINT)) AS g(n)";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (long from = 1; from <= rows; from += SEED_BATCH_SIZE) {
+            long to = Math.min(rows, from + SEED_BATCH_SIZE - 1);
+            jdbcTemplate.update(sql, now, now, from, to);
+        }
+    }
+
+    private static void resetPeakOldGen() {
+        System.gc();
+        MemoryPoolMXBean oldGen = oldGen();
+        if (oldGen != null) {
+            oldGen.resetPeakUsage();
+        }
+    }
+
+    /**
+     * Пик старого поколения: то, что пережило сборки во время выгрузки. Молодое поколение
+     * заполняется до предела при любой нагрузке, его пик о удержании памяти ничего не говорит.
+     */
+    private static long peakOldGen() {
+        MemoryPoolMXBean oldGen = oldGen();
+        return oldGen != null ? oldGen.getPeakUsage().getUsed() : -1;
+    }
+
+    private static MemoryPoolMXBean oldGen() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP
+                    && (pool.getName().contains("Old Gen") || pool.getName().contains("Tenured"))) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Ожидается аргумент вида key=value: " + arg);
+            }
+            values.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,113 @@
+package com.zoo.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Отчет прогона: таблица в консоль и JSON-файл, проверка порогов p99
+ */
+final class LoadReport {
+
+    record OperationResult(String operation,
+                           long requests,
+                           long succeeded,
+                           long failed,
+                           long rejected,
+                           long races,
+                           long dropped,
+                           long skipped,
+                           double throughputPerSecond,
+                           double p50Millis,
+                           double p99Millis,
+                           double p999Millis,
+                           double maxMillis) {
+    }
+
+    record PhaseResult(String phase, long durationSeconds, List<OperationResult> operations) {
+    }
+
+    private final List<PhaseResult> phases = new ArrayList<>();
+
+    void addPhase(String phase, Duration duration, Map<String, OperationStats> stats) {
+        List<OperationResult> results = new ArrayList<>();
+        double seconds = duration.toMillis() / 1000.0;
+        for (OperationStats operation : stats.values()) {
+            Histogram latency = operation.latency();
+            results.add(new OperationResult(
+                    operation.name(),
+                    latency.getTotalCount(),
+                    operation.succeeded(),
+                    operation.failed(),
+                    operation.rejected(),
+                    operation.races(),
+                    operation.dropped(),
+                    operation.skipped(),
+                    operation.succeeded() / seconds,
+                    millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue())
+            ));
+        }
+        phases.add(new PhaseResult(phase, duration.toSeconds(), results));
+    }
+
+    void print() {
+        for (PhaseResult phase : phases) {
+            System.out.printf("%n=== Фаза %s (%d с) ===%n", phase.phase(), phase.durationSeconds());
+            System.out.printf("%-14s %9s %9s %7s %7s %7s %7s %10s %10s %10s %10s%n",
+                    "операция", "запросов", "запр/с", "ошибок", "503", "гонки", "сброс",
+                    "p50 мс", "p99 мс", "p999 мс", "max мс");
+            for (OperationResult result : phase.operations()) {
+                System.out.printf("%-14s %9d %9.1f %7d %7d %7d %7d %10.2f %10.2f %10.2f %10.2f%n",
+                        result.operation(), result.requests(), result.throughputPerSecond(),
+                        result.failed(), result.rejected(), result.races(), result.dropped(),
+                        result.p50Millis(), result.p99Millis(), result.p999Millis(), result.maxMillis());
+            }
+        }
+    }
+
+    void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("phases", phases);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    /**
+     * Нарушения порогов: p99 выше max-p99-ms.&lt;операция&gt; и, при fail-on-errors, ошибочные ответы
+     */
+    List<String> violations(LoadTestConfig config) {
+        List<String> violations = new ArrayList<>();
+        for (PhaseResult phase : phases) {
+            for (OperationResult result : phase.operations()) {
+                Double maxP99 = config.maxP99Millis().get(result.operation());
+                if (maxP99 != null && result.p99Millis() > maxP99) {
+                    violations.add(String.format("%s/%s: p99 %.2f мс > %.2f мс",
+                            phase.phase(), result.operation(), result.p99Millis(), maxP99));
+                }
+                if (config.failOnErrors() && result.failed() > 0) {
+                    violations.add(String.format("%s/%s: %d ошибочных ответов",
+                            phase.phase(), result.operation(), result.failed()));
+                }
+            }
+        }
+        return violations;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.zoo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * HTTP-клиент нагрузочного прогона: асинхронные запросы к REST API приложения
+ */
+final class LoadTestClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LoadTestClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    CompletableFuture<Integer> get(String path) {
+        return send(request(path).GET().build());
+    }
+
+    CompletableFuture<Integer> delete(String path) {
+        return send(request(path).DELETE().build());
+    }
+
+    CompletableFuture<Integer> post(String path) {
+        return send(request(path).POST(HttpRequest.BodyPublishers.noBody()).build());
+    }
+
+    CompletableFuture<Integer> put(String path, String json) {
+        return send(request(path)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(json))
+                .build());
+    }
+
+    /**
+     * POST JSON и разбор тела ответа; null в теле, если ответ не 2xx
+     */
+    CompletableFuture<HttpResponse<JsonNode>> postJson(String path, String json) {
+        HttpRequest request = request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return http.sendAsync(request, this::jsonBody);
+    }
+
+    /**
+     * Синхронный GET с телом ответа по строкам (для NDJSON)
+     */
+    HttpResponse<Stream<String>> getLines(String path, String accept) {
+        try {
+            return http.send(request(path).header("Accept", accept).GET().build(), HttpResponse.BodyHandlers.ofLines());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Синхронный POST произвольного тела (для заполнения базы)
+     */
+    HttpResponse<String> postBody(String path, String contentType, HttpRequest.BodyPublisher body) {
+        try {
+            return http.send(request(path)
+                            .header("Content-Type", contentType)
+                            .POST(body)
+                            .timeout(Duration.ofMinutes(30))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Синхронный запрос с JSON-телом (или без тела, если json == null)
+     */
+    HttpResponse<String> exchange(String method, String path, String json) {
+        HttpRequest.Builder builder = request(path);
+        if (json != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(json));
+        } else {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        try {
+            return http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    private CompletableFuture<Integer> send(HttpRequest request) {
+        return http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private HttpResponse.BodySubscriber<JsonNode> jsonBody(HttpResponse.ResponseInfo info) {
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+            if (info.statusCode() / 100 != 2) {
+                return null;
+            }
+            try {
+                return objectMapper.readTree(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
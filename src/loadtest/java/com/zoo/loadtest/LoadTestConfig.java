@@ -0,0 +1,55 @@
+package com.zoo.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры прогона из аргументов вида key=value:
+ * rows, warmup и duration (секунды), report, fail-on-errors,
+ * rate.&lt;операция&gt; (запросов в секунду) и max-p99-ms.&lt;операция&gt; (порог для выхода с ошибкой).
+ */
+record LoadTestConfig(int rows,
+                      Duration warmup,
+                      Duration duration,
+                      Path report,
+                      boolean failOnErrors,
+                      Map<String, Double> rates,
+                      Map<String, Double> maxP99Millis) {
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Ожидается аргумент вида key=value: " + arg);
+            }
+            values.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+
+        Map<String, Double> rates = new HashMap<>();
+        Map<String, Double> maxP99 = new HashMap<>();
+        values.forEach((key, value) -> {
+            if (key.startsWith("rate.")) {
+                rates.put(key.substring("rate.".length()), Double.parseDouble(value));
+            } else if (key.startsWith("max-p99-ms.")) {
+                maxP99.put(key.substring("max-p99-ms.".length()), Double.parseDouble(value));
+            }
+        });
+
+        return new LoadTestConfig(
+                Integer.parseInt(values.getOrDefault("rows", "100000")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                Path.of(values.getOrDefault("report", "target/loadtest-report.json")),
+                Boolean.parseBoolean(values.getOrDefault("fail-on-errors", "true")),
+                rates,
+                maxP99
+        );
+    }
+
+    double rate(String operation, double defaultRate) {
+        return rates.getOrDefault(operation, defaultRate);
+    }
+}
@@ -0,0 +1,158 @@
+package com.zoo.loadtest;
+
+import com.zoo.MyApp;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Нагрузочный прогон REST API без внешней инфраструктуры.
+ * Приложение запускается в этом же процессе на H2 в режиме совместимости с PostgreSQL,
+ * заполняется rows животными через /api/animals/batch, после прогрева нагрузка подается
+ * в двух фазах: без выгрузок и с фоновыми выгрузками и потоковой выдачей всей таблицы.
+ * Сравнение фаз показывает, насколько выгрузки влияют на задержки точечных чтений.
+ * <p>
+ * Запуск: mvn -Ploadtest verify -Dloadtest.args="rows=100000 duration=60 max-p99-ms.get-by-id=50"
+ */
+public final class LoadTestRunner {
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        Path storage = Files.createTempDirectory("zoo-loadtest");
+
+        LoadReport report = new LoadReport();
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(MyApp.class)
+                .run(applicationArgs(storage))) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            LoadTestClient client = new LoadTestClient("http://localhost:" + port);
+
+            seed(client, config.rows());
+            long[] ids = loadIds(client);
+            System.out.printf("Загружено %d животных%n", ids.length);
+
+            Workload workload = new Workload(client, ids);
+            ArrivalRateDriver driver = new ArrivalRateDriver();
+
+            System.out.printf("Прогрев %d с%n", config.warmup().toSeconds());
+            driver.run(workload.operations(config, false), config.warmup());
+
+            System.out.printf("Фаза baseline %d с%n", config.duration().toSeconds());
+            report.addPhase("baseline", config.duration(),
+                    driver.run(workload.operations(config, false), config.duration()));
+
+            System.out.printf("Фаза exports %d с%n", config.duration().toSeconds());
+            report.addPhase("exports", config.duration(),
+                    driver.run(workload.operations(config, true), config.duration()));
+        }
+
+        report.print();
+        report.write(config.report());
+        System.out.printf("%nОтчет: %s%n", config.report().toAbsolutePath());
+
+        List<String> violations = report.violations(config);
+        if (!violations.isEmpty()) {
+            System.out.println("Пороги нарушены:");
+            violations.forEach(violation -> System.out.println("  " + violation));
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Настройки приложения для прогона; аргументы командной строки перекрывают application.properties
+     */
+    static String[] applicationArgs(Path storage) {
+        return applicationArgs(storage, Map.of());
+    }
+
+    /**
+     * То же с заменой части настроек, например источника данных
+     */
+    static String[] applicationArgs(Path storage, Map<String, String> overrides) {
+        Map<String, String> properties = new HashMap<>(Map.ofEntries(
+                Map.entry("spring.datasource.url",
+                        "jdbc:h2:mem:zoo;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1"),
+                Map.entry("spring.datasource.driver-class-name", "org.h2.Driver"),
+                Map.entry("spring.datasource.username", "sa"),
+                Map.entry("spring.datasource.password", ""),
+                Map.entry("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect"),
+                Map.entry("spring.jpa.hibernate.ddl-auto", "create-drop"),
+                Map.entry("spring.jpa.show-sql", "false"),
+                Map.entry("spring.jpa.properties.hibernate.format_sql", "false"),
+                Map.entry("server.port", "0"),
+                Map.entry("app.storage.directory", storage.toString()),
+                Map.entry("debug", "false"),
+                Map.entry("logging.level.root", "WARN"),
+                Map.entry("logging.level.com.zoo", "WARN"),
+                Map.entry("logging.level.org.hibernate.SQL", "WARN"),
+                Map.entry("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN"),
+                Map.entry("logging.level.java.sql", "WARN"),
+                Map.entry("logging.level.jdbc.audit", "WARN"),
+                Map.entry("logging.level.jdbc.resultset", "WARN"),
+                Map.entry("logging.level.jdbc.connection", "WARN")
+        ));
+        properties.putAll(overrides);
+        List<String> args = new ArrayList<>();
+        properties.forEach((key, value) -> args.add("--" + key + "=" + value));
+        return args.toArray(String[]::new);
+    }
+
+    private static void seed(LoadTestClient client, int rows) {
+        System.out.printf("Заполнение базы: %d животных%n", rows);
+        for (int from = 0; from < rows; from += SEED_BATCH_SIZE) {
+            int to = Math.min(rows, from + SEED_BATCH_SIZE);
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                body.append(Workload.randomAnimalJson(i)).append('\n');
+            }
+            HttpResponse<String> response = client.postBody("/api/animals/batch", "application/x-ndjson",
+                    HttpRequest.BodyPublishers.ofString(body.toString()));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Заполнение базы не удалось: " + response.statusCode() + " " + response.body());
+            }
+        }
+    }
+
+    /**
+     * Id всех животных через потоковую выдачу NDJSON
+     */
+    private static long[] loadIds(LoadTestClient client) throws Exception {
+        HttpResponse<Stream<String>> response = client.getLines("/api/animals/stream", "application/x-ndjson");
+        long[] ids = new long[1024];
+        int count = 0;
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = client.objectMapper().readTree(line).get("id").asLong();
+            }
+        }
+        if (count == 0) {
+            throw new IllegalStateException("После заполнения в базе нет животных");
+        }
+        return Arrays.copyOf(ids, count);
+    }
+}
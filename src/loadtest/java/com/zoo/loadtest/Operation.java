@@ -0,0 +1,21 @@
+package com.zoo.loadtest;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Вид запроса нагрузки с постоянной частотой поступления.
+ * request возвращает HTTP-статус ответа или null, если запрос не отправлялся (нет подходящих данных).
+ * expectedRaces - статусы, которыми сервер законно отвечает при гонке с другими запросами нагрузки
+ * (например, 404 на уже удаленную запись); они учитываются отдельно от ошибок.
+ */
+record Operation(String name,
+                 double ratePerSecond,
+                 Set<Integer> expectedRaces,
+                 Supplier<CompletableFuture<Integer>> request) {
+
+    Operation(String name, double ratePerSecond, Supplier<CompletableFuture<Integer>> request) {
+        this(name, ratePerSecond, Set.of(), request);
+    }
+}
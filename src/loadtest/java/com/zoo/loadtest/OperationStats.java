@@ -0,0 +1,89 @@
+package com.zoo.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результаты одной операции за фазу: гистограмма задержек (мкс) и счетчики исходов
+ */
+final class OperationStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String name;
+    private final Set<Integer> expectedRaces;
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder races = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    OperationStats(String name, Set<Integer> expectedRaces) {
+        this.name = name;
+        this.expectedRaces = expectedRaces;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void record(long latencyNanos, Integer status, Throwable error) {
+        if (error == null && status == null) {
+            skipped.increment();
+            return;
+        }
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (error != null) {
+            failed.increment();
+        } else if (status == 503) {
+            rejected.increment();
+        } else if (expectedRaces.contains(status)) {
+            races.increment();
+        } else if (status >= 400) {
+            failed.increment();
+        } else {
+            succeeded.increment();
+        }
+    }
+
+    /**
+     * Запрос не отправлен: клиент уже держит предельное число незавершенных запросов этой операции
+     */
+    void drop() {
+        dropped.increment();
+    }
+
+    Histogram latency() {
+        return latency;
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long rejected() {
+        return rejected.sum();
+    }
+
+    long races() {
+        return races.sum();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    long skipped() {
+        return skipped.sum();
+    }
+}
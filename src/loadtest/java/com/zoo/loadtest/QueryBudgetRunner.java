@@ -0,0 +1,266 @@
+package com.zoo.loadtest;
+
+import com.zoo.MyApp;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Проверка числа обращений к базе на эндпоинтах AnimalController.
+ * Приложение запускается в этом же процессе, база заполняется детерминированным
+ * набором животных, затем каждый эндпоинт вызывается по одному разу в фиксированном порядке.
+ * Число операторов, пакетов, прочитанных строк и загруженных сущностей берется из метрик
+ * app.request.* этого же процесса и сверяется с эталоном на точное совпадение: и рост
+ * (N+1, лишний запрос), и падение (эталон пора обновить) считаются нарушением.
+ * <p>
+ * Эталон свой для каждой базы (src/loadtest/query-budget-&lt;db&gt;.properties): на PostgreSQL
+ * PUT, PATCH и DELETE /{id}, DELETE by-filter и DELETE /api/animals идут отдельными операторами
+ * PostgreSQL, на H2 - через JPA. db=h2 (по умолчанию) охраняет пути H2 и все общие чтения,
+ * db=postgres - пути, которые работают в проде; url= указывает пустую базу PostgreSQL
+ * (по умолчанию zoo_budget, схема создается и удаляется прогоном).
+ * <p>
+ * Проверка: mvn -Pquery-budget verify, на PostgreSQL: -Dquery-budget.args="db=postgres"
+ * Обновление эталона после осознанного изменения: mvn -Pquery-budget verify -Dquery-budget.args="update=true"
+ * (и то же с db=postgres)
+ * <p>
+ * Потоковые выдачи и выгрузки не проверяются: их чтение идет вне потока запроса и в метрики не попадает.
+ */
+public final class QueryBudgetRunner {
+
+    private static final String[] METRICS = {
+            "app.request.statements", "app.request.batches", "app.request.rows", "app.request.entity.loads"
+    };
+    private static final long METRICS_WAIT_MILLIS = 5_000;
+    private static final String POSTGRES_URL = "jdbc:postgresql://localhost:5432/zoo_budget?reWriteBatchedInserts=true";
+
+    private QueryBudgetRunner() {
+    }
+
+    /**
+     * Вызов эндпоинта: uri - шаблон пути из тега метрик, {id} в пути заменяется id созданного животного
+     */
+    private record Probe(String name, String method, String path, String uri, String body) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "1000"));
+        String database = options.getOrDefault("db", "h2");
+        Path budgetFile = Path.of(options.getOrDefault("budget", "src/loadtest/query-budget-" + database + ".properties"));
+        boolean update = Boolean.parseBoolean(options.getOrDefault("update", "false"));
+        Path storage = Files.createTempDirectory("zoo-query-budget");
+
+        Map<String, Long> measured = new TreeMap<>();
+        List<String> violations = new ArrayList<>();
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(MyApp.class)
+                .run(LoadTestRunner.applicationArgs(storage, dataSource(database, options)))) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            LoadTestClient client = new LoadTestClient("http://localhost:" + port);
+            MeterRegistry registry = app.getBean(MeterRegistry.class);
+
+            seed(client, rows);
+            String id = null;
+            for (Probe probe : probes()) {
+                String path = id != null ? probe.path().replace("{id}", id) : probe.path();
+                long[] before = snapshot(registry, probe);
+                HttpResponse<String> response = client.exchange(probe.method(), path, probe.body());
+                if (response.statusCode() / 100 != 2) {
+                    violations.add(probe.name() + ": ответ " + response.statusCode() + " " + response.body());
+                    continue;
+                }
+                if (probe.name().equals("create")) {
+                    id = client.objectMapper().readTree(response.body()).get("id").asText();
+                }
+                long[] after = awaitRecorded(registry, probe, before);
+                for (int i = 0; i < METRICS.length; i++) {
+                    measured.put(probe.name() + "." + METRICS[i].substring("app.request.".length()), after[i] - before[i]);
+                }
+            }
+        }
+
+        if (update) {
+            writeBudget(budgetFile, database, measured);
+            System.out.printf("Эталон записан: %s%n", budgetFile.toAbsolutePath());
+            System.exit(violations.isEmpty() ? 0 : 1);
+        }
+
+        Properties budget = readBudget(budgetFile);
+        measured.forEach((key, value) -> {
+            String expected = budget.getProperty(key);
+            if (expected == null) {
+                violations.add(key + ": нет в эталоне, измерено " + value);
+            } else if (Long.parseLong(expected.trim()) != value) {
+                violations.add(key + ": ожидалось " + expected.trim() + ", измерено " + value);
+            }
+        });
+        measured.forEach((key, value) -> System.out.printf("%-40s %d%n", key, value));
+        if (!violations.isEmpty()) {
+            System.out.println("Расхождения с эталоном " + budgetFile + ":");
+            violations.forEach(violation -> System.out.println("  " + violation));
+            System.out.println("Если изменение осознанное, обновите эталон: -Dquery-budget.args=\"update=true\"");
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Источник данных прогона: H2 из {@link LoadTestRunner} или PostgreSQL со схемой, созданной заново
+     */
+    private static Map<String, String> dataSource(String database, Map<String, String> options) {
+        return switch (database) {
+            case "h2" -> Map.of();
+            case "postgres" -> Map.of(
+                    "spring.datasource.url", options.getOrDefault("url", POSTGRES_URL),
+                    "spring.datasource.driver-class-name", "org.postgresql.Driver",
+                    "spring.datasource.username", options.getOrDefault("user", "postgres"),
+                    "spring.datasource.password", options.getOrDefault("password", "postgres"),
+                    "spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect",
+                    // create-drop на пустой базе предупреждает о каждой отсутствующей таблице
+                    "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper", "ERROR",
+                    "logging.level.org.postgresql.Driver", "WARN",
+                    "logging.level.org.postgresql.core.v3.ConnectionFactoryImpl", "WARN");
+            default -> throw new IllegalArgumentException("Неизвестная база: " + database + ", ожидается h2 или postgres");
+        };
+    }
+
+    private static List<Probe> probes() {
+        String species = encode(Workload.SPECIES[0]);
+        String animal = Workload.animalJson("Пробный", Workload.SPECIES[0], 3);
+        return List.of(
+                new Probe("create", "POST", "/api/animals", "/api/animals", animal),
+                new Probe("get-by-id", "GET", "/api/animals/{id}", "/api/animals/{id}", null),
+                new Probe("list", "GET", "/api/animals?limit=50", "/api/animals", null),
+                new Probe("by-species", "GET", "/api/animals/species/" + species + "?limit=50",
+                        "/api/animals/species/{species}", null),
+                new Probe("search", "GET", "/api/animals/search?name=" + encode(Workload.NAMES[0]) + "&limit=50",
+                        "/api/animals/search", null),
+                new Probe("younger", "GET", "/api/animals/younger/5?limit=50", "/api/animals/younger/{age}", null),
+                new Probe("older", "GET", "/api/animals/older/25?limit=50", "/api/animals/older/{age}", null),
+                new Probe("age-range", "GET", "/api/animals/age-range?min=5&max=10&limit=50",
+                        "/api/animals/age-range", null),
+                new Probe("species-age-range", "GET", "/api/animals/species/" + species + "/age-range?min=5&max=10&limit=50",
+                        "/api/animals/species/{species}/age-range", null),
+                new Probe("query", "GET", "/api/animals/query?species=" + species + "," + encode(Workload.SPECIES[1])
+                        + "&minAge=5&maxAge=10&sort=-age&limit=50", "/api/animals/query", null),
+                new Probe("species-list", "GET", "/api/animals/species/list", "/api/animals/species/list", null),
+                new Probe("species-stats", "GET", "/api/animals/species/stats?withAge=true",
+                        "/api/animals/species/stats", null),
+                new Probe("species-count", "GET", "/api/animals/species/" + species + "/count",
+                        "/api/animals/species/{species}/count", null),
+                new Probe("update", "PUT", "/api/animals/{id}", "/api/animals/{id}",
+                        Workload.animalJson("Пробный", Workload.SPECIES[1], 4)),
+                new Probe("patch", "PATCH", "/api/animals/{id}", "/api/animals/{id}", "{\"age\":5}"),
+                new Probe("update-by-filter", "PATCH", "/api/animals/by-filter?species=" + encode(Workload.SPECIES[2]) + "&minAge=20",
+                        "/api/animals/by-filter", "{\"ageDelta\":1}"),
+                new Probe("delete-by-filter", "DELETE", "/api/animals/by-filter?species=" + encode(Workload.SPECIES[3]) + "&minAge=28",
+                        "/api/animals/by-filter", null),
+                new Probe("delete", "DELETE", "/api/animals/{id}", "/api/animals/{id}", null),
+                new Probe("export-files", "GET", "/api/animals/export", "/api/animals/export", null),
+                new Probe("delete-all", "DELETE", "/api/animals", "/api/animals", null)
+        );
+    }
+
+    /**
+     * Один и тот же набор при каждом запуске: от него зависит число прочитанных строк
+     */
+    private static void seed(LoadTestClient client, int rows) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            body.append(Workload.animalJson(
+                    Workload.NAMES[i % Workload.NAMES.length] + " " + i,
+                    Workload.SPECIES[i % Workload.SPECIES.length],
+                    i % 30)).append('\n');
+        }
+        HttpResponse<String> response = client.postBody("/api/animals/batch", "application/x-ndjson",
+                HttpRequest.BodyPublishers.ofString(body.toString()));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Заполнение базы не удалось: " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static long[] snapshot(MeterRegistry registry, Probe probe) {
+        long[] values = new long[METRICS.length + 1];
+        for (int i = 0; i < METRICS.length; i++) {
+            DistributionSummary summary = summary(registry, METRICS[i], probe);
+            values[i] = summary != null ? (long) summary.totalAmount() : 0;
+        }
+        DistributionSummary calls = summary(registry, METRICS[0], probe);
+        values[METRICS.length] = calls != null ? calls.count() : 0;
+        return values;
+    }
+
+    /**
+     * Метрики пишутся фильтром после отправки ответа: ждем, пока вызов появится в счетчике
+     */
+    private static long[] awaitRecorded(MeterRegistry registry, Probe probe, long[] before) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + METRICS_WAIT_MILLIS;
+        while (true) {
+            long[] after = snapshot(registry, probe);
+            if (after[METRICS.length] > before[METRICS.length]) {
+                return after;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Вызов " + probe.name() + " не попал в метрики " + probe.method() + " " + probe.uri());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static DistributionSummary summary(MeterRegistry registry, String name, Probe probe) {
+        return registry.find(name).tag("method", probe.method()).tag("uri", probe.uri()).summary();
+    }
+
+    private static Properties readBudget(Path file) throws IOException {
+        Properties budget = new Properties();
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                budget.load(reader);
+            }
+        }
+        return budget;
+    }
+
+    private static void writeBudget(Path file, String database, Map<String, Long> measured) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# Эталон обращений к базе на эндпоинт (QueryBudgetRunner), " + database
+                    + ", один вызов в порядке проверки\n");
+            for (Map.Entry<String, Long> entry : measured.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Ожидается аргумент вида key=value: " + arg);
+            }
+            values.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+        return values;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
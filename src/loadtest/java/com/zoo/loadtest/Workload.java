@@ -0,0 +1,134 @@
+package com.zoo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.zoo.dto.PageCursor;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Смешанная нагрузка на AnimalController: точечные чтения, списки, поиск, запись и выгрузки.
+ * Частоты по умолчанию переопределяются аргументами rate.&lt;операция&gt;.
+ */
+final class Workload {
+
+    static final String[] SPECIES = {
+            "Лев", "Тигр", "Жираф", "Слон", "Зебра", "Пингвин", "Белый медведь", "Красная панда",
+            "Жаба", "Капибара", "Лемур", "Фламинго"
+    };
+
+    static final String[] NAMES = {
+            "Барсик", "Симба", "Матильда", "Снежок", "Кеша", "Ричард", "Жужа", "Марта", "Граф", "Luna"
+    };
+
+    private static final String[] EXPORT_FORMATS = {"json", "csv", "txt"};
+
+    private final LoadTestClient client;
+    private final long[] seededIds;
+    // Созданные нагрузкой животные: их изменяет и удаляет нагрузка, чтобы объем данных оставался стабильным.
+    // Изменение забирает id из очереди на время запроса и возвращает после ответа, поэтому одну запись
+    // никогда не изменяют и не удаляют одновременно
+    private final ConcurrentLinkedQueue<Long> createdIds = new ConcurrentLinkedQueue<>();
+
+    Workload(LoadTestClient client, long[] seededIds) {
+        this.client = client;
+        this.seededIds = seededIds;
+    }
+
+    List<Operation> operations(LoadTestConfig config, boolean withExports) {
+        List<Operation> operations = new ArrayList<>();
+        operations.add(new Operation("get-by-id", config.rate("get-by-id", 200),
+                () -> client.get("/api/animals/" + randomSeededId())));
+        operations.add(new Operation("species-count", config.rate("species-count", 20),
+                () -> client.get("/api/animals/species/" + encode(random(SPECIES)) + "/count")));
+        operations.add(new Operation("species-stats", config.rate("species-stats", 5),
+                () -> client.get("/api/animals/species/stats?withAge=true")));
+        operations.add(new Operation("list-page", config.rate("list-page", 20),
+                () -> client.get("/api/animals?limit=100&cursor=" + PageCursor.afterId(randomSeededId()).encode())));
+        operations.add(new Operation("search-name", config.rate("search-name", 20),
+                () -> client.get("/api/animals/search?limit=100&name=" + encode(randomNameFragment()))));
+        operations.add(new Operation("species-page", config.rate("species-page", 10),
+                () -> client.get("/api/animals/species/" + encode(random(SPECIES)) + "?limit=100")));
+        operations.add(new Operation("age-range", config.rate("age-range", 20), () -> {
+            int min = ThreadLocalRandom.current().nextInt(40);
+            return client.get("/api/animals/age-range?limit=100&min=" + min + "&max=" + (min + 3));
+        }));
+        operations.add(new Operation("create", config.rate("create", 20), this::create));
+        // 404/409 для записей нагрузки возможны только при гонке с другим клиентом того же сервера
+        operations.add(new Operation("update", config.rate("update", 20), Set.of(404, 409), this::update));
+        operations.add(new Operation("delete", config.rate("delete", 20), Set.of(404, 409), this::delete));
+        if (withExports) {
+            operations.add(new Operation("export-job", config.rate("export-job", 0.2),
+                    () -> client.post("/api/animals/export/jobs?format=" + random(EXPORT_FORMATS))));
+            operations.add(new Operation("stream-all", config.rate("stream-all", 0.05),
+                    () -> client.get("/api/animals/stream")));
+        }
+        return operations;
+    }
+
+    static String animalJson(String name, String species, int age) {
+        return "{\"name\":\"" + name + "\",\"species\":\"" + species + "\",\"age\":" + age + "}";
+    }
+
+    static String randomAnimalJson(long sequence) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return animalJson(random(NAMES) + " " + sequence, random(SPECIES), random.nextInt(40));
+    }
+
+    private CompletableFuture<Integer> create() {
+        return client.postJson("/api/animals", randomAnimalJson(System.nanoTime()))
+                .thenApply(response -> {
+                    JsonNode body = response.body();
+                    if (body != null && body.hasNonNull("id")) {
+                        createdIds.add(body.get("id").asLong());
+                    }
+                    return response.statusCode();
+                });
+    }
+
+    private CompletableFuture<Integer> update() {
+        Long id = createdIds.poll();
+        if (id == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return client.put("/api/animals/" + id, randomAnimalJson(id))
+                .whenComplete((status, error) -> {
+                    // Запись возвращается в очередь, если она еще существует: после 503 или сбоя сети тоже
+                    if (status == null || status != 404) {
+                        createdIds.add(id);
+                    }
+                });
+    }
+
+    private CompletableFuture<Integer> delete() {
+        Long id = createdIds.poll();
+        if (id == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return client.delete("/api/animals/" + id);
+    }
+
+    private long randomSeededId() {
+        return seededIds[ThreadLocalRandom.current().nextInt(seededIds.length)];
+    }
+
+    private static String randomNameFragment() {
+        String name = random(NAMES);
+        int start = ThreadLocalRandom.current().nextInt(Math.max(1, name.length() - 2));
+        return name.substring(start, Math.min(name.length(), start + 3));
+    }
+
+    private static <T> T random(T[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
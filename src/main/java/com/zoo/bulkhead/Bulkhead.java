@@ -0,0 +1,19 @@
+package com.zoo.bulkhead;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Относит обработчик запроса к классу с отдельным лимитом параллельной работы.
+ * Обработчики без аннотации не ограничиваются.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    RequestClass value();
+}
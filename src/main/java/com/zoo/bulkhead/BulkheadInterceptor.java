@@ -0,0 +1,80 @@
+package com.zoo.bulkhead;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Занимает место в классе запросов обработчика, помеченного @Bulkhead, на все время запроса.
+ * Для асинхронных ответов (потоковые выдачи) место держится до завершения асинхронной обработки.
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".permit";
+
+    private final BulkheadRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Повторная диспетчеризация после асинхронной обработки: место уже занято
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Bulkhead bulkhead = method.getMethodAnnotation(Bulkhead.class);
+        if (bulkhead != null) {
+            request.setAttribute(PERMIT_ATTRIBUTE, registry.acquire(bulkhead.value()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        BulkheadRegistry.Permit permit = permit(request);
+        if (permit == null) {
+            return;
+        }
+        // Если повторной диспетчеризации не будет (тайм-аут, обрыв соединения), место освободит слушатель
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                permit.release();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                permit.release();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                permit.release();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        BulkheadRegistry.Permit permit = permit(request);
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    private static BulkheadRegistry.Permit permit(HttpServletRequest request) {
+        return (BulkheadRegistry.Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,122 @@
+package com.zoo.bulkhead;
+
+import com.zoo.config.BulkheadProperties;
+import com.zoo.dto.BulkheadStatsResponse;
+import com.zoo.exception.ServiceOverloadedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Семафоры классов запросов с ограниченной очередью ожидания
+ */
+@Component
+@Slf4j
+public class BulkheadRegistry {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Map<RequestClass, Compartment> compartments = new EnumMap<>(RequestClass.class);
+
+    public BulkheadRegistry(BulkheadProperties properties) {
+        compartments.put(RequestClass.POINT_READ, new Compartment(RequestClass.POINT_READ, properties.getPointRead()));
+        compartments.put(RequestClass.LIST, new Compartment(RequestClass.LIST, properties.getList()));
+        compartments.put(RequestClass.WRITE, new Compartment(RequestClass.WRITE, properties.getWrite()));
+        compartments.put(RequestClass.BULK, new Compartment(RequestClass.BULK, properties.getBulk()));
+    }
+
+    /**
+     * Занять место в классе запросов или отклонить запрос с ServiceOverloadedException
+     */
+    public Permit acquire(RequestClass requestClass) {
+        return compartments.get(requestClass).acquire();
+    }
+
+    public List<BulkheadStatsResponse> getStats() {
+        List<BulkheadStatsResponse> stats = new ArrayList<>();
+        compartments.values().forEach(compartment -> stats.add(compartment.stats()));
+        return stats;
+    }
+
+    /**
+     * Занятое место; release можно вызывать повторно, место освобождается один раз
+     */
+    public static final class Permit {
+
+        private final Semaphore semaphore;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        }
+    }
+
+    private static final class Compartment {
+
+        private final RequestClass requestClass;
+        private final BulkheadProperties.Limits limits;
+        private final Semaphore semaphore;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicLong rejected = new AtomicLong();
+
+        Compartment(RequestClass requestClass, BulkheadProperties.Limits limits) {
+            this.requestClass = requestClass;
+            this.limits = limits;
+            this.semaphore = new Semaphore(limits.getMaxConcurrent(), true);
+        }
+
+        Permit acquire() {
+            if (semaphore.tryAcquire()) {
+                return new Permit(semaphore);
+            }
+            if (waiting.incrementAndGet() > limits.getMaxQueued()) {
+                waiting.decrementAndGet();
+                throw reject("очередь заполнена");
+            }
+            try {
+                if (semaphore.tryAcquire(limits.getMaxWait().toNanos(), TimeUnit.NANOSECONDS)) {
+                    return new Permit(semaphore);
+                }
+                throw reject("истекло время ожидания");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject("ожидание прервано");
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        private ServiceOverloadedException reject(String reason) {
+            rejected.incrementAndGet();
+            log.warn("Запрос класса {} отклонен: {}", requestClass, reason);
+            return new ServiceOverloadedException(
+                    "Сервис перегружен запросами класса " + requestClass + ", повторите запрос позже", RETRY_AFTER);
+        }
+
+        BulkheadStatsResponse stats() {
+            return new BulkheadStatsResponse(
+                    requestClass.name(),
+                    limits.getMaxConcurrent(),
+                    limits.getMaxConcurrent() - semaphore.availablePermits(),
+                    waiting.get(),
+                    rejected.get()
+            );
+        }
+    }
+}
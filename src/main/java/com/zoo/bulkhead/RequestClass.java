@@ -0,0 +1,15 @@
+package com.zoo.bulkhead;
+
+/**
+ * Класс запроса с собственным лимитом параллельной работы
+ */
+public enum RequestClass {
+    // Чтение одной записи или готового агрегата
+    POINT_READ,
+    // Постраничные выборки
+    LIST,
+    // Создание, изменение и удаление одной записи
+    WRITE,
+    // Выгрузки, потоковые выдачи, пакетные и массовые операции
+    BULK
+}
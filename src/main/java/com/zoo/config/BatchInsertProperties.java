@@ -0,0 +1,20 @@
+package com.zoo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки пакетной вставки животных
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.batch")
+public class BatchInsertProperties {
+
+    // Сколько записей вставляется в одной транзакции
+    private int chunkSize = 1000;
+
+    // Сколько ошибок по отдельным записям попадает в ответ (остальные только считаются)
+    private int maxReportedErrors = 1000;
+}
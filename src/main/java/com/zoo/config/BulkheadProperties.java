@@ -0,0 +1,46 @@
+package com.zoo.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Лимиты параллельной работы по классам запросов.
+ * Сумма maxConcurrent всех классов вместе с app.export.max-concurrent не должна превышать
+ * spring.datasource.hikari.maximum-pool-size: тогда у каждого класса есть своя доля соединений
+ * и массовые операции не могут занять соединения точечных чтений.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    private Limits pointRead = new Limits(8, 100, Duration.ofMillis(100));
+
+    private Limits list = new Limits(6, 50, Duration.ofMillis(500));
+
+    private Limits write = new Limits(4, 50, Duration.ofMillis(500));
+
+    private Limits bulk = new Limits(4, 4, Duration.ZERO);
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        // Сколько запросов класса выполняется одновременно
+        private int maxConcurrent;
+
+        // Сколько запросов может ждать свободного места; остальные сразу получают 503
+        private int maxQueued;
+
+        // Сколько запрос ждет в очереди, прежде чем получить 503
+        private Duration maxWait;
+    }
+}
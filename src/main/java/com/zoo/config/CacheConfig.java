@@ -0,0 +1,18 @@
+package com.zoo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Кэш чтений AnimalService (Caffeine, настройки в spring.cache.*).
+ * Кэширующий прокси стоит снаружи транзакционного, чтобы попадание в кэш не открывало транзакцию
+ * и не занимало соединение с базой.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String ANIMAL_BY_ID = "animalById";
+    public static final String SPECIES_LIST = "speciesList";
+}
@@ -0,0 +1,41 @@
+package com.zoo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Настройки выдачи изменений GET /api/animals/changes (Server-Sent Events)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.change-feed")
+public class ChangeFeedProperties {
+
+    // Выдача включена; иначе эндпоинт отвечает 404
+    private boolean enabled = true;
+
+    // Сколько последних событий хранится в памяти для продолжения по Last-Event-ID
+    private int replayCapacity = 10_000;
+
+    // Сколько подписчиков обслуживается одновременно, остальным - 503.
+    // Каждый держит соединение: держать заметно меньше server.tomcat.max-connections, оставляя запас для REST API
+    private int maxSubscribers = 5_000;
+
+    // На сколько событий подписчик может отстать, прежде чем будет отключен (не больше replayCapacity)
+    private int maxLag = 1_000;
+
+    // Потоки отправки событий: заняты только во время записи в сокет, ожидающие подписчики потоков не держат
+    private int senderThreads = 16;
+
+    // Сколько может длиться одна запись подписчику; дольше - подписчик отключается
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    // Интервал комментариев-пульса в простаивающих соединениях (для прокси и обнаружения обрывов)
+    private Duration heartbeat = Duration.ofSeconds(30);
+
+    // Время жизни соединения; клиент переподключается с Last-Event-ID без потери событий
+    private Duration connectionTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,48 @@
+package com.zoo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки фоновых заданий выгрузки и хранения файлов выгрузки
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    // Сколько выгрузок выполняется одновременно (каждая держит соединение с базой)
+    private int maxConcurrent = 2;
+
+    // Сколько незавершенных заданий (выполняемых и ожидающих) принимается, остальные отклоняются с 503
+    private int maxJobs = 16;
+
+    // Выполнять задания в виртуальных потоках; иначе - в пуле из maxConcurrent потоков
+    private boolean virtualThreads = true;
+
+    // Сколько хранится информация о завершенном задании
+    private Duration jobRetention = Duration.ofHours(1);
+
+    // Писать рядом с текстовыми выгрузками сжатый вариант .gz: он отдается клиентам с Accept-Encoding: gzip
+    private boolean gzipVariants = true;
+
+    // Ротация файлов в директории хранения: сначала удаляются самые старые
+    private FileRetention fileRetention = new FileRetention();
+
+    @Data
+    public static class FileRetention {
+
+        // Сколько файлов хранится (0 - без ограничения)
+        private int maxFiles = 200;
+
+        // Сколько хранится файл (null - без ограничения)
+        private Duration maxAge = Duration.ofDays(30);
+
+        // Сколько места занимают все файлы вместе (null - без ограничения)
+        private DataSize maxTotalSize = DataSize.ofGigabytes(20);
+    }
+}
@@ -0,0 +1,33 @@
+package com.zoo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Настройки постраничной выдачи списков
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.pagination")
+public class PaginationProperties {
+
+    // Размер страницы, если клиент его не указал
+    private int defaultSize = 100;
+
+    // Максимальный размер страницы, больше которого клиент запросить не может
+    private int maxSize = 1000;
+
+    /**
+     * Размер страницы с учетом значения по умолчанию и серверного ограничения
+     */
+    public int resolveSize(Integer requested) {
+        if (requested == null) {
+            return Math.min(defaultSize, maxSize);
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным числом");
+        }
+        return Math.min(requested, maxSize);
+    }
+}
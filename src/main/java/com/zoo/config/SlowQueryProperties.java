@@ -0,0 +1,30 @@
+package com.zoo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Журнал медленных операторов JDBC (app.metrics.slow-query).
+ * В журнал попадают текст оператора, типы привязанных параметров (без значений) и эндпоинт,
+ * из которого оператор выполнен; счетчик app.jdbc.slow.queries учитывает все медленные операторы,
+ * в том числе не попавшие в выборку.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.metrics.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+
+    // Оператор медленнее этого порога считается медленным
+    private Duration threshold = Duration.ofMillis(200);
+
+    // Доля медленных операторов, которые пишутся в журнал (0..1)
+    private double sampleRate = 1.0;
+
+    // Длина текста оператора в журнале; длинные IN-списки и пакеты обрезаются
+    private int maxSqlLength = 2000;
+}
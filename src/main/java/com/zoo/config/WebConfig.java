@@ -0,0 +1,22 @@
+package com.zoo.config;
+
+import com.zoo.bulkhead.BulkheadInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final BulkheadInterceptor bulkheadInterceptor;
+    private final BulkheadProperties bulkheadProperties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (bulkheadProperties.isEnabled()) {
+            registry.addInterceptor(bulkheadInterceptor).addPathPatterns("/api/**");
+        }
+    }
+}
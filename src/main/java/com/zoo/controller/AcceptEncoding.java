@@ -0,0 +1,51 @@
+package com.zoo.controller;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Locale;
+
+/**
+ * Разбор заголовка Accept-Encoding (RFC 9110, 12.5.3) с учетом веса q
+ */
+final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * Принимает ли клиент gzip: gzip (или x-gzip) с q > 0, а если gzip не упомянут - * с q > 0.
+     * gzip;q=0 - явный отказ, даже если * разрешен.
+     */
+    static boolean acceptsGzip(HttpHeaders requestHeaders) {
+        double gzip = -1;
+        double any = -1;
+        for (String value : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String element : value.split(",")) {
+                String[] parts = element.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = Math.max(gzip, quality(parts));
+                } else if (coding.equals("*")) {
+                    any = Math.max(any, quality(parts));
+                }
+            }
+        }
+        return gzip >= 0 ? gzip > 0 : any > 0;
+    }
+
+    // Вес из параметра q; без него 1, нечитаемый вес считается отказом
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            int separator = parameter.indexOf('=');
+            if (separator > 0 && parameter.substring(0, separator).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter.substring(separator + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -1,173 +1,502 @@
 package com.zoo.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zoo.bulkhead.Bulkhead;
+import com.zoo.bulkhead.RequestClass;
+import com.zoo.dto.AnimalBulkUpdateRequest;
+import com.zoo.dto.AnimalFilter;
+import com.zoo.dto.AnimalPage;
+import com.zoo.dto.AnimalPatchRequest;
+import com.zoo.dto.AnimalQuery;
 import com.zoo.dto.AnimalRequest;
 import com.zoo.dto.AnimalResponse;
+import com.zoo.dto.BatchInsertResult;
+import com.zoo.dto.BulkChangeResult;
+import com.zoo.dto.ExportFilePage;
+import com.zoo.dto.ExportFileResponse;
+import com.zoo.dto.ImportResult;
+import com.zoo.dto.SpeciesStatsResponse;
+import com.zoo.service.AnimalBatchService;
+import com.zoo.service.AnimalChangeFeed;
+import com.zoo.service.AnimalImportService;
 import com.zoo.service.AnimalService;
+import com.zoo.service.export.ExportFormat;
+import com.zoo.service.export.ExportJobService;
+import com.zoo.service.export.StoredFile;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.core.io.Resource;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 @RestController
 @RequestMapping("/api/animals")
 @RequiredArgsConstructor
 public class AnimalController {
 
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final AnimalService animalService;
+    private final AnimalBatchService animalBatchService;
+    private final AnimalImportService animalImportService;
+    private final ExportJobService exportJobService;
+    private final AnimalChangeFeed animalChangeFeed;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.streaming.gzip.enabled:true}")
+    private boolean streamingGzipEnabled;
 
+    @Bulkhead(RequestClass.WRITE)
     @PostMapping
     public ResponseEntity<AnimalResponse> addAnimal(@Valid @RequestBody AnimalRequest request) {
         AnimalResponse createdAnimal = animalService.addAnimal(request);
         return new ResponseEntity<>(createdAnimal, HttpStatus.CREATED);
     }
 
+    @Bulkhead(RequestClass.BULK)
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, AnimalStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<BatchInsertResult> addAnimalsBatch(InputStream body) {
+        BatchInsertResult result = animalBatchService.insertAll(body);
+        return ResponseEntity.ok(result);
+    }
+
+    @Bulkhead(RequestClass.LIST)
     @GetMapping
-    public ResponseEntity<List<AnimalResponse>> getAllAnimals() {
-        List<AnimalResponse> animals = animalService.getAllAnimals();
-        return ResponseEntity.ok(animals);
+    public ResponseEntity<List<AnimalResponse>> getAllAnimals(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (listNotModified(webRequest)) {
+            return null;
+        }
+        AnimalPage page = animalService.getAllAnimals(cursor, limit);
+        return pageResponse(page);
     }
 
+    @Bulkhead(RequestClass.POINT_READ)
     @GetMapping("/{id}")
-    public ResponseEntity<AnimalResponse> getAnimalById(@PathVariable Long id) {
-        AnimalResponse animal = animalService.getAnimalById(id);
-        return ResponseEntity.ok(animal);
+    public ResponseEntity<AnimalResponse> getAnimalById(@PathVariable Long id, WebRequest webRequest) {
+        // С If-None-Match версия сверяется до загрузки: на совпавший ETag запись не читается и не сериализуется.
+        // Без него отдельный запрос версии не нужен - ETag берется из загруженной записи
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            AnimalResponse animal = animalService.getAnimalById(id);
+            return ResponseEntity.ok()
+                    .eTag(AnimalETags.ofVersion(animal.version()))
+                    .body(animal);
+        }
+        // Версия берется из базы, а не из кэша: кэш может отставать от только что зафиксированного изменения
+        long version = animalService.getAnimalVersion(id);
+        if (webRequest.checkNotModified(AnimalETags.ofVersion(version))) {
+            return null;
+        }
+        AnimalResponse animal = animalService.getAnimalById(id, version);
+        return ResponseEntity.ok()
+                .eTag(AnimalETags.ofVersion(animal.version()))
+                .body(animal);
     }
 
+    @Bulkhead(RequestClass.LIST)
     @GetMapping("/species/{species}")
-    public ResponseEntity<List<AnimalResponse>> getAnimalsBySpecies(@PathVariable String species) {
-        List<AnimalResponse> animals = animalService.getAnimalsBySpecies(species);
-        return ResponseEntity.ok(animals);
+    public ResponseEntity<List<AnimalResponse>> getAnimalsBySpecies(
+            @PathVariable String species,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (listNotModified(webRequest)) {
+            return null;
+        }
+        AnimalPage page = animalService.getAnimalsBySpecies(species, cursor, limit);
+        return pageResponse(page);
     }
 
+    @Bulkhead(RequestClass.LIST)
     @GetMapping("/search")
-    public ResponseEntity<List<AnimalResponse>> searchAnimalsByName(@RequestParam String name) {
-        List<AnimalResponse> animals = animalService.getAnimalsByName(name);
-        return ResponseEntity.ok(animals);
+    public ResponseEntity<List<AnimalResponse>> searchAnimalsByName(
+            @RequestParam String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (listNotModified(webRequest)) {
+            return null;
+        }
+        AnimalPage page = animalService.getAnimalsByName(name, cursor, limit);
+        return pageResponse(page);
     }
 
+    @Bulkhead(RequestClass.LIST)
     @GetMapping("/younger/{age}")
-    public ResponseEntity<List<AnimalResponse>> getYoungerAnimals(@PathVariable Integer age) {
-        List<AnimalResponse> animals = animalService.getYoungerAnimals(age);
-        return ResponseEntity.ok(animals);
+    public ResponseEntity<List<AnimalResponse>> getYoungerAnimals(
+            @PathVariable Integer age,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (listNotModified(webRequest)) {
+            return null;
+        }
+        AnimalPage page = animalService.getYoungerAnimals(age, cursor, limit);
+        return pageResponse(page);
     }
 
+    @Bulkhead(RequestClass.LIST)
     @GetMapping("/older/{age}")
-    public ResponseEntity<List<AnimalResponse>> getOlderAnimals(@PathVariable Integer age) {
-        List<AnimalResponse> animals = animalService.getOlderAnimals(age);
-        return ResponseEntity.ok(animals);
+    public ResponseEntity<List<AnimalResponse>> getOlderAnimals(
+            @PathVariable Integer age,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (listNotModified(webRequest)) {
+            return null;
+        }
+        AnimalPage page = animalService.getOlderAnimals(age, cursor, limit);
+        return pageResponse(page);
     }
 
+    @Bulkhead(RequestClass.LIST)
     @GetMapping("/age-range")
     public ResponseEntity<List<AnimalResponse>> getAnimalsByAgeRange(
             @RequestParam Integer min,
-            @RequestParam Integer max) {
-        List<AnimalResponse> animals = animalService.getAnimalsByAgeRange(min, max);
-        return ResponseEntity.ok(animals);
+            @RequestParam Integer max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (listNotModified(webRequest)) {
+            return null;
+        }
+        AnimalPage page = animalService.getAnimalsByAgeRange(min, max, cursor, limit);
+        return pageResponse(page);
     }
 
+    @Bulkhead(RequestClass.LIST)
     @GetMapping("/species/{species}/age-range")
     public ResponseEntity<List<AnimalResponse>> getAnimalsBySpeciesAndAgeRange(
             @PathVariable String species,
             @RequestParam Integer min,
-            @RequestParam Integer max) {
-        List<AnimalResponse> animals = animalService.getAnimalsBySpeciesAndAgeRange(species, min, max);
-        return ResponseEntity.ok(animals);
+            @RequestParam Integer max,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        if (listNotModified(webRequest)) {
+            return null;
+        }
+        AnimalPage page = animalService.getAnimalsBySpeciesAndAgeRange(species, min, max, cursor, limit);
+        return pageResponse(page);
+    }
+
+    /**
+     * Выборка по любой комбинации условий (см. {@link AnimalQuery}); виды - через запятую или повтором
+     * параметра, время - ISO-8601. explain=true вместо животных возвращает SQL и план выборки.
+     */
+    @Bulkhead(RequestClass.LIST)
+    @GetMapping("/query")
+    public ResponseEntity<?> queryAnimals(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<String> species,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime updatedTo,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean explain,
+            WebRequest webRequest) {
+        AnimalQuery query = new AnimalQuery(name, species, minAge, maxAge,
+                createdFrom, createdTo, updatedFrom, updatedTo, sort);
+        if (explain) {
+            return ResponseEntity.ok(animalService.explainQuery(query, limit));
+        }
+        if (listNotModified(webRequest)) {
+            return null;
+        }
+        return ResponseEntity.ok(animalService.queryAnimals(query, limit));
+    }
+
+    /**
+     * Изменения животных после фиксации (Server-Sent Events): created, updated, deleted и reset
+     * (массовое изменение или пропуск событий - перечитать список). При переподключении браузер сам
+     * передает Last-Event-ID; клиенты, которые не могут задать заголовок, передают его в lastEventId.
+     * Без лимита параллельной работы: соединение ждет событий без потока, число подписчиков
+     * ограничено app.change-feed.max-subscribers.
+     */
+    @GetMapping("/changes")
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(required = false) String lastEventId) {
+        return animalChangeFeed.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_JSON_VALUE, AnimalStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAllAnimals(@RequestHeader HttpHeaders headers) {
+        return streamingResponse(headers, animalService::streamAllAnimals);
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @GetMapping(value = "/species/{species}/stream", produces = {MediaType.APPLICATION_JSON_VALUE, AnimalStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAnimalsBySpecies(
+            @PathVariable String species,
+            @RequestHeader HttpHeaders headers) {
+        return streamingResponse(headers, consumer -> animalService.streamAnimalsBySpecies(species, consumer));
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @GetMapping(value = "/search/stream", produces = {MediaType.APPLICATION_JSON_VALUE, AnimalStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAnimalsByName(
+            @RequestParam String name,
+            @RequestHeader HttpHeaders headers) {
+        return streamingResponse(headers, consumer -> animalService.streamAnimalsByName(name, consumer));
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @GetMapping(value = "/age-range/stream", produces = {MediaType.APPLICATION_JSON_VALUE, AnimalStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAnimalsByAgeRange(
+            @RequestParam Integer min,
+            @RequestParam Integer max,
+            @RequestHeader HttpHeaders headers) {
+        return streamingResponse(headers, consumer -> animalService.streamAnimalsByAgeRange(min, max, consumer));
     }
 
+    @Bulkhead(RequestClass.BULK)
+    @GetMapping(value = "/younger/{age}/stream", produces = {MediaType.APPLICATION_JSON_VALUE, AnimalStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamYoungerAnimals(
+            @PathVariable Integer age,
+            @RequestHeader HttpHeaders headers) {
+        return streamingResponse(headers, consumer -> animalService.streamYoungerAnimals(age, consumer));
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @GetMapping(value = "/older/{age}/stream", produces = {MediaType.APPLICATION_JSON_VALUE, AnimalStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamOlderAnimals(
+            @PathVariable Integer age,
+            @RequestHeader HttpHeaders headers) {
+        return streamingResponse(headers, consumer -> animalService.streamOlderAnimals(age, consumer));
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @GetMapping(value = "/species/{species}/age-range/stream", produces = {MediaType.APPLICATION_JSON_VALUE, AnimalStreamWriter.NDJSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> streamAnimalsBySpeciesAndAgeRange(
+            @PathVariable String species,
+            @RequestParam Integer min,
+            @RequestParam Integer max,
+            @RequestHeader HttpHeaders headers) {
+        return streamingResponse(headers,
+                consumer -> animalService.streamAnimalsBySpeciesAndAgeRange(species, min, max, consumer));
+    }
+
+    @Bulkhead(RequestClass.POINT_READ)
     @GetMapping("/species/list")
     public ResponseEntity<List<String>> getAllSpecies() {
         List<String> species = animalService.getAllSpecies();
         return ResponseEntity.ok(species);
     }
 
+    @Bulkhead(RequestClass.POINT_READ)
+    @GetMapping("/species/stats")
+    public ResponseEntity<List<SpeciesStatsResponse>> getSpeciesStats(
+            @RequestParam(defaultValue = "false") boolean withAge) {
+        return ResponseEntity.ok(animalService.getSpeciesStats(withAge));
+    }
+
+    @Bulkhead(RequestClass.POINT_READ)
     @GetMapping("/species/{species}/count")
     public ResponseEntity<Long> getCountBySpecies(@PathVariable String species) {
         Long count = animalService.getCountBySpecies(species);
         return ResponseEntity.ok(count);
     }
 
+    @Bulkhead(RequestClass.WRITE)
     @PutMapping("/{id}")
     public ResponseEntity<AnimalResponse> updateAnimal(
             @PathVariable Long id,
-            @Valid @RequestBody AnimalRequest request) {
-        AnimalResponse updatedAnimal = animalService.updateAnimal(id, request);
-        return ResponseEntity.ok(updatedAnimal);
+            @Valid @RequestBody AnimalRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        AnimalResponse updatedAnimal = animalService.updateAnimal(id, request, AnimalETags.ifMatchVersions(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(AnimalETags.ofVersion(updatedAnimal.version()))
+                .body(updatedAnimal);
+    }
+
+    @Bulkhead(RequestClass.WRITE)
+    @PatchMapping("/{id}")
+    public ResponseEntity<AnimalResponse> patchAnimal(
+            @PathVariable Long id,
+            @Valid @RequestBody AnimalPatchRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        AnimalResponse updatedAnimal = animalService.patchAnimal(id, request, AnimalETags.ifMatchVersions(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(AnimalETags.ofVersion(updatedAnimal.version()))
+                .body(updatedAnimal);
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @PatchMapping("/by-filter")
+    public ResponseEntity<BulkChangeResult> updateAnimals(
+            @RequestParam(required = false) String species,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge,
+            @Valid @RequestBody AnimalBulkUpdateRequest request) {
+        return ResponseEntity.ok(animalService.updateAnimals(new AnimalFilter(species, minAge, maxAge), request));
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @DeleteMapping("/by-filter")
+    public ResponseEntity<BulkChangeResult> deleteAnimals(
+            @RequestParam(required = false) String species,
+            @RequestParam(required = false) Integer minAge,
+            @RequestParam(required = false) Integer maxAge) {
+        return ResponseEntity.ok(animalService.deleteAnimals(new AnimalFilter(species, minAge, maxAge)));
     }
 
+    @Bulkhead(RequestClass.WRITE)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteAnimal(@PathVariable Long id) {
         animalService.deleteAnimal(id);
         return ResponseEntity.noContent().build();
     }
 
+    @Bulkhead(RequestClass.BULK)
     @DeleteMapping
-    public ResponseEntity<Void> deleteAllAnimals() {
-        animalService.deleteAllAnimals();
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<BulkChangeResult> deleteAllAnimals() {
+        return ResponseEntity.ok(animalService.deleteAllAnimals());
     }
 
+    // Синхронные выгрузки идут через те же задания, что и /export/jobs, и подчиняются их лимиту
+    @Bulkhead(RequestClass.BULK)
     @GetMapping("/export/json")
     public ResponseEntity<String> exportAnimalsToJson() {
-        String filePath = animalService.saveAllAnimalsToJson();
+        String filePath = exportJobService.submit(ExportFormat.JSON).await();
         return ResponseEntity.ok("Животные экспортированы в файл: " + filePath);
     }
 
+    @Bulkhead(RequestClass.BULK)
     @GetMapping("/export/csv")
     public ResponseEntity<String> exportAnimalsToCsv() {
-        String filePath = animalService.saveAllAnimalsToCsv();
+        String filePath = exportJobService.submit(ExportFormat.CSV).await();
         return ResponseEntity.ok("Животные экспортированы в файл: " + filePath);
     }
 
+    @Bulkhead(RequestClass.BULK)
     @GetMapping("/export/txt")
     public ResponseEntity<String> exportAnimalsToTxt() {
-        String filePath = animalService.saveAllAnimalsToTxt();
+        String filePath = exportJobService.submit(ExportFormat.TXT).await();
+        return ResponseEntity.ok("Животные экспортированы в файл: " + filePath);
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @GetMapping("/export/snapshot")
+    public ResponseEntity<String> exportAnimalsToSnapshot() {
+        String filePath = exportJobService.submit(ExportFormat.SNAPSHOT).await();
         return ResponseEntity.ok("Животные экспортированы в файл: " + filePath);
     }
 
+    @Bulkhead(RequestClass.BULK)
+    @PostMapping("/import/{filename:.+}")
+    public ResponseEntity<ImportResult> importAnimals(
+            @PathVariable String filename,
+            @RequestParam(defaultValue = "false") boolean upsert) {
+        ImportResult result = animalImportService.importFile(filename, upsert);
+        return ResponseEntity.ok(result);
+    }
+
+    @Bulkhead(RequestClass.LIST)
     @GetMapping("/export")
-    public ResponseEntity<List<String>> getFilesList() {
-        return ResponseEntity.ok(animalService.getSavedFiles());
+    public ResponseEntity<List<ExportFileResponse>> getFilesList(
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        ExportFilePage page = animalService.getSavedFiles(format, name, cursor, limit);
+        return pageResponse(page.items(), page.nextCursor());
     }
 
+    @Bulkhead(RequestClass.BULK)
     @GetMapping("/export/download/{filename:.+}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable String filename) {
-        // Проверяем, существует ли файл
-        if (!animalService.fileExists(filename)) {
-            return ResponseEntity.notFound().build();
+    public void downloadFile(@PathVariable String filename,
+                             @RequestHeader HttpHeaders headers,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        StoredFile file = animalService.findStoredFile(filename, AcceptEncoding.acceptsGzip(headers))
+                .orElseThrow(() -> new EntityNotFoundException("Файл не найден: " + filename));
+        StoredFileWriter.write(file, determineContentType(filename), request, response);
+    }
+
+    /**
+     * Страница списка: сами записи в теле, токен следующей страницы в заголовке X-Next-Cursor
+     */
+    private ResponseEntity<List<AnimalResponse>> pageResponse(AnimalPage page) {
+        return pageResponse(page.items(), page.nextCursor());
+    }
+
+    private <T> ResponseEntity<List<T>> pageResponse(List<T> items, String nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor)
+                    .header(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, NEXT_CURSOR_HEADER);
         }
+        return response.body(items);
+    }
 
-        try {
-            // Загружаем файл как ресурс
-            Resource resource = animalService.getFileAsResource(filename);
+    /**
+     * Ответ, который пишется по мере чтения курсора (chunked transfer encoding).
+     * NDJSON выбирается по заголовку Accept, gzip - по Accept-Encoding, если он включен в настройках.
+     */
+    private ResponseEntity<StreamingResponseBody> streamingResponse(
+            HttpHeaders requestHeaders,
+            ToLongFunction<Consumer<AnimalResponse>> source) {
+        boolean ndjson = requestHeaders.getAccept().stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(AnimalStreamWriter.NDJSON));
+        boolean gzip = streamingGzipEnabled && AcceptEncoding.acceptsGzip(requestHeaders);
 
-            // Определяем Content-Type на основе расширения
-            String contentType = determineContentType(filename);
+        StreamingResponseBody body = out -> {
+            try (AnimalStreamWriter writer = new AnimalStreamWriter(objectMapper, out, ndjson, gzip)) {
+                source.applyAsLong(writer::write);
+            }
+        };
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + resource.getFilename() + "\"")
-                    .header(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.CONTENT_DISPOSITION)
-                    .body(resource);
-
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(ndjson ? AnimalStreamWriter.NDJSON : MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
         }
+        return response.body(body);
     }
 
+    /**
+     * Проверка If-None-Match для списка по версии таблицы; true - ответ 304 уже сформирован
+     */
+    private boolean listNotModified(WebRequest webRequest) {
+        return webRequest.checkNotModified(AnimalETags.ofTable(animalService.getTableVersion()));
+    }
+
+
     private String determineContentType(String filename) {
         if (filename.endsWith(".json")) {
             return "application/json";
         } else if (filename.endsWith(".csv")) {
             return "text/csv";
+        } else if (filename.endsWith(".ndjson")) {
+            return "application/x-ndjson";
         } else if (filename.endsWith(".txt")) {
             return "text/plain";
         } else {
@@ -0,0 +1,46 @@
+package com.zoo.controller;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Сильные ETag животных: для записи - ее версия (@Version), для списков - версия таблицы
+ */
+final class AnimalETags {
+
+    private AnimalETags() {
+    }
+
+    static String ofVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    static String ofTable(String tableVersion) {
+        return "\"t" + tableVersion + "\"";
+    }
+
+    /**
+     * Версии из If-Match; null - заголовка нет или он равен "*" (достаточно, чтобы запись существовала).
+     * If-Match сравнивает только сильные ETag, поэтому слабые и чужие значения в результат не попадают.
+     */
+    static Set<Long> ifMatchVersions(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String tag : header.split(",")) {
+            String value = tag.trim();
+            if (value.equals("*")) {
+                return null;
+            }
+            if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(value.substring(1, value.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // ETag не записи (например, списка) - условие с ним не выполняется
+                }
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,72 @@
+package com.zoo.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zoo.dto.AnimalResponse;
+import org.springframework.http.MediaType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Потоковая запись животных в тело ответа: JSON-массив или NDJSON (одна запись на строку),
+ * при необходимости со сжатием gzip на лету
+ */
+final class AnimalStreamWriter implements Closeable {
+
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final MediaType NDJSON = MediaType.parseMediaType(NDJSON_VALUE);
+
+    private final OutputStream target;
+    private final GZIPOutputStream gzip;
+    private final JsonGenerator generator;
+    private final ObjectWriter rowWriter;
+    private final boolean ndjson;
+
+    AnimalStreamWriter(ObjectMapper objectMapper, OutputStream out, boolean ndjson, boolean gzip) throws IOException {
+        this.target = out;
+        this.gzip = gzip ? new GZIPOutputStream(out, 8192) : null;
+        this.ndjson = ndjson;
+        this.rowWriter = objectMapper.writerFor(AnimalResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(SerializationFeature.INDENT_OUTPUT);
+        this.generator = objectMapper.getFactory()
+                .createGenerator(this.gzip != null ? this.gzip : out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        if (ndjson) {
+            // Записи разделяются переводом строки, а не пробелом по умолчанию
+            generator.setRootValueSeparator(null);
+        } else {
+            generator.writeStartArray();
+        }
+    }
+
+    void write(AnimalResponse animal) {
+        try {
+            rowWriter.writeValue(generator, animal);
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!ndjson) {
+            generator.writeEndArray();
+        }
+        generator.close();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        target.flush();
+    }
+}
@@ -0,0 +1,24 @@
+package com.zoo.controller;
+
+import com.zoo.bulkhead.BulkheadRegistry;
+import com.zoo.dto.BulkheadStatsResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/bulkheads")
+@RequiredArgsConstructor
+public class BulkheadController {
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<BulkheadStatsResponse>> getBulkheadStats() {
+        return ResponseEntity.ok(bulkheadRegistry.getStats());
+    }
+}
@@ -0,0 +1,43 @@
+package com.zoo.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.zoo.dto.CacheStatsResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    private final CacheManager cacheManager;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        List<CacheStatsResponse> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache caffeineCache) {
+                Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+                CacheStats cacheStats = nativeCache.stats();
+                stats.add(new CacheStatsResponse(
+                        name,
+                        nativeCache.estimatedSize(),
+                        cacheStats.hitCount(),
+                        cacheStats.missCount(),
+                        cacheStats.hitRate(),
+                        cacheStats.evictionCount()
+                ));
+            }
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,54 @@
+package com.zoo.controller;
+
+import com.zoo.bulkhead.Bulkhead;
+import com.zoo.bulkhead.RequestClass;
+import com.zoo.dto.CompactionRequest;
+import com.zoo.dto.DeltaExportResponse;
+import com.zoo.dto.ExportCheckpointResponse;
+import com.zoo.service.DeltaExportService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/animals/export/delta")
+@RequiredArgsConstructor
+public class DeltaExportController {
+
+    private final DeltaExportService deltaExportService;
+
+    @Bulkhead(RequestClass.BULK)
+    @PostMapping("/{consumer}")
+    public ResponseEntity<DeltaExportResponse> exportDelta(@PathVariable String consumer) {
+        return ResponseEntity.ok(deltaExportService.exportDelta(consumer));
+    }
+
+    @Bulkhead(RequestClass.LIST)
+    @GetMapping
+    public ResponseEntity<List<ExportCheckpointResponse>> getCheckpoints() {
+        return ResponseEntity.ok(deltaExportService.getCheckpoints());
+    }
+
+    @Bulkhead(RequestClass.WRITE)
+    @DeleteMapping("/{consumer}")
+    public ResponseEntity<Void> resetCheckpoint(@PathVariable String consumer) {
+        deltaExportService.resetCheckpoint(consumer);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Bulkhead(RequestClass.BULK)
+    @PostMapping("/compact")
+    public ResponseEntity<String> compact(@Valid @RequestBody CompactionRequest request) {
+        String filePath = deltaExportService.compact(request);
+        return ResponseEntity.ok("Снимок собран в файл: " + filePath);
+    }
+}
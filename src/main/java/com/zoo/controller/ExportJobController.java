@@ -0,0 +1,58 @@
+package com.zoo.controller;
+
+import com.zoo.dto.ExportJobResponse;
+import com.zoo.service.export.ExportFormat;
+import com.zoo.service.export.ExportJob;
+import com.zoo.service.export.ExportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/animals/export/jobs")
+@RequiredArgsConstructor
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    @PostMapping
+    public ResponseEntity<ExportJobResponse> submitJob(@RequestParam String format) {
+        ExportJob job = exportJobService.submit(ExportFormat.fromName(format));
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .replaceQuery(null)
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(ExportJobResponse.fromJob(job));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ExportJobResponse>> getJobs() {
+        List<ExportJobResponse> jobs = exportJobService.getJobs().stream()
+                .map(ExportJobResponse::fromJob)
+                .toList();
+        return ResponseEntity.ok(jobs);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJobResponse> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(ExportJobResponse.fromJob(exportJobService.getJob(id)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ExportJobResponse> cancelJob(@PathVariable String id) {
+        return ResponseEntity.ok(ExportJobResponse.fromJob(exportJobService.cancel(id)));
+    }
+}
@@ -0,0 +1,53 @@
+package com.zoo.controller;
+
+import com.zoo.dto.ImportJobResponse;
+import com.zoo.service.importer.ImportJob;
+import com.zoo.service.importer.ImportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/animals/import/jobs")
+@RequiredArgsConstructor
+public class ImportJobController {
+
+    private final ImportJobService importJobService;
+
+    @PostMapping
+    public ResponseEntity<ImportJobResponse> submitJob(
+            @RequestParam String filename,
+            @RequestParam(defaultValue = "false") boolean upsert) {
+        ImportJob job = importJobService.submit(filename, upsert);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .replaceQuery(null)
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .body(ImportJobResponse.fromJob(job));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ImportJobResponse>> getJobs() {
+        List<ImportJobResponse> jobs = importJobService.getJobs().stream()
+                .map(ImportJobResponse::fromJob)
+                .toList();
+        return ResponseEntity.ok(jobs);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobResponse> getJob(@PathVariable String id) {
+        return ResponseEntity.ok(ImportJobResponse.fromJob(importJobService.getJob(id)));
+    }
+}
@@ -0,0 +1,134 @@
+package com.zoo.controller;
+
+import com.zoo.service.export.StoredFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Отдача файла из директории хранения.
+ * Условные запросы (If-None-Match, If-Modified-Since) проверяются по ETag и времени изменения и
+ * получают 304; Range отдается частично (206), если If-Range совпадает с текущей версией файла.
+ * Тело передается без копирования в память: через sendfile Tomcat, если коннектор его поддерживает,
+ * иначе через FileChannel.transferTo. Несколько диапазонов в одном Range (multipart/byteranges)
+ * не поддерживаются - такой запрос получает файл целиком, как разрешает RFC 9110.
+ */
+final class StoredFileWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private StoredFileWriter() {
+    }
+
+    static void write(StoredFile file, String contentType,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (file.gzipVariant()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        // Выставляет ETag и Last-Modified; true - ответ 304 (или 412 для If-Match) уже сформирован
+        if (new ServletWebRequest(request, response).checkNotModified(file.etag(), file.lastModified())) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.name(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.CONTENT_DISPOSITION);
+        if (file.gzip()) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        long size = file.size();
+        long start = 0;
+        long end = size;
+        HttpRange range = singleRange(request, file);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(size);
+                end = range.getRangeEnd(size) + 1;
+            } catch (IllegalArgumentException e) {
+                start = size;
+            }
+            if (start >= size || start >= end) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setContentLength(0);
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+        }
+        response.setContentLengthLong(end - start);
+
+        if ("HEAD".equalsIgnoreCase(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat передаст файл сам после выхода из обработчика
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    /**
+     * Единственный диапазон из Range, если он есть, разбирается и If-Range его не отменяет; иначе null
+     */
+    private static HttpRange singleRange(HttpServletRequest request, StoredFile file) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !ifRangeMatches(request, file)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            // Некорректный Range игнорируется
+            return null;
+        }
+    }
+
+    /**
+     * If-Range: строгий ETag или дата изменения с точностью до секунды; без заголовка - совпадает
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, StoredFile file) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(file.etag());
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) == file.lastModified() / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
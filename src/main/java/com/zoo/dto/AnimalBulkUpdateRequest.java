@@ -0,0 +1,22 @@
+package com.zoo.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Массовое изменение отобранных животных
+ *
+ * @param ageDelta сдвиг возраста (может быть отрицательным, возраст не опускается ниже 0;
+ *                 животные без возраста его не получают)
+ * @param species  новый вид для всех отобранных
+ */
+public record AnimalBulkUpdateRequest(
+        Integer ageDelta,
+        @Size(min = 2, max = 100, message = "Вид должен содержать от 2 до 100 символов")
+        @Pattern(regexp = ".*\\S.*", message = "Вид животного не может быть пустым")
+        String species) {
+
+    public boolean isEmpty() {
+        return ageDelta == null && species == null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.zoo.dto;
+
+/**
+ * Данные события выдачи изменений: type - created, updated или deleted;
+ * animal - состояние после изменения, для удаления - последнее состояние перед ним
+ */
+public record AnimalChange(String type, Long id, AnimalResponse animal) {
+}
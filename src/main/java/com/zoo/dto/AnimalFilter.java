@@ -0,0 +1,23 @@
+package com.zoo.dto;
+
+/**
+ * Отбор животных для массовых изменений. Вид сравнивается точно, границы возраста включаются;
+ * незаданный критерий не ограничивает выборку, но хотя бы один должен быть задан.
+ */
+public record AnimalFilter(String species, Integer minAge, Integer maxAge) {
+
+    public void validate() {
+        if (species == null && minAge == null && maxAge == null) {
+            throw new IllegalArgumentException("Нужен хотя бы один критерий отбора: species, minAge или maxAge");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("minAge больше maxAge: " + minAge + " > " + maxAge);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "вид " + (species != null ? species : "любой")
+                + ", возраст " + (minAge != null ? minAge : "-") + ".." + (maxAge != null ? maxAge : "-");
+    }
+}
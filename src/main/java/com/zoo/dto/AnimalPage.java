@@ -0,0 +1,9 @@
+package com.zoo.dto;
+
+import java.util.List;
+
+/**
+ * Страница выдачи и токен для запроса следующей (null, если страница последняя)
+ */
+public record AnimalPage(List<AnimalResponse> items, String nextCursor) {
+}
@@ -0,0 +1,23 @@
+package com.zoo.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Частичное изменение животного: null - поле не меняется
+ */
+public record AnimalPatchRequest(
+        @Size(min = 2, max = 100, message = "Имя должно содержать от 2 до 100 символов")
+        @Pattern(regexp = ".*\\S.*", message = "Имя животного не может быть пустым")
+        String name,
+        @Size(min = 2, max = 100, message = "Вид должен содержать от 2 до 100 символов")
+        @Pattern(regexp = ".*\\S.*", message = "Вид животного не может быть пустым")
+        String species,
+        @Min(value = 0, message = "Возраст должен быть положительным числом")
+        Integer age) {
+
+    public boolean isEmpty() {
+        return name == null && species == null && age == null;
+    }
+}
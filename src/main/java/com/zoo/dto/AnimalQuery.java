@@ -0,0 +1,98 @@
+package com.zoo.dto;
+
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Условия выборки /api/animals/query. Незаданное условие не ограничивает выборку.
+ * Имя ищется по подстроке без учета регистра, вид сравнивается точно с любым из списка,
+ * границы возраста включаются, окна по времени - [from, to).
+ * Сортировка - поля через запятую, минус перед полем - по убыванию (например, "species,-age");
+ * последним ключом всегда идет id, чтобы порядок был однозначным.
+ */
+public record AnimalQuery(String name,
+                          List<String> species,
+                          Integer minAge,
+                          Integer maxAge,
+                          LocalDateTime createdFrom,
+                          LocalDateTime createdTo,
+                          LocalDateTime updatedFrom,
+                          LocalDateTime updatedTo,
+                          String sort) {
+
+    public static final int MAX_SPECIES = 100;
+
+    private static final Set<String> SORT_FIELDS = Set.of("id", "name", "species", "age", "createdAt", "updatedAt");
+
+    public AnimalQuery {
+        name = name != null && !name.isBlank() ? name.trim() : null;
+        if (species != null) {
+            species = species.stream()
+                    .map(String::trim)
+                    .filter(value -> !value.isEmpty())
+                    .distinct()
+                    .toList();
+            if (species.isEmpty()) {
+                species = null;
+            }
+        }
+    }
+
+    public void validate() {
+        if (species != null && species.size() > MAX_SPECIES) {
+            throw new IllegalArgumentException("Слишком много видов в запросе: " + species.size() + " > " + MAX_SPECIES);
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new IllegalArgumentException("minAge больше maxAge: " + minAge + " > " + maxAge);
+        }
+        if (createdFrom != null && createdTo != null && !createdFrom.isBefore(createdTo)) {
+            throw new IllegalArgumentException("createdFrom должен быть раньше createdTo");
+        }
+        if (updatedFrom != null && updatedTo != null && !updatedFrom.isBefore(updatedTo)) {
+            throw new IllegalArgumentException("updatedFrom должен быть раньше updatedTo");
+        }
+        toSort();
+    }
+
+    public Sort toSort() {
+        List<Sort.Order> orders = new ArrayList<>();
+        boolean byId = false;
+        if (sort != null && !sort.isBlank()) {
+            for (String token : sort.split(",")) {
+                String field = token.trim();
+                boolean descending = field.startsWith("-");
+                if (descending) {
+                    field = field.substring(1);
+                }
+                if (!SORT_FIELDS.contains(field)) {
+                    throw new IllegalArgumentException("Сортировка по полю " + field + " не поддерживается, доступны: "
+                            + String.join(", ", SORT_FIELDS));
+                }
+                orders.add(descending ? Sort.Order.desc(field) : Sort.Order.asc(field));
+                byId |= field.equals("id");
+            }
+        }
+        if (!byId) {
+            orders.add(Sort.Order.asc("id"));
+        }
+        return Sort.by(orders);
+    }
+
+    @Override
+    public String toString() {
+        return "имя " + (name != null ? "~" + name : "любое")
+                + ", вид " + (species != null ? species : "любой")
+                + ", возраст " + (minAge != null ? minAge : "-") + ".." + (maxAge != null ? maxAge : "-")
+                + ", создано " + window(createdFrom, createdTo)
+                + ", изменено " + window(updatedFrom, updatedTo)
+                + ", сортировка " + (sort != null ? sort : "id");
+    }
+
+    private static String window(LocalDateTime from, LocalDateTime to) {
+        return "[" + (from != null ? from : "-") + ", " + (to != null ? to : "-") + ")";
+    }
+}
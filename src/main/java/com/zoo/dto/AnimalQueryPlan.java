@@ -0,0 +1,13 @@
+package com.zoo.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * План выборки /api/animals/query?explain=true
+ *
+ * @param sql     оператор, который Hibernate строит для этих условий (параметры - ?)
+ * @param plan    EXPLAIN (FORMAT JSON) общего плана от PostgreSQL; null, если план получить не удалось
+ * @param message почему плана нет
+ */
+public record AnimalQueryPlan(String sql, JsonNode plan, String message) {
+}
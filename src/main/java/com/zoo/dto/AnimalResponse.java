@@ -1,23 +1,16 @@
 package com.zoo.dto;
 
 import com.zoo.model.Animal;
-import lombok.Data;
 
-import java.time.LocalDateTime;
-
-@Data
-public class AnimalResponse {
-    private Long id;
-    private String name;
-    private String species;
-    private Integer age;
+/**
+ * Животное в ответах API. Неизменяемое: один экземпляр разделяют кэш чтений, поисковый индекс
+ * и события. Чтения строят его прямо из выборки (конструктор в JPQL, см. AnimalRepository),
+ * не загружая сущности; fromEntity - для путей записи, где сущность уже есть.
+ */
+public record AnimalResponse(Long id, String name, String species, Integer age, Long version) {
 
     public static AnimalResponse fromEntity(Animal animal) {
-        AnimalResponse response = new AnimalResponse();
-        response.setId(animal.getId());
-        response.setName(animal.getName());
-        response.setSpecies(animal.getSpecies());
-        response.setAge(animal.getAge());
-        return response;
+        return new AnimalResponse(animal.getId(), animal.getName(), animal.getSpecies(), animal.getAge(),
+                animal.getVersion());
     }
 }
@@ -0,0 +1,22 @@
+package com.zoo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Итог пакетной вставки: сколько записей получено, вставлено и отклонено,
+ * ошибки по отдельным записям и достигнутая скорость
+ */
+public record BatchInsertResult(long received,
+                                long inserted,
+                                long failed,
+                                List<ItemError> errors,
+                                long elapsedMillis,
+                                double rowsPerSecond) {
+
+    /**
+     * Ошибки одной записи: номер записи во входных данных (с нуля) и сообщения по полям
+     */
+    public record ItemError(long index, Map<String, String> errors) {
+    }
+}
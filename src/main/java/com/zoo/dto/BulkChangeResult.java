@@ -0,0 +1,10 @@
+package com.zoo.dto;
+
+/**
+ * Итог массового изменения таблицы одним оператором
+ *
+ * @param operation    что сделано, для журнала клиента
+ * @param rowsAffected затронуто записей
+ */
+public record BulkChangeResult(String operation, long rowsAffected, long elapsedMillis) {
+}
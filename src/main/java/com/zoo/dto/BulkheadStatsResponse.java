@@ -0,0 +1,11 @@
+package com.zoo.dto;
+
+/**
+ * Загрузка одного класса запросов: лимит, занятые места, ожидающие и отклоненные запросы
+ */
+public record BulkheadStatsResponse(String requestClass,
+                                    int maxConcurrent,
+                                    int inUse,
+                                    int waiting,
+                                    long rejected) {
+}
@@ -0,0 +1,12 @@
+package com.zoo.dto;
+
+/**
+ * Статистика одного кэша: размер, попадания, промахи и вытеснения
+ */
+public record CacheStatsResponse(String name,
+                                 long size,
+                                 long hits,
+                                 long misses,
+                                 double hitRate,
+                                 long evictions) {
+}
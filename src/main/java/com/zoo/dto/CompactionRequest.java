@@ -0,0 +1,15 @@
+package com.zoo.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Сборка нового базового снимка
+ *
+ * @param base   файл базового снимка *.zsnap; null - цепочка дельт начинается с полной выгрузки
+ * @param deltas файлы дельт *.delta.ndjson в порядке создания
+ */
+public record CompactionRequest(String base,
+                                @NotEmpty(message = "Нужна хотя бы одна дельта") List<String> deltas) {
+}
@@ -0,0 +1,19 @@
+package com.zoo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Итог инкрементальной выгрузки
+ *
+ * @param changedAfter нижняя граница изменений (с учетом перекрытия), null для полной выгрузки
+ * @param changedUpTo  новая позиция получателя
+ * @param reset        файл начинается с RESET: получатель должен отбросить прежнее состояние
+ */
+public record DeltaExportResponse(String consumer,
+                                  String file,
+                                  LocalDateTime changedAfter,
+                                  LocalDateTime changedUpTo,
+                                  boolean reset,
+                                  long upserts,
+                                  long deletes) {
+}
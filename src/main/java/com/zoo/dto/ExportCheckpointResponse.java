@@ -0,0 +1,23 @@
+package com.zoo.dto;
+
+import com.zoo.model.ExportCheckpoint;
+
+import java.time.LocalDateTime;
+
+/**
+ * Позиция получателя инкрементальных выгрузок
+ */
+public record ExportCheckpointResponse(String consumer,
+                                       LocalDateTime changedUpTo,
+                                       String lastFile,
+                                       LocalDateTime updatedAt) {
+
+    public static ExportCheckpointResponse fromEntity(ExportCheckpoint checkpoint) {
+        return new ExportCheckpointResponse(
+                checkpoint.getConsumer(),
+                checkpoint.getChangedUpTo(),
+                checkpoint.getLastFile(),
+                checkpoint.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,9 @@
+package com.zoo.dto;
+
+import java.util.List;
+
+/**
+ * Страница списка файлов выгрузки и токен для запроса следующей (null, если страница последняя)
+ */
+public record ExportFilePage(List<ExportFileResponse> items, String nextCursor) {
+}
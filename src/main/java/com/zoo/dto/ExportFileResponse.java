@@ -0,0 +1,27 @@
+package com.zoo.dto;
+
+import com.zoo.service.export.ExportFileInfo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Файл выгрузки для клиента
+ */
+public record ExportFileResponse(String name,
+                                 String format,
+                                 long size,
+                                 Long rowCount,
+                                 String checksum,
+                                 LocalDateTime createdAt) {
+
+    public static ExportFileResponse fromInfo(ExportFileInfo info) {
+        return new ExportFileResponse(
+                info.name(),
+                info.format(),
+                info.size(),
+                info.rowCount(),
+                info.checksum(),
+                info.createdAt()
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package com.zoo.dto;
+
+import com.zoo.service.export.ExportJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * Состояние задания выгрузки для клиента
+ */
+public record ExportJobResponse(String id,
+                                String format,
+                                String status,
+                                long rowsWritten,
+                                long bytesWritten,
+                                String file,
+                                String error,
+                                LocalDateTime createdAt,
+                                LocalDateTime startedAt,
+                                LocalDateTime finishedAt) {
+
+    public static ExportJobResponse fromJob(ExportJob job) {
+        return new ExportJobResponse(
+                job.getId(),
+                job.getFormat().name().toLowerCase(),
+                job.getStatus().name(),
+                job.getRowsWritten(),
+                job.getBytesWritten(),
+                job.getFile(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
@@ -0,0 +1,38 @@
+package com.zoo.dto;
+
+import com.zoo.service.importer.ImportJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * Состояние задания загрузки для клиента
+ *
+ * @param rowsRead прочитано записей из файла; в таблице они появятся после завершения задания
+ * @param result   итог загрузки, пока задание не завершено - null
+ */
+public record ImportJobResponse(String id,
+                                String filename,
+                                boolean upsert,
+                                String status,
+                                long rowsRead,
+                                ImportResult result,
+                                String error,
+                                LocalDateTime createdAt,
+                                LocalDateTime startedAt,
+                                LocalDateTime finishedAt) {
+
+    public static ImportJobResponse fromJob(ImportJob job) {
+        return new ImportJobResponse(
+                job.getId(),
+                job.getFilename(),
+                job.isUpsert(),
+                job.getStatus().name(),
+                job.getRowsRead(),
+                job.getResult(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
@@ -0,0 +1,18 @@
+package com.zoo.dto;
+
+/**
+ * Итог загрузки файла выгрузки в базу
+ *
+ * @param method      способ записи: COPY (PostgreSQL) или BATCH (пакетные INSERT/UPDATE)
+ * @param rowsRead    корректных записей прочитано из файла
+ * @param rowsSkipped записей отброшено как некорректные
+ * @param rowsWritten записей вставлено или обновлено в таблице
+ */
+public record ImportResult(String filename,
+                           String method,
+                           boolean upsert,
+                           long rowsRead,
+                           long rowsSkipped,
+                           long rowsWritten,
+                           long elapsedMillis) {
+}
@@ -0,0 +1,80 @@
+package com.zoo.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция постраничной выдачи по ключу: последний отданный id
+ * и, для выборок по возрасту, его возраст. Клиенту передается как непрозрачный токен.
+ */
+public record PageCursor(Integer age, long id) {
+
+    public static final PageCursor START_BY_ID = new PageCursor(null, Long.MIN_VALUE);
+    public static final PageCursor START_BY_AGE = new PageCursor(Integer.MIN_VALUE, Long.MIN_VALUE);
+
+    public static PageCursor afterId(long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor afterAge(int age, long id) {
+        return new PageCursor(age, id);
+    }
+
+    public String encode() {
+        String raw = age == null ? "i" + id : "a" + age + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разобрать токен выдачи, упорядоченной по id. Пустой токен означает первую страницу.
+     */
+    public static PageCursor decodeById(String token) {
+        if (token == null || token.isBlank()) {
+            return START_BY_ID;
+        }
+        String raw = decodeRaw(token);
+        if (!raw.startsWith("i")) {
+            throw invalid(token);
+        }
+        return afterId(parseLong(raw.substring(1), token));
+    }
+
+    /**
+     * Разобрать токен выдачи, упорядоченной по (age, id). Пустой токен означает первую страницу.
+     */
+    public static PageCursor decodeByAge(String token) {
+        if (token == null || token.isBlank()) {
+            return START_BY_AGE;
+        }
+        String raw = decodeRaw(token);
+        int separator = raw.indexOf(':');
+        if (!raw.startsWith("a") || separator < 0) {
+            throw invalid(token);
+        }
+        long age = parseLong(raw.substring(1, separator), token);
+        if (age < Integer.MIN_VALUE || age > Integer.MAX_VALUE) {
+            throw invalid(token);
+        }
+        return afterAge((int) age, parseLong(raw.substring(separator + 1), token));
+    }
+
+    private static String decodeRaw(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid(token);
+        }
+    }
+
+    private static long parseLong(String value, String token) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalid(token);
+        }
+    }
+
+    private static IllegalArgumentException invalid(String token) {
+        return new IllegalArgumentException("Некорректный токен продолжения: " + token);
+    }
+}
@@ -0,0 +1,15 @@
+package com.zoo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Количество животных одного вида; возрастная статистика заполняется по запросу
+ * и только если у вида есть животные с указанным возрастом
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SpeciesStatsResponse(String species,
+                                   long count,
+                                   Integer minAge,
+                                   Integer maxAge,
+                                   Double avgAge) {
+}
@@ -0,0 +1,32 @@
+package com.zoo.event;
+
+import com.zoo.dto.AnimalResponse;
+
+/**
+ * Изменение одного животного через AnimalService.
+ * before - состояние до изменения (null при создании), after - после (null при удалении).
+ */
+public record AnimalChangedEvent(ChangeType type, AnimalResponse before, AnimalResponse after) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static AnimalChangedEvent created(AnimalResponse after) {
+        return new AnimalChangedEvent(ChangeType.CREATED, null, after);
+    }
+
+    public static AnimalChangedEvent updated(AnimalResponse before, AnimalResponse after) {
+        return new AnimalChangedEvent(ChangeType.UPDATED, before, after);
+    }
+
+    public static AnimalChangedEvent deleted(AnimalResponse before) {
+        return new AnimalChangedEvent(ChangeType.DELETED, before, null);
+    }
+
+    public Long animalId() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,8 @@
+package com.zoo.event;
+
+/**
+ * Массовое изменение таблицы (удаление всех, загрузка файла и т.п.), после которого
+ * точечная инвалидация невозможна: все производные от таблицы данные нужно сбросить или перестроить
+ */
+public record AnimalsBulkChangedEvent(String reason) {
+}
@@ -0,0 +1,12 @@
+package com.zoo.event;
+
+import com.zoo.dto.AnimalResponse;
+
+import java.util.List;
+
+/**
+ * Пачка животных, созданных одной транзакцией пакетной вставки (POST /api/animals/batch).
+ * Слушатели обрабатывают пачку целиком, а не как отдельные AnimalChangedEvent на каждую запись.
+ */
+public record AnimalsCreatedEvent(List<AnimalResponse> animals) {
+}
@@ -0,0 +1,11 @@
+package com.zoo.exception;
+
+/**
+ * Условие запроса (If-Match) не выполнено: запись изменилась после того, как клиент ее прочитал
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.zoo.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Запрос отклонен из-за исчерпания лимита параллельной работы; клиенту стоит повторить его позже
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,78 @@
+package com.zoo.index;
+
+import com.zoo.dto.AnimalResponse;
+import com.zoo.dto.PageCursor;
+import com.zoo.event.AnimalChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Столбцовый снимок (id, возраст, вид) в памяти для выборок по диапазону возраста.
+ * Диапазон находится бинарным поиском по упорядоченным столбцам и просматривается подряд,
+ * из базы затем загружаются только попавшие в страницу животные.
+ * Включается свойством app.age-index.enabled: занимает около 20 байт на животное.
+ */
+@Component
+public class AgeColumnIndex extends ReadModelSupport<AgeColumns> {
+
+    private final AnimalTableScanner tableScanner;
+
+    public AgeColumnIndex(AnimalTableScanner tableScanner,
+                          @Value("${app.age-index.enabled:false}") boolean enabled) {
+        super("столбцовый индекс возраста", enabled);
+        this.tableScanner = tableScanner;
+    }
+
+    /**
+     * Не больше limit животных с возрастом от minAge до maxAge включительно после позиции after,
+     * при species != null - только этого вида; null, если индекс не загружен
+     */
+    public AgeMatches find(String species, long minAge, long maxAge, PageCursor after, int limit) {
+        return read(columns -> columns.find(species, minAge, maxAge, after.age(), after.id(), limit), null);
+    }
+
+    @Override
+    protected AgeColumns load() {
+        AgeColumns fresh = new AgeColumns();
+        tableScanner.scanAgeRows(row -> fresh.append(row.getAge(), row.getId(), row.getSpecies()));
+        fresh.buildSpeciesIndex();
+        return fresh;
+    }
+
+    @Override
+    protected void applyChange(AgeColumns columns, AnimalChangedEvent event) {
+        AnimalResponse before = event.before();
+        AnimalResponse after = event.after();
+        switch (event.type()) {
+            case CREATED -> put(columns, after);
+            case UPDATED -> {
+                if (!Objects.equals(before.age(), after.age())
+                        || !Objects.equals(before.species(), after.species())) {
+                    remove(columns, before);
+                    put(columns, after);
+                }
+            }
+            case DELETED -> remove(columns, before);
+        }
+    }
+
+    @Override
+    protected String describe(AgeColumns columns) {
+        return columns.size() + " животных, " + columns.speciesCount() + " видов";
+    }
+
+    private static void put(AgeColumns columns, AnimalResponse animal) {
+        // Животные без возраста в выборки по возрасту не попадают
+        if (animal.age() != null) {
+            columns.put(animal.age(), animal.id(), animal.species());
+        }
+    }
+
+    private static void remove(AgeColumns columns, AnimalResponse animal) {
+        if (animal.age() != null) {
+            columns.remove(animal.age(), animal.id());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.zoo.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Столбцы id, возраста и кода вида на примитивных массивах, упорядоченные по (age, id).
+ * Изменения после построения копятся в небольшой дельте (добавленные строки и отметки об удалении)
+ * и сливаются с основными столбцами, когда дельта вырастает. Не потокобезопасно:
+ * доступ синхронизирует AgeColumnIndex.
+ */
+final class AgeColumns {
+
+    private static final int MIN_COMPACT_THRESHOLD = 4096;
+
+    // Словарь видов: название -> код и код -> название
+    private final Map<String, Integer> speciesCodes = new HashMap<>();
+    private final List<String> speciesNames = new ArrayList<>();
+
+    // Основные столбцы
+    private int[] ages = new int[1024];
+    private long[] ids = new long[1024];
+    private int[] species = new int[1024];
+    private int size;
+    // Позиции строк каждого вида в основных столбцах, в том же порядке (age, id)
+    private int[][] positionsBySpecies = new int[0][];
+
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    // Строки, добавленные после построения: (age, id) -> код вида
+    private final TreeMap<RowKey, Integer> delta = new TreeMap<>();
+
+    int size() {
+        return size - deletedCount + delta.size();
+    }
+
+    int speciesCount() {
+        return speciesNames.size();
+    }
+
+    /**
+     * Дописать строку при загрузке; строки должны идти в порядке (age, id).
+     * После загрузки нужно вызвать buildSpeciesIndex().
+     */
+    void append(int age, long id, String speciesName) {
+        ensureCapacity(size + 1);
+        ages[size] = age;
+        ids[size] = id;
+        species[size] = codeOf(speciesName);
+        size++;
+    }
+
+    void buildSpeciesIndex() {
+        int[] counts = new int[speciesNames.size()];
+        for (int position = 0; position < size; position++) {
+            counts[species[position]]++;
+        }
+        int[][] positions = new int[counts.length][];
+        for (int code = 0; code < counts.length; code++) {
+            positions[code] = new int[counts[code]];
+        }
+        int[] filled = new int[counts.length];
+        for (int position = 0; position < size; position++) {
+            int code = species[position];
+            positions[code][filled[code]++] = position;
+        }
+        positionsBySpecies = positions;
+    }
+
+    /**
+     * Добавить строку или заменить вид у существующей; повтор уже учтенного изменения ничего не меняет
+     */
+    void put(int age, long id, String speciesName) {
+        int code = codeOf(speciesName);
+        int position = basePosition(age, id);
+        if (position >= 0) {
+            if (species[position] == code) {
+                return;
+            }
+            markDeleted(position);
+        }
+        delta.put(new RowKey(age, id), code);
+        compactIfNeeded();
+    }
+
+    void remove(int age, long id) {
+        if (delta.remove(new RowKey(age, id)) == null) {
+            int position = basePosition(age, id);
+            if (position >= 0) {
+                markDeleted(position);
+            }
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Не больше limit строк с возрастом от minAge до maxAge включительно, идущих после (afterAge, afterId),
+     * при speciesName != null - только этого вида
+     */
+    AgeMatches find(String speciesName, long minAge, long maxAge, int afterAge, long afterId, int limit) {
+        int code = -1;
+        if (speciesName != null) {
+            Integer known = speciesCodes.get(speciesName);
+            if (known == null) {
+                return AgeMatches.EMPTY;
+            }
+            code = known;
+        }
+        if (minAge > maxAge || minAge > Integer.MAX_VALUE || maxAge < Integer.MIN_VALUE) {
+            return AgeMatches.EMPTY;
+        }
+        int lowAge = (int) Math.max(minAge, Integer.MIN_VALUE);
+        int highAge = (int) Math.min(maxAge, Integer.MAX_VALUE);
+
+        RowKey rangeStart = new RowKey(lowAge, Long.MIN_VALUE);
+        RowKey after = new RowKey(afterAge, afterId);
+        RowKey start = after.compareTo(rangeStart) > 0 ? after : rangeStart;
+
+        // Основные столбцы: бинарный поиск начала и сплошной просмотр (для вида - по его позициям)
+        int[] positions = code < 0 ? null : code < positionsBySpecies.length ? positionsBySpecies[code] : new int[0];
+        int end = positions != null ? positions.length : size;
+        int next = firstAfter(positions, end, start);
+
+        Iterator<Map.Entry<RowKey, Integer>> deltaRows = delta.tailMap(start, false).entrySet().iterator();
+        Map.Entry<RowKey, Integer> deltaRow = nextDeltaRow(deltaRows, code, highAge);
+
+        int[] foundAges = new int[limit];
+        long[] foundIds = new long[limit];
+        int found = 0;
+        while (found < limit) {
+            while (next < end && deleted.get(positionAt(positions, next))) {
+                next++;
+            }
+            int position = next < end && ages[positionAt(positions, next)] <= highAge ? positionAt(positions, next) : -1;
+            if (position < 0 && deltaRow == null) {
+                break;
+            }
+            if (deltaRow == null || (position >= 0 && compare(position, deltaRow.getKey()) < 0)) {
+                foundAges[found] = ages[position];
+                foundIds[found] = ids[position];
+                next++;
+            } else {
+                foundAges[found] = deltaRow.getKey().age();
+                foundIds[found] = deltaRow.getKey().id();
+                deltaRow = nextDeltaRow(deltaRows, code, highAge);
+            }
+            found++;
+        }
+        return new AgeMatches(foundAges, foundIds, found);
+    }
+
+    private static Map.Entry<RowKey, Integer> nextDeltaRow(Iterator<Map.Entry<RowKey, Integer>> rows,
+                                                           int code, int highAge) {
+        while (rows.hasNext()) {
+            Map.Entry<RowKey, Integer> row = rows.next();
+            if (row.getKey().age() > highAge) {
+                return null;
+            }
+            if (code < 0 || row.getValue() == code) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Первая позиция в [0, end), строка которой идет после key
+     */
+    private int firstAfter(int[] positions, int end, RowKey key) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(positionAt(positions, middle), key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Позиция строки (age, id) в основных столбцах или -1, если ее нет или она удалена
+     */
+    private int basePosition(int age, long id) {
+        RowKey key = new RowKey(age, id);
+        int candidate = firstAfter(null, size, new RowKey(age, id - 1));
+        if (candidate < size && compare(candidate, key) == 0 && !deleted.get(candidate)) {
+            return candidate;
+        }
+        return -1;
+    }
+
+    private static int positionAt(int[] positions, int index) {
+        return positions != null ? positions[index] : index;
+    }
+
+    private int compare(int position, RowKey key) {
+        int byAge = Integer.compare(ages[position], key.age());
+        return byAge != 0 ? byAge : Long.compare(ids[position], key.id());
+    }
+
+    private void markDeleted(int position) {
+        deleted.set(position);
+        deletedCount++;
+    }
+
+    private int codeOf(String speciesName) {
+        return speciesCodes.computeIfAbsent(speciesName, name -> {
+            speciesNames.add(name);
+            return speciesNames.size() - 1;
+        });
+    }
+
+    /**
+     * Слить дельту с основными столбцами, когда она стала заметной относительно их размера
+     */
+    private void compactIfNeeded() {
+        if (delta.size() + deletedCount <= Math.max(MIN_COMPACT_THRESHOLD, size / 8)) {
+            return;
+        }
+        int total = size();
+        int[] mergedAges = new int[Math.max(total, 1024)];
+        long[] mergedIds = new long[mergedAges.length];
+        int[] mergedSpecies = new int[mergedAges.length];
+
+        Iterator<Map.Entry<RowKey, Integer>> deltaRows = delta.entrySet().iterator();
+        Map.Entry<RowKey, Integer> deltaRow = deltaRows.hasNext() ? deltaRows.next() : null;
+        int merged = 0;
+        for (int position = 0; position <= size; position++) {
+            boolean baseRow = position < size && !deleted.get(position);
+            while (deltaRow != null && (position == size || (baseRow && compare(position, deltaRow.getKey()) > 0))) {
+                mergedAges[merged] = deltaRow.getKey().age();
+                mergedIds[merged] = deltaRow.getKey().id();
+                mergedSpecies[merged] = deltaRow.getValue();
+                merged++;
+                deltaRow = deltaRows.hasNext() ? deltaRows.next() : null;
+            }
+            if (baseRow) {
+                mergedAges[merged] = ages[position];
+                mergedIds[merged] = ids[position];
+                mergedSpecies[merged] = species[position];
+                merged++;
+            }
+        }
+
+        ages = mergedAges;
+        ids = mergedIds;
+        species = mergedSpecies;
+        size = merged;
+        deleted.clear();
+        deletedCount = 0;
+        delta.clear();
+        buildSpeciesIndex();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ages.length) {
+            int length = Math.max(capacity, ages.length * 2);
+            ages = Arrays.copyOf(ages, length);
+            ids = Arrays.copyOf(ids, length);
+            species = Arrays.copyOf(species, length);
+        }
+    }
+
+    private record RowKey(int age, long id) implements Comparable<RowKey> {
+
+        @Override
+        public int compareTo(RowKey other) {
+            int byAge = Integer.compare(age, other.age);
+            return byAge != 0 ? byAge : Long.compare(id, other.id);
+        }
+    }
+}
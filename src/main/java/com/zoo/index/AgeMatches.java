@@ -0,0 +1,10 @@
+package com.zoo.index;
+
+/**
+ * Результат выборки по возрасту из AgeColumnIndex: первые size строк массивов ages и ids
+ * в порядке (age, id)
+ */
+public record AgeMatches(int[] ages, long[] ids, int size) {
+
+    static final AgeMatches EMPTY = new AgeMatches(new int[0], new long[0], 0);
+}
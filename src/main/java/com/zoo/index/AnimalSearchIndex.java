@@ -0,0 +1,59 @@
+package com.zoo.index;
+
+import com.zoo.dto.AnimalResponse;
+import com.zoo.event.AnimalChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Триграммный индекс в памяти по имени и виду для поиска подстроки без учета регистра.
+ * Строится полным чтением таблицы; изменения применяются как upsert/remove по id,
+ * поэтому повтор изменения, уже попавшего в прочитанные данные, безопасен.
+ */
+@Component
+public class AnimalSearchIndex extends ReadModelSupport<SearchIndexData> {
+
+    private final AnimalTableScanner tableScanner;
+
+    public AnimalSearchIndex(AnimalTableScanner tableScanner,
+                             @Value("${app.search-index.enabled:true}") boolean enabled) {
+        super("поисковый индекс", enabled);
+        this.tableScanner = tableScanner;
+    }
+
+    /**
+     * Животные, в имени которых есть подстрока, с id больше afterId, не больше limit в порядке id
+     */
+    public List<AnimalResponse> searchByName(String query, long afterId, int limit) {
+        return read(index -> index.searchByName(query, afterId, limit), List.of());
+    }
+
+    /**
+     * Животные, в виде которых есть подстрока, с id больше afterId, не больше limit в порядке id
+     */
+    public List<AnimalResponse> searchBySpecies(String query, long afterId, int limit) {
+        return read(index -> index.searchBySpecies(query, afterId, limit), List.of());
+    }
+
+    @Override
+    protected SearchIndexData load() {
+        SearchIndexData fresh = new SearchIndexData();
+        tableScanner.scan(fresh::upsert);
+        return fresh;
+    }
+
+    @Override
+    protected void applyChange(SearchIndexData index, AnimalChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> index.upsert(event.after());
+            case DELETED -> index.remove(event.before().id());
+        }
+    }
+
+    @Override
+    protected String describe(SearchIndexData index) {
+        return index.size() + " животных";
+    }
+}
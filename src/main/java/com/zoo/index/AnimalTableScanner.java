@@ -0,0 +1,136 @@
+package com.zoo.index;
+
+import com.zoo.dto.AnimalResponse;
+import com.zoo.repository.AnimalAgeRow;
+import com.zoo.repository.AnimalRepository;
+import com.zoo.repository.TableFingerprint;
+import com.zoo.service.FileStorageService;
+import com.zoo.service.export.SnapshotReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Полное чтение таблицы animals курсором для построения структур в памяти.
+ * Строки читаются сразу в AnimalResponse, без сущностей в контексте персистентности.
+ * Если в директории хранения есть свежий бинарный снимок (app.snapshot.warm-start), записи
+ * читаются из него вместо таблицы.
+ */
+@Component
+@Slf4j
+public class AnimalTableScanner {
+
+    private final AnimalRepository animalRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final FileStorageService fileStorageService;
+    private final boolean snapshotWarmStart;
+
+    public AnimalTableScanner(AnimalRepository animalRepository,
+                              PlatformTransactionManager transactionManager,
+                              FileStorageService fileStorageService,
+                              @Value("${app.snapshot.warm-start:true}") boolean snapshotWarmStart) {
+        this.animalRepository = animalRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fileStorageService = fileStorageService;
+        this.snapshotWarmStart = snapshotWarmStart;
+    }
+
+    /**
+     * Передать все записи получателю по одной; возвращает число прочитанных записей
+     */
+    public long scan(Consumer<AnimalResponse> consumer) {
+        SnapshotReader snapshot = findFreshSnapshot();
+        if (snapshot != null) {
+            return scanSnapshot(snapshot, consumer);
+        }
+        Long count = readOnlyTransaction.execute(status -> {
+            long rows = 0;
+            try (Stream<AnimalResponse> animals = animalRepository.streamAllResponses()) {
+                Iterator<AnimalResponse> iterator = animals.iterator();
+                while (iterator.hasNext()) {
+                    consumer.accept(iterator.next());
+                    rows++;
+                }
+            }
+            return rows;
+        });
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Передать получателю id, возраст и вид всех животных с возрастом в порядке (age, id)
+     */
+    public long scanAgeRows(Consumer<AnimalAgeRow> consumer) {
+        Long count = readOnlyTransaction.execute(status -> {
+            long rows = 0;
+            try (Stream<AnimalAgeRow> ageRows = animalRepository.streamAgeRows()) {
+                Iterator<AnimalAgeRow> iterator = ageRows.iterator();
+                while (iterator.hasNext()) {
+                    consumer.accept(iterator.next());
+                    rows++;
+                }
+            }
+            return rows;
+        });
+        return count != null ? count : 0;
+    }
+
+    private long scanSnapshot(SnapshotReader snapshot, Consumer<AnimalResponse> consumer) {
+        SnapshotReader.Cursor cursor = snapshot.cursor();
+        long rows = 0;
+        while (cursor.next()) {
+            consumer.accept(new AnimalResponse(cursor.id(), cursor.name(), cursor.species(), cursor.ageOrNull(),
+                    cursor.version()));
+            rows++;
+        }
+        return rows;
+    }
+
+    /**
+     * Самый свежий снимок, если он совпадает с таблицей по числу записей, наибольшему id
+     * и наибольшему updated_at, иначе null. Вставка или изменение через приложение сдвигают
+     * updated_at, удаление - число записей, так что устаревший снимок не используется;
+     * исключение - загрузка файла с датами изменения из прошлого вместе с удалением того же
+     * числа записей.
+     */
+    private SnapshotReader findFreshSnapshot() {
+        if (!snapshotWarmStart) {
+            return null;
+        }
+        Optional<Path> latest = fileStorageService.findLatestSnapshot();
+        if (latest.isEmpty()) {
+            return null;
+        }
+        try {
+            SnapshotReader snapshot = SnapshotReader.open(latest.get());
+            TableFingerprint table = readOnlyTransaction.execute(status -> animalRepository.fingerprint());
+            if (table == null
+                    || table.getTotal() != snapshot.getRowCount()
+                    || !Objects.equals(table.getMaxId(), snapshot.getMaxId())
+                    || !Objects.equals(table.getMaxUpdatedAt(), snapshot.getMaxUpdatedAt())) {
+                log.info("Снимок {} не совпадает с таблицей, чтение из базы", latest.get().getFileName());
+                return null;
+            }
+            if (!snapshot.verifyChecksum()) {
+                log.warn("Контрольная сумма снимка {} не совпадает, чтение из базы", latest.get().getFileName());
+                return null;
+            }
+            log.info("Чтение из снимка {} ({} записей)", latest.get().getFileName(), snapshot.getRowCount());
+            return snapshot;
+        } catch (IOException e) {
+            log.warn("Не удалось открыть снимок {}: {}", latest.get().getFileName(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.zoo.index;
+
+import java.util.Arrays;
+
+/**
+ * Упорядоченный по возрастанию список номеров документов на примитивном массиве
+ */
+final class IntPostingList {
+
+    private int[] docs = new int[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(int doc) {
+        // Новые номера документов обычно больше прежних (кроме занявших место удаленных), поэтому чаще всего это дописывание в конец
+        if (size == 0 || docs[size - 1] < doc) {
+            ensureCapacity();
+            docs[size++] = doc;
+            return;
+        }
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(docs, insertAt, docs, insertAt + 1, size - insertAt);
+        docs[insertAt] = doc;
+        size++;
+    }
+
+    void remove(int doc) {
+        int index = Arrays.binarySearch(docs, 0, size, doc);
+        if (index >= 0) {
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            size--;
+        }
+    }
+
+    boolean contains(int doc) {
+        return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(docs, size);
+    }
+
+    private void ensureCapacity() {
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.zoo.index;
+
+import com.zoo.event.AnimalChangedEvent;
+import com.zoo.event.AnimalsBulkChangedEvent;
+import com.zoo.event.AnimalsCreatedEvent;
+import com.zoo.service.AnimalTableVersion;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Общая часть структур в памяти, производных от таблицы animals.
+ * Структура загружается из базы при запуске в фоновом потоке и затем обновляется
+ * событиями AnimalService после фиксации транзакций. После массового изменения она сбрасывается
+ * и загружается заново. Пока структура не загружена, isReady() возвращает false
+ * и вызывающий код должен идти в базу.
+ *
+ * @param <D> данные структуры; доступ к ним синхронизирует этот класс
+ */
+@Slf4j
+public abstract class ReadModelSupport<D> {
+
+    private final String name;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService rebuildExecutor;
+
+    // Текущие данные; null, пока они не загружены
+    private D data;
+    // Изменения, пришедшие во время загрузки: применяются к новым данным перед подменой
+    private List<AnimalChangedEvent> pendingChanges;
+
+    protected ReadModelSupport(String name, boolean enabled) {
+        this.name = name;
+        this.enabled = enabled;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Загрузить данные целиком из базы
+     */
+    protected abstract D load();
+
+    /**
+     * Модель включена настройкой; выключенная не загружается и не принимает изменения
+     */
+    protected boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Применить к данным изменение одного животного
+     */
+    protected abstract void applyChange(D data, AnimalChangedEvent event);
+
+    /**
+     * Изменения, пришедшие во время загрузки, которых еще нет в загруженных данных.
+     * По умолчанию все: для структур, где повтор изменения безопасен. Вызывается под блокировкой записи.
+     */
+    protected List<AnimalChangedEvent> notLoaded(D fresh, List<AnimalChangedEvent> pending) {
+        return pending;
+    }
+
+    /**
+     * Выполнить загрузку и подмену данных. Наследник может обернуть их в транзакцию,
+     * чтобы notLoaded видел тот же снимок таблицы, что и load.
+     */
+    protected <R> R inSnapshot(Supplier<R> rebuild) {
+        return rebuild.get();
+    }
+
+    /**
+     * Краткое описание размера данных для лога
+     */
+    protected abstract String describe(D data);
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return data != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Прочитать данные под блокировкой чтения; fallback, если данные еще не загружены
+     */
+    protected <R> R read(Function<D, R> reader, R fallback) {
+        lock.readLock().lock();
+        try {
+            return data != null ? reader.apply(data) : fallback;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            scheduleRebuild("запуск приложения");
+        }
+    }
+
+    // Раньше счетчика версий таблицы: ETag списка не должен опережать данные структуры
+    @Order(AnimalTableVersion.LISTENER_ORDER - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimalChanged(AnimalChangedEvent event) {
+        if (enabled) {
+            apply(List.of(event));
+        }
+    }
+
+    // Пачка пакетной вставки применяется под одной блокировкой записи
+    @Order(AnimalTableVersion.LISTENER_ORDER - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimalsCreated(AnimalsCreatedEvent event) {
+        if (enabled) {
+            apply(event.animals().stream().map(AnimalChangedEvent::created).toList());
+        }
+    }
+
+    @Order(AnimalTableVersion.LISTENER_ORDER - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChange(AnimalsBulkChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // Точечно обновить данные нельзя: до перезагрузки чтения уходят в базу
+        lock.writeLock().lock();
+        try {
+            data = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleRebuild(event.reason());
+    }
+
+    /**
+     * Запланировать полную перезагрузку из базы (выполняется в фоновом потоке, по одной за раз)
+     */
+    public void scheduleRebuild(String reason) {
+        rebuildExecutor.execute(() -> rebuild(reason));
+    }
+
+    private void apply(List<AnimalChangedEvent> changes) {
+        lock.writeLock().lock();
+        try {
+            if (data != null) {
+                changes.forEach(change -> applyChange(data, change));
+            }
+            if (pendingChanges != null) {
+                pendingChanges.addAll(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild(String reason) {
+        log.info("Загрузка {} ({})", name, reason);
+        long started = System.nanoTime();
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        D fresh;
+        try {
+            fresh = inSnapshot(() -> {
+                D loaded = load();
+                lock.writeLock().lock();
+                try {
+                    notLoaded(loaded, pendingChanges).forEach(change -> applyChange(loaded, change));
+                    pendingChanges = null;
+                    data = loaded;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            log.error("Не удалось загрузить {}: {}", name, e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        log.info("Загрузка {} завершена: {}, {} мс", name, describe(fresh), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,160 @@
+package com.zoo.index;
+
+import com.zoo.dto.AnimalResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Содержимое поискового индекса. Не потокобезопасно: доступ синхронизирует AnimalSearchIndex.
+ * Каждому животному соответствует номер документа. Номера удаленных животных складываются в список
+ * свободных и выдаются новым: иначе массивы и перебор коротких подстрок росли бы с каждым
+ * созданием и удалением до перестройки индекса.
+ */
+final class SearchIndexData {
+
+    private AnimalResponse[] docs = new AnimalResponse[1024];
+    private String[] names = new String[1024];
+    private String[] species = new String[1024];
+    private int docCount;
+
+    private int[] freeDocs = new int[64];
+    private int freeCount;
+
+    private final Map<Long, Integer> docByAnimalId = new HashMap<>();
+    private final TrigramPostings nameTrigrams = new TrigramPostings();
+    private final TrigramPostings speciesTrigrams = new TrigramPostings();
+
+    int size() {
+        return docByAnimalId.size();
+    }
+
+    /**
+     * Добавить животное или обновить уже проиндексированное
+     */
+    void upsert(AnimalResponse animal) {
+        String name = normalize(animal.name());
+        String kind = normalize(animal.species());
+
+        Integer existing = docByAnimalId.get(animal.id());
+        if (existing != null) {
+            int doc = existing;
+            if (!names[doc].equals(name)) {
+                nameTrigrams.remove(doc, names[doc]);
+                nameTrigrams.add(doc, name);
+                names[doc] = name;
+            }
+            if (!species[doc].equals(kind)) {
+                speciesTrigrams.remove(doc, species[doc]);
+                speciesTrigrams.add(doc, kind);
+                species[doc] = kind;
+            }
+            docs[doc] = animal;
+            return;
+        }
+
+        int doc = allocateDoc();
+        docs[doc] = animal;
+        names[doc] = name;
+        species[doc] = kind;
+        docByAnimalId.put(animal.id(), doc);
+        nameTrigrams.add(doc, name);
+        speciesTrigrams.add(doc, kind);
+    }
+
+    void remove(Long animalId) {
+        Integer existing = docByAnimalId.remove(animalId);
+        if (existing == null) {
+            return;
+        }
+        int doc = existing;
+        nameTrigrams.remove(doc, names[doc]);
+        speciesTrigrams.remove(doc, species[doc]);
+        docs[doc] = null;
+        names[doc] = null;
+        species[doc] = null;
+        if (freeCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeDocs.length * 2);
+        }
+        freeDocs[freeCount++] = doc;
+    }
+
+    List<AnimalResponse> searchByName(String query, long afterId, int limit) {
+        return search(names, nameTrigrams, query, afterId, limit);
+    }
+
+    List<AnimalResponse> searchBySpecies(String query, long afterId, int limit) {
+        return search(species, speciesTrigrams, query, afterId, limit);
+    }
+
+    /**
+     * Животные с id больше afterId, у которых поле содержит подстроку; не больше limit штук в порядке id
+     */
+    private List<AnimalResponse> search(String[] values, TrigramPostings trigrams,
+                                        String query, long afterId, int limit) {
+        String needle = normalize(query);
+        // Куча из limit наименьших подходящих id: вершина - наибольший из них
+        PriorityQueue<AnimalResponse> best = new PriorityQueue<>(
+                Comparator.comparing(AnimalResponse::id).reversed());
+
+        if (needle.length() < 3) {
+            // Короткой подстроке триграммы не помогают - перебор значений в памяти
+            for (int doc = 0; doc < docCount; doc++) {
+                if (values[doc] != null && values[doc].contains(needle)) {
+                    offer(best, docs[doc], afterId, limit);
+                }
+            }
+        } else {
+            for (int doc : trigrams.candidates(needle)) {
+                if (values[doc].contains(needle)) {
+                    offer(best, docs[doc], afterId, limit);
+                }
+            }
+        }
+
+        List<AnimalResponse> result = new ArrayList<>(best);
+        result.sort(Comparator.comparing(AnimalResponse::id));
+        return result;
+    }
+
+    private static void offer(PriorityQueue<AnimalResponse> best, AnimalResponse animal, long afterId, int limit) {
+        if (animal.id() <= afterId) {
+            return;
+        }
+        best.offer(animal);
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    /**
+     * Номер для нового документа: освободившийся после удаления, иначе следующий по порядку
+     */
+    private int allocateDoc() {
+        if (freeCount > 0) {
+            return freeDocs[--freeCount];
+        }
+        int doc = docCount++;
+        ensureCapacity();
+        return doc;
+    }
+
+    private void ensureCapacity() {
+        if (docCount > docs.length) {
+            int capacity = docs.length * 2;
+            docs = Arrays.copyOf(docs, capacity);
+            names = Arrays.copyOf(names, capacity);
+            species = Arrays.copyOf(species, capacity);
+        }
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,233 @@
+package com.zoo.index;
+
+import com.zoo.dto.AnimalResponse;
+import com.zoo.dto.SpeciesStatsResponse;
+import com.zoo.event.AnimalChangedEvent;
+import com.zoo.event.AnimalsCreatedEvent;
+import com.zoo.repository.AnimalRepository;
+import com.zoo.repository.SpeciesAgeCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Количество животных по видам (и распределение по возрасту) в памяти.
+ * Загружается одним GROUP BY и дальше поддерживается событиями создания, изменения и удаления,
+ * поэтому счетчики вида и полная гистограмма читаются без запросов к базе.
+ * <p>
+ * В отличие от поискового индекса, изменения счетчиков не идемпотентны: изменение, зафиксированное
+ * до GROUP BY, но доставленное после начала загрузки, нельзя применять повторно. Поэтому загрузка
+ * идет в транзакции REPEATABLE READ, после GROUP BY дожидается доставки изменений из транзакций,
+ * начатых до него, и по версиям строк в том же снимке отбрасывает изменения, которые в нем уже учтены.
+ */
+@Component
+@Slf4j
+public class SpeciesHistogram extends ReadModelSupport<SpeciesHistogramData> {
+
+    private static final int VERSION_QUERY_BATCH = 1000;
+    private static final long IN_FLIGHT_TIMEOUT_SECONDS = 30;
+
+    private final AnimalRepository animalRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+
+    // Транзакции, изменившие животных и еще не завершенные; future завершается после обработчиков фиксации
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+    private final Object transactionKey = new Object();
+
+    public SpeciesHistogram(AnimalRepository animalRepository,
+                            JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.species-histogram.enabled:true}") boolean enabled) {
+        super("гистограмма видов", enabled);
+        this.animalRepository = animalRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Количество животных вида; пока гистограмма не загружена - COUNT в базе
+     */
+    public long count(String species) {
+        Long count = read(histogram -> histogram.count(species), null);
+        return count != null ? count : animalRepository.countBySpecies(species);
+    }
+
+    /**
+     * Все виды в алфавитном порядке; пока гистограмма не загружена - тот же результат одним GROUP BY
+     */
+    public List<SpeciesStatsResponse> stats(boolean withAge) {
+        List<SpeciesStatsResponse> stats = read(histogram -> histogram.stats(withAge), null);
+        return stats != null ? stats : groupBy().stats(withAge);
+    }
+
+    // Вызывается в транзакции изменения, до фиксации: отмечает ее как незавершенную
+    @EventListener
+    public void trackTransaction(AnimalChangedEvent event) {
+        trackCurrentTransaction();
+    }
+
+    @EventListener
+    public void trackTransaction(AnimalsCreatedEvent event) {
+        trackCurrentTransaction();
+    }
+
+    @Override
+    protected <R> R inSnapshot(Supplier<R> rebuild) {
+        return snapshotTransaction.execute(status -> rebuild.get());
+    }
+
+    /**
+     * GROUP BY в снимке транзакции загрузки. Затем ожидание транзакций, начатых до него: если какая-то
+     * из них зафиксирована до снимка, ее изменение попадет в список ожидающих раньше подмены данных,
+     * и notLoaded его отбросит.
+     */
+    @Override
+    protected SpeciesHistogramData load() {
+        SpeciesHistogramData fresh = groupBy();
+        awaitInFlight();
+        return fresh;
+    }
+
+    /**
+     * Отбросить изменения, уже учтенные в снимке. Версия строки в снимке - отметка, до которой
+     * изменения этой строки в нем есть: создание учтено, если строка есть в снимке; изменение -
+     * если ее версия в снимке не меньше версии после изменения; удаление - если строки в снимке нет.
+     * Строка, созданная после снимка, в нем отсутствует, и все ее изменения применяются.
+     */
+    @Override
+    protected List<AnimalChangedEvent> notLoaded(SpeciesHistogramData fresh, List<AnimalChangedEvent> pending) {
+        if (pending.isEmpty()) {
+            return pending;
+        }
+        Map<Long, Long> loadedVersions = loadedVersions(pending);
+        Set<Long> createdAfterSnapshot = new HashSet<>();
+        List<AnimalChangedEvent> notLoaded = new ArrayList<>();
+        for (AnimalChangedEvent change : pending) {
+            Long id = change.animalId();
+            Long loaded = loadedVersions.get(id);
+            boolean inSnapshot = switch (change.type()) {
+                case CREATED -> loaded != null;
+                case UPDATED -> loaded != null
+                        ? change.after().version() != null && loaded >= change.after().version()
+                        : !createdAfterSnapshot.contains(id);
+                case DELETED -> loaded == null && !createdAfterSnapshot.contains(id);
+            };
+            if (!inSnapshot) {
+                if (change.type() == AnimalChangedEvent.ChangeType.CREATED) {
+                    createdAfterSnapshot.add(id);
+                }
+                notLoaded.add(change);
+            }
+        }
+        log.debug("Гистограмма видов: из {} изменений во время загрузки уже учтено {}",
+                pending.size(), pending.size() - notLoaded.size());
+        return notLoaded;
+    }
+
+    @Override
+    protected void applyChange(SpeciesHistogramData histogram, AnimalChangedEvent event) {
+        AnimalResponse before = event.before();
+        AnimalResponse after = event.after();
+        switch (event.type()) {
+            case CREATED -> histogram.add(after.species(), after.age(), 1);
+            case UPDATED -> {
+                if (!Objects.equals(before.species(), after.species())
+                        || !Objects.equals(before.age(), after.age())) {
+                    histogram.remove(before.species(), before.age());
+                    histogram.add(after.species(), after.age(), 1);
+                }
+            }
+            case DELETED -> histogram.remove(before.species(), before.age());
+        }
+    }
+
+    @Override
+    protected String describe(SpeciesHistogramData histogram) {
+        return histogram.speciesCount() + " видов, " + histogram.total() + " животных";
+    }
+
+    private SpeciesHistogramData groupBy() {
+        SpeciesHistogramData fresh = new SpeciesHistogramData();
+        for (SpeciesAgeCount row : animalRepository.countBySpeciesAndAge()) {
+            fresh.add(row.getSpecies(), row.getAge(), row.getTotal());
+        }
+        return fresh;
+    }
+
+    /**
+     * Версии строк в снимке транзакции загрузки; строк, которых в снимке нет, в результате нет
+     */
+    private Map<Long, Long> loadedVersions(List<AnimalChangedEvent> changes) {
+        List<Long> ids = changes.stream().map(AnimalChangedEvent::animalId).distinct().toList();
+        Map<Long, Long> versions = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += VERSION_QUERY_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + VERSION_QUERY_BATCH));
+            String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query("SELECT id, version FROM animals WHERE id IN (" + placeholders + ")",
+                    row -> {
+                        versions.put(row.getLong(1), row.getLong(2));
+                    },
+                    batch.toArray());
+        }
+        return versions;
+    }
+
+    private void trackCurrentTransaction() {
+        if (!isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(transactionKey)) {
+            return;
+        }
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+        TransactionSynchronizationManager.bindResource(transactionKey, completed);
+        inFlight.add(completed);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // afterCompletion идет после всех обработчиков фиксации, в том числе onAnimalChanged
+                TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+                inFlight.remove(completed);
+                completed.complete(null);
+            }
+        });
+    }
+
+    private void awaitInFlight() {
+        CompletableFuture<?>[] started = inFlight.toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(started).get(IN_FLIGHT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Гистограмма видов: {} транзакций не завершились за {} с, их изменения могут быть учтены дважды",
+                    started.length, IN_FLIGHT_TIMEOUT_SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Загрузка гистограммы видов прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
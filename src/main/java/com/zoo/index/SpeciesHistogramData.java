@@ -0,0 +1,88 @@
+package com.zoo.index;
+
+import com.zoo.dto.SpeciesStatsResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Гистограмма животных по виду и возрасту. Не потокобезопасна: доступ синхронизирует SpeciesHistogram.
+ */
+final class SpeciesHistogramData {
+
+    // Вид -> счетчики; TreeMap, чтобы отдавать гистограмму сразу в порядке видов
+    private final TreeMap<String, SpeciesCounts> bySpecies = new TreeMap<>();
+    private long total;
+
+    void add(String species, Integer age, long count) {
+        if (species == null || count == 0) {
+            return;
+        }
+        SpeciesCounts counts = bySpecies.computeIfAbsent(species, key -> new SpeciesCounts());
+        counts.add(age, count);
+        total += count;
+        if (counts.count <= 0) {
+            bySpecies.remove(species);
+        }
+    }
+
+    void remove(String species, Integer age) {
+        add(species, age, -1);
+    }
+
+    long count(String species) {
+        SpeciesCounts counts = bySpecies.get(species);
+        return counts != null ? counts.count : 0;
+    }
+
+    int speciesCount() {
+        return bySpecies.size();
+    }
+
+    long total() {
+        return total;
+    }
+
+    List<SpeciesStatsResponse> stats(boolean withAge) {
+        List<SpeciesStatsResponse> result = new ArrayList<>(bySpecies.size());
+        bySpecies.forEach((species, counts) -> result.add(withAge
+                ? new SpeciesStatsResponse(species, counts.count, counts.minAge(), counts.maxAge(), counts.avgAge())
+                : new SpeciesStatsResponse(species, counts.count, null, null, null)));
+        return result;
+    }
+
+    /**
+     * Счетчики одного вида. Распределение по возрастам нужно, чтобы min/max
+     * оставались точными после удалений.
+     */
+    private static final class SpeciesCounts {
+
+        private final TreeMap<Integer, Long> byAge = new TreeMap<>();
+        private long count;
+        private long agedCount;
+        private long ageSum;
+
+        void add(Integer age, long delta) {
+            count += delta;
+            if (age == null) {
+                return;
+            }
+            agedCount += delta;
+            ageSum += (long) age * delta;
+            byAge.merge(age, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+
+        Integer minAge() {
+            return byAge.isEmpty() ? null : byAge.firstKey();
+        }
+
+        Integer maxAge() {
+            return byAge.isEmpty() ? null : byAge.lastKey();
+        }
+
+        Double avgAge() {
+            return agedCount > 0 ? (double) ageSum / agedCount : null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.zoo.index;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Триграммы одного поля: для каждой тройки подряд идущих символов (в нижнем регистре)
+ * хранится список документов, в значении которых она встречается
+ */
+final class TrigramPostings {
+
+    private static final int[] NO_DOCS = new int[0];
+
+    private final Map<Long, IntPostingList> postings = new HashMap<>();
+
+    void add(int doc, String value) {
+        for (long trigram : trigrams(value)) {
+            postings.computeIfAbsent(trigram, key -> new IntPostingList()).add(doc);
+        }
+    }
+
+    void remove(int doc, String value) {
+        for (long trigram : trigrams(value)) {
+            IntPostingList list = postings.get(trigram);
+            if (list != null) {
+                list.remove(doc);
+                if (list.size() == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Документы, содержащие все триграммы строки (длиной не меньше 3).
+     * Это кандидаты: наличие подстроки целиком проверяется отдельно.
+     */
+    int[] candidates(String needle) {
+        long[] keys = trigrams(needle);
+        IntPostingList[] lists = new IntPostingList[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            lists[i] = postings.get(keys[i]);
+            if (lists[i] == null) {
+                return NO_DOCS;
+            }
+        }
+        // Пересечение начинается с самого короткого списка
+        Arrays.sort(lists, Comparator.comparingInt(IntPostingList::size));
+
+        int[] result = lists[0].toArray();
+        int count = result.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            int kept = 0;
+            for (int j = 0; j < count; j++) {
+                if (lists[i].contains(result[j])) {
+                    result[kept++] = result[j];
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Различные триграммы строки: три символа UTF-16 упакованы в одно long по 16 бит.
+     * Кириллица целиком лежит в BMP, поэтому каждая буква - один символ.
+     */
+    static long[] trigrams(String value) {
+        int count = value.length() - 2;
+        if (count <= 0) {
+            return new long[0];
+        }
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+        }
+        Arrays.sort(keys);
+        int distinct = 1;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] != keys[distinct - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+}
@@ -0,0 +1,20 @@
+package com.zoo.metrics;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * Считает сущности, загруженные Hibernate, в счетчиках текущего запроса.
+ * Регистрируется один раз на фабрику сессий (см. {@link HibernateMetricsConfig}).
+ * Операторы и строки считаются ниже, на уровне JDBC (см. {@link QueryCountingDataSource}).
+ */
+public class EntityLoadCountingListener implements PostLoadEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestQueryCounts counts = RequestQueryCounts.current();
+        if (counts != null) {
+            counts.entityLoaded();
+        }
+    }
+}
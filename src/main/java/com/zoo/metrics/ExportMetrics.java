@@ -0,0 +1,109 @@
+package com.zoo.metrics;
+
+import com.zoo.service.export.ExportProgress;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Метрики выгрузок по формату: записи и байты (скорость - rate() по счетчикам),
+ * длительность с исходом и число выполняемых выгрузок.
+ * Счетчики обновляются пачками по FLUSH_ROWS записей, а не на каждой записи.
+ */
+@Component
+public class ExportMetrics {
+
+    private static final int FLUSH_ROWS = 4096;
+
+    private final MeterRegistry registry;
+    private final AtomicInteger active = new AtomicInteger();
+
+    public ExportMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("app.export.active", active, AtomicInteger::get)
+                .description("Выполняемые выгрузки")
+                .register(registry);
+    }
+
+    /**
+     * Начать учет выгрузки; возвращаемый прогресс передает события дальше в delegate
+     */
+    public Meter start(String format, ExportProgress delegate) {
+        return new Meter(format, delegate);
+    }
+
+    /**
+     * Прогресс одной выгрузки. Используется потоком, который пишет файл; по окончании
+     * вызывается success() или failure()
+     */
+    public final class Meter implements ExportProgress {
+
+        private final String format;
+        private final ExportProgress delegate;
+        private final Counter rows;
+        private final Counter bytes;
+        private final Timer.Sample sample;
+        private long pendingRows;
+        private long pendingBytes;
+
+        private Meter(String format, ExportProgress delegate) {
+            this.format = format;
+            this.delegate = delegate;
+            this.rows = Counter.builder("app.export.rows")
+                    .description("Записи, выгруженные в файлы")
+                    .tag("format", format)
+                    .register(registry);
+            this.bytes = Counter.builder("app.export.bytes")
+                    .description("Байты, записанные в файлы выгрузки")
+                    .baseUnit("bytes")
+                    .tag("format", format)
+                    .register(registry);
+            this.sample = Timer.start(registry);
+            active.incrementAndGet();
+        }
+
+        @Override
+        public void rowWritten() {
+            delegate.rowWritten();
+            if (++pendingRows >= FLUSH_ROWS) {
+                flush();
+            }
+        }
+
+        @Override
+        public void bytesWritten(long count) {
+            delegate.bytesWritten(count);
+            pendingBytes += count;
+        }
+
+        public void success() {
+            finish("success");
+        }
+
+        public void failure() {
+            finish("failure");
+        }
+
+        private void finish(String outcome) {
+            flush();
+            active.decrementAndGet();
+            sample.stop(Timer.builder("app.export.duration")
+                    .description("Длительность выгрузки")
+                    .tag("format", format)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+
+        private void flush() {
+            rows.increment(pendingRows);
+            bytes.increment(pendingBytes);
+            pendingRows = 0;
+            pendingBytes = 0;
+        }
+    }
+}
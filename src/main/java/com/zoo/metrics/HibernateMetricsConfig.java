@@ -0,0 +1,53 @@
+package com.zoo.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Подключение счетчика загруженных сущностей к Hibernate (app.metrics.request-queries.enabled).
+ * Операторы JDBC считаются не здесь, а в {@link QueryCountingDataSource}: так учитываются и
+ * запросы через JdbcTemplate. Глобальная статистика Hibernate (generate_statistics) не включается:
+ * она собирает данные по каждому тексту запроса, а здесь нужны только счетчики на запрос.
+ */
+@Component
+public class HibernateMetricsConfig implements HibernatePropertiesCustomizer {
+
+    @Value("${app.metrics.request-queries.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        if (!enabled) {
+            return;
+        }
+        hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(new EntityLoadIntegrator()));
+    }
+
+    private static final class EntityLoadIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getServiceRegistry()
+                    .getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, new EntityLoadCountingListener());
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.zoo.metrics;
+
+import com.zoo.config.SlowQueryProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает пул соединений в {@link QueryCountingDataSource}, если включены счетчики запроса
+ * (app.metrics.request-queries.enabled) или журнал медленных операторов (app.metrics.slow-query.enabled).
+ * Зависимости берутся через ObjectProvider, чтобы не создавать их раньше остальных постпроцессоров.
+ */
+@Component
+@RequiredArgsConstructor
+public class JdbcMetricsConfig implements BeanPostProcessor {
+
+    private final ObjectProvider<SlowQueryProperties> slowQueryProperties;
+    private final ObjectProvider<MeterRegistry> registries;
+
+    @Value("${app.metrics.request-queries.enabled:true}")
+    private boolean requestQueries;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof QueryCountingDataSource) {
+            return bean;
+        }
+        SlowQueryProperties properties = slowQueryProperties.getObject();
+        if (!requestQueries && !properties.isEnabled()) {
+            return bean;
+        }
+        return new QueryCountingDataSource(dataSource,
+                properties.isEnabled() ? new SlowQueryLog(properties, registries) : null);
+    }
+}
@@ -0,0 +1,244 @@
+package com.zoo.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Обертка пула соединений: считает операторы, пакеты и прочитанные строки в счетчиках
+ * текущего запроса ({@link RequestQueryCounts}) и отдает медленные операторы в {@link SlowQueryLog}.
+ * Стоит под Hibernate и JdbcTemplate, поэтому видит все обращения к базе, включая
+ * массовые операции и COPY. Соединения, операторы и результаты оборачиваются динамическими
+ * прокси; результаты - только в потоке HTTP-запроса, фоновые выгрузки читают строки напрямую.
+ * unwrap() отдается исходному объекту драйвера (нужен для COPY через PGConnection).
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private static final ClassLoader CLASS_LOADER = QueryCountingDataSource.class.getClassLoader();
+
+    private final SlowQueryLog slowQueries;
+
+    QueryCountingDataSource(DataSource target, SlowQueryLog slowQueries) {
+        super(target);
+        this.slowQueries = slowQueries;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    /**
+     * Общая часть обработчиков: тождество прокси, unwrap и вызов исходного объекта
+     */
+    private abstract static class JdbcHandler implements InvocationHandler {
+
+        final Object target;
+
+        JdbcHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                // Hibernate держит операторы и результаты в хеш-таблицах: прокси равен только себе
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : call(method, args);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || (Boolean) call(method, args);
+                default:
+                    return handle(proxy, method, args);
+            }
+        }
+
+        abstract Object handle(Object proxy, Method method, Object[] args) throws Throwable;
+
+        Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private final class ConnectionHandler extends JdbcHandler {
+
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = call(method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> wrap(Statement.class, result, null, proxy);
+                case "prepareStatement" -> wrap(PreparedStatement.class, result, (String) args[0], proxy);
+                case "prepareCall" -> wrap(CallableStatement.class, result, (String) args[0], proxy);
+                default -> result;
+            };
+        }
+
+        private Object wrap(Class<? extends Statement> type, Object statement, String sql, Object connection) {
+            return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{type},
+                    new StatementHandler((Statement) statement, sql, connection));
+        }
+    }
+
+    private final class StatementHandler extends JdbcHandler {
+
+        private final String sql;
+        private final Object connection;
+        // Типы привязанных параметров по номеру; значения не хранятся
+        private final Map<Integer, String> parameters = new TreeMap<>();
+        private String batchSql;
+        private int batchSize;
+
+        StatementHandler(Statement target, String sql, Object connection) {
+            super(target);
+            this.sql = sql;
+            this.connection = connection;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, shape(name, args[1]));
+                return call(method, args);
+            }
+            switch (name) {
+                case "clearParameters" -> parameters.clear();
+                case "addBatch" -> {
+                    batchSize++;
+                    if (args != null && batchSql == null) {
+                        batchSql = (String) args[0];
+                    }
+                }
+                case "clearBatch" -> {
+                    batchSize = 0;
+                    batchSql = null;
+                }
+                case "getConnection" -> {
+                    return connection;
+                }
+                case "getResultSet", "getGeneratedKeys" -> {
+                    return wrapResultSet(call(method, args), proxy);
+                }
+                case "execute", "executeQuery", "executeUpdate", "executeLargeUpdate" -> {
+                    return execute(proxy, method, args, false);
+                }
+                case "executeBatch", "executeLargeBatch" -> {
+                    return execute(proxy, method, args, true);
+                }
+                default -> {
+                }
+            }
+            return call(method, args);
+        }
+
+        private Object execute(Object proxy, Method method, Object[] args, boolean batch) throws Throwable {
+            long started = System.nanoTime();
+            Object result = call(method, args);
+            long elapsed = System.nanoTime() - started;
+
+            RequestQueryCounts counts = RequestQueryCounts.current();
+            if (counts != null) {
+                if (batch) {
+                    counts.batchExecuted();
+                } else {
+                    counts.statementExecuted();
+                }
+            }
+            if (slowQueries != null && slowQueries.isSlow(elapsed)) {
+                String text = args != null && args[0] instanceof String statementSql ? statementSql
+                        : sql != null ? sql : batchSql;
+                slowQueries.record(text, parameterShapes(), batch ? batchSize : 0, elapsed);
+            }
+            if (batch) {
+                batchSize = 0;
+                batchSql = null;
+            }
+            return wrapResultSet(result, proxy);
+        }
+
+        private String parameterShapes() {
+            StringJoiner joiner = new StringJoiner(", ");
+            parameters.forEach((index, type) -> joiner.add(index + ":" + type));
+            return joiner.toString();
+        }
+
+        private static String shape(String setter, Object value) {
+            if (value == null || setter.equals("setNull")) {
+                return "null";
+            }
+            return value.getClass().getSimpleName();
+        }
+
+        private Object wrapResultSet(Object result, Object statement) {
+            if (!(result instanceof ResultSet resultSet)) {
+                return result;
+            }
+            RequestQueryCounts counts = RequestQueryCounts.current();
+            if (counts == null) {
+                return resultSet;
+            }
+            return Proxy.newProxyInstance(CLASS_LOADER, new Class<?>[]{ResultSet.class},
+                    new ResultSetHandler(resultSet, counts, statement));
+        }
+    }
+
+    private static final class ResultSetHandler extends JdbcHandler {
+
+        private final RequestQueryCounts counts;
+        private final Object statement;
+
+        ResultSetHandler(ResultSet target, RequestQueryCounts counts, Object statement) {
+            super(target);
+            this.counts = counts;
+            this.statement = statement;
+        }
+
+        @Override
+        Object handle(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("getStatement")) {
+                return statement;
+            }
+            Object result = call(method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                counts.rowFetched();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.zoo.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Счетчики обращений к базе в пределах одного HTTP-запроса.
+ * Привязаны к потоку запроса; вне запроса (фоновые выгрузки, загрузка индексов) current() - null
+ * и счет не ведется. Ответы, которые пишутся асинхронно (StreamingResponseBody), учитываются
+ * только в части, выполненной в потоке запроса.
+ */
+public final class RequestQueryCounts {
+
+    private static final ThreadLocal<RequestQueryCounts> CURRENT = new ThreadLocal<>();
+
+    private final HttpServletRequest request;
+
+    private long statements;
+    private long batches;
+    private long rows;
+    private long entityLoads;
+
+    private RequestQueryCounts(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    static RequestQueryCounts begin(HttpServletRequest request) {
+        RequestQueryCounts counts = new RequestQueryCounts(request);
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestQueryCounts current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Шаблон пути обработчика (тот же, что в теге uri метрик); UNKNOWN, пока обработчик не выбран
+     */
+    String uri() {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    String method() {
+        return request.getMethod();
+    }
+
+    void statementExecuted() {
+        statements++;
+    }
+
+    void batchExecuted() {
+        batches++;
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    long statements() {
+        return statements;
+    }
+
+    long batches() {
+        return batches;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    long entityLoads() {
+        return entityLoads;
+    }
+}
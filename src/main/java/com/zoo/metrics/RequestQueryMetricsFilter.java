@@ -0,0 +1,61 @@
+package com.zoo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Распределения числа операторов JDBC, пакетов, прочитанных строк и загруженных сущностей
+ * на запрос к /api/**, по шаблону пути обработчика (тот же тег uri, что у http.server.requests).
+ * Рост app.request.statements на эндпоинте - признак N+1 или лишних запросов,
+ * рост app.request.rows при том же ответе - признак выборки лишних строк.
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+
+    @Value("${app.metrics.request-queries.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueryCounts counts = RequestQueryCounts.begin(request);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestQueryCounts.end();
+            String uri = counts.uri();
+            record("app.request.statements", "Операторы JDBC, выполненные за запрос", request, uri, counts.statements());
+            record("app.request.batches", "Пакеты JDBC, выполненные за запрос", request, uri, counts.batches());
+            record("app.request.rows", "Строки, прочитанные из результатов запросов JDBC за запрос", request, uri, counts.rows());
+            record("app.request.entity.loads", "Сущности, загруженные Hibernate за запрос", request, uri, counts.entityLoads());
+        }
+    }
+
+    private void record(String name, String description, HttpServletRequest request, String uri, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(value);
+    }
+}
@@ -0,0 +1,68 @@
+package com.zoo.metrics;
+
+import com.zoo.config.SlowQueryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Журнал медленных операторов JDBC (app.metrics.slow-query): эндпоинт, из которого выполнен
+ * оператор, время, текст и типы привязанных параметров. Значения параметров не пишутся:
+ * по типам и числу параметров видно форму запроса (например, длину IN-списка), но не данные.
+ * Реестр метрик берется лениво: первые операторы выполняются еще при старте контекста.
+ */
+@Slf4j
+final class SlowQueryLog {
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final int maxSqlLength;
+    private final ObjectProvider<MeterRegistry> registries;
+
+    SlowQueryLog(SlowQueryProperties properties, ObjectProvider<MeterRegistry> registries) {
+        this.thresholdNanos = properties.getThreshold().toNanos();
+        this.sampleRate = properties.getSampleRate();
+        this.maxSqlLength = properties.getMaxSqlLength();
+        this.registries = registries;
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    void record(String sql, String parameters, int batchSize, long elapsedNanos) {
+        RequestQueryCounts counts = RequestQueryCounts.current();
+        String uri = counts != null ? counts.uri() : "none";
+
+        MeterRegistry registry = registries.getIfAvailable();
+        if (registry != null) {
+            Counter.builder("app.jdbc.slow.queries")
+                    .description("Операторы JDBC медленнее app.metrics.slow-query.threshold")
+                    .tag("uri", uri)
+                    .register(registry)
+                    .increment();
+        }
+
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        String endpoint = counts != null
+                ? counts.method() + " " + uri
+                : "вне запроса, поток " + Thread.currentThread().getName();
+        log.warn("Медленный оператор: {} мс, {}{}; параметры: [{}]; SQL: {}",
+                elapsedNanos / 1_000_000, endpoint,
+                batchSize > 0 ? ", пакет из " + batchSize : "",
+                parameters, abbreviate(sql));
+    }
+
+    private String abbreviate(String sql) {
+        if (sql == null) {
+            return "?";
+        }
+        String compact = sql.replaceAll("\\s+", " ").trim();
+        return compact.length() <= maxSqlLength ? compact : compact.substring(0, maxSqlLength) + "...";
+    }
+}
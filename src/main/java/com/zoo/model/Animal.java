@@ -4,20 +4,29 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "animals")
+@Table(name = "animals", indexes = {
+        // Ключи постраничной выдачи по возрасту: (age, id) и (species, age, id)
+        @Index(name = "idx_animals_age_id", columnList = "age, id"),
+        @Index(name = "idx_animals_species_age_id", columnList = "species, age, id"),
+        // Инкрементальные выгрузки: записи, измененные после позиции получателя
+        @Index(name = "idx_animals_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Animal {
 
+    // Последовательность с пулом значений: в отличие от IDENTITY не отключает пакетную вставку JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "animals_seq")
+    @SequenceGenerator(name = "animals_seq", sequenceName = "animals_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -37,6 +46,12 @@ public class Animal {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Оптимистическая блокировка и ETag записи; DEFAULT 0 нужен для добавления столбца в заполненную таблицу
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public Animal(String name, String species, Integer age) {
         this.name = name;
         this.species = species;
@@ -0,0 +1,45 @@
+package com.zoo.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отметка об удалении животного для инкрементальных выгрузок.
+ * Отметка без animalId означает, что таблица изменена целиком (удаление всех животных,
+ * загрузка файла): получатель дельты должен начать с полной выгрузки.
+ */
+@Entity
+@Table(name = "animal_tombstones", indexes = {
+        @Index(name = "idx_animal_tombstones_deleted_at", columnList = "deleted_at")
+})
+@Data
+@NoArgsConstructor
+public class AnimalTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "animal_tombstones_seq")
+    @SequenceGenerator(name = "animal_tombstones_seq", sequenceName = "animal_tombstones_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "animal_id")
+    private Long animalId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public AnimalTombstone(Long animalId, LocalDateTime deletedAt) {
+        this.animalId = animalId;
+        this.deletedAt = deletedAt;
+    }
+
+    public static AnimalTombstone reset(LocalDateTime deletedAt) {
+        return new AnimalTombstone(null, deletedAt);
+    }
+
+    public boolean isReset() {
+        return animalId == null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.zoo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Позиция получателя инкрементальных выгрузок: изменения до changedUpTo он уже получил
+ */
+@Entity
+@Table(name = "export_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportCheckpoint {
+
+    @Id
+    @Column(name = "consumer", length = 64)
+    private String consumer;
+
+    @Column(name = "changed_up_to", nullable = false)
+    private LocalDateTime changedUpTo;
+
+    @Column(name = "last_file")
+    private String lastFile;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
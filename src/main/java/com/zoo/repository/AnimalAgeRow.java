@@ -0,0 +1,13 @@
+package com.zoo.repository;
+
+/**
+ * Id, возраст и вид животного - столбцы, нужные для выборок по возрасту
+ */
+public interface AnimalAgeRow {
+
+    Long getId();
+
+    Integer getAge();
+
+    String getSpecies();
+}
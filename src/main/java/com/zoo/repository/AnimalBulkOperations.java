@@ -0,0 +1,216 @@
+package com.zoo.repository;
+
+import com.zoo.dto.AnimalFilter;
+import com.zoo.model.Animal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Изменения таблицы animals одним SQL-оператором, без загрузки сущностей в контекст персистентности.
+ * Операторы с RETURNING и изменяющими CTE рассчитаны на PostgreSQL (см. {@link DatabaseInfo});
+ * на других СУБД вызывающий код идет через JPA. Дата изменения и версия выставляются здесь же,
+ * как это сделал бы Hibernate (@UpdateTimestamp, @Version).
+ */
+@Component
+@RequiredArgsConstructor
+public class AnimalBulkOperations {
+
+    private static final String COLUMNS = "id, name, species, age, created_at, updated_at, version";
+
+    // SQLSTATE lock_not_available: истек lock_timeout
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    // Удаленная запись возвращается для событий, отметка для дельт пишется тем же оператором
+    private static final String DELETE_BY_ID_SQL =
+            "WITH deleted AS (DELETE FROM animals WHERE id = ? RETURNING " + COLUMNS + "), " +
+                    "tombstone AS (INSERT INTO animal_tombstones (id, animal_id, deleted_at) " +
+                    "SELECT nextval('animal_tombstones_seq'), id, ? FROM deleted) " +
+                    "SELECT " + COLUMNS + " FROM deleted";
+
+    // Подзапрос с FOR UPDATE отдает состояние до изменения: RETURNING видит только новое
+    private static final String UPDATE_BY_ID_SQL =
+            "UPDATE animals a SET name = COALESCE(?, a.name), species = COALESCE(?, a.species), " +
+                    "age = COALESCE(?, a.age), updated_at = ?, version = a.version + 1 " +
+                    "FROM (SELECT id, name, species, age, version FROM animals WHERE id = ? FOR UPDATE) old " +
+                    "WHERE a.id = old.id";
+
+    private static final String UPDATE_RETURNING =
+            " RETURNING old.name AS old_name, old.species AS old_species, old.age AS old_age, " +
+                    "old.version AS old_version, a.id, a.name, a.species, a.age, a.created_at, a.updated_at, a.version";
+
+    private static final RowMapper<Animal> ANIMAL_MAPPER = (rs, rowNum) -> new Animal(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("species"),
+            rs.getObject("age", Integer.class),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at")),
+            rs.getLong("version"));
+
+    private static final RowMapper<RowChange> CHANGE_MAPPER = (rs, rowNum) -> {
+        Animal after = ANIMAL_MAPPER.mapRow(rs, rowNum);
+        Animal before = new Animal(after.getId(), rs.getString("old_name"), rs.getString("old_species"),
+                rs.getObject("old_age", Integer.class), after.getCreatedAt(), null, rs.getLong("old_version"));
+        return new RowChange(before, after);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.delete-all.lock-timeout:5s}")
+    private Duration lockTimeout;
+
+    /**
+     * Состояние записи до и после изменения
+     */
+    public record RowChange(Animal before, Animal after) {
+    }
+
+    /**
+     * Удалить запись и записать отметку об удалении (PostgreSQL); пусто, если записи нет
+     */
+    public Optional<Animal> deleteById(long id, LocalDateTime deletedAt) {
+        return jdbcTemplate.query(DELETE_BY_ID_SQL, ANIMAL_MAPPER, id, Timestamp.valueOf(deletedAt))
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Изменить заданные (не null) поля записи (PostgreSQL). expectedVersions - допустимые текущие
+     * версии, null - любая. Пусто, если записи нет или ее версия не подошла.
+     */
+    public Optional<RowChange> updateById(long id, String name, String species, Integer age,
+                                          Collection<Long> expectedVersions, LocalDateTime updatedAt) {
+        List<Object> args = new ArrayList<>();
+        args.add(name);
+        args.add(species);
+        args.add(age);
+        args.add(Timestamp.valueOf(updatedAt));
+        args.add(id);
+        StringBuilder sql = new StringBuilder(UPDATE_BY_ID_SQL);
+        if (expectedVersions != null) {
+            if (expectedVersions.isEmpty()) {
+                return Optional.empty();
+            }
+            sql.append(" AND old.version IN (")
+                    .append(String.join(", ", Collections.nCopies(expectedVersions.size(), "?")))
+                    .append(")");
+            args.addAll(expectedVersions);
+        }
+        sql.append(UPDATE_RETURNING);
+        return jdbcTemplate.query(sql.toString(), CHANGE_MAPPER, args.toArray())
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Удалить отобранные записи с отметками об удалении для дельт (PostgreSQL); возвращает их число
+     */
+    public int deleteMatching(AnimalFilter filter, LocalDateTime deletedAt) {
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, args);
+        args.add(Timestamp.valueOf(deletedAt));
+        return jdbcTemplate.update(
+                "WITH deleted AS (DELETE FROM animals" + where + " RETURNING id) " +
+                        "INSERT INTO animal_tombstones (id, animal_id, deleted_at) " +
+                        "SELECT nextval('animal_tombstones_seq'), id, ? FROM deleted",
+                args.toArray());
+    }
+
+    /**
+     * Удалить отобранные записи без отметок (любая СУБД); возвращает их число
+     */
+    public int deleteMatchingPlain(AnimalFilter filter) {
+        List<Object> args = new ArrayList<>();
+        return jdbcTemplate.update("DELETE FROM animals" + where(filter, args), args.toArray());
+    }
+
+    /**
+     * Сдвинуть возраст и/или сменить вид у отобранных записей (любая СУБД); возвращает их число
+     */
+    public int updateMatching(AnimalFilter filter, Integer ageDelta, String species, LocalDateTime updatedAt) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("UPDATE animals SET ");
+        if (ageDelta != null) {
+            sql.append("age = CASE WHEN age IS NULL THEN NULL ELSE GREATEST(age + ?, 0) END, ");
+            args.add(ageDelta);
+        }
+        if (species != null) {
+            sql.append("species = ?, ");
+            args.add(species);
+        }
+        sql.append("updated_at = ?, version = version + 1");
+        args.add(Timestamp.valueOf(updatedAt));
+        sql.append(where(filter, args));
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Очистить таблицу; возвращает число удаленных записей.
+     * На PostgreSQL - TRUNCATE: место освобождается сразу, без построчного удаления и последующей
+     * очистки VACUUM. Число записей считается под исключительной блокировкой, взятой до TRUNCATE,
+     * поэтому совпадает с удаленным. Блокировка ждет не дольше app.delete-all.lock-timeout:
+     * пока она в очереди, за ней встают все чтения таблицы. Не дождавшись, оператор завершается
+     * с CannotAcquireLockException. Должно вызываться в транзакции.
+     */
+    public long deleteAll(boolean postgres) {
+        if (!postgres) {
+            return jdbcTemplate.update("DELETE FROM animals");
+        }
+        // SET не принимает параметров; значение - число миллисекунд из настроек
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+        try {
+            jdbcTemplate.execute("LOCK TABLE animals IN ACCESS EXCLUSIVE MODE");
+        } catch (DataAccessException e) {
+            // Драйвер отдает lock_not_available без кода ошибки, и Spring оставляет его некатегоризированным
+            if (e.getMostSpecificCause() instanceof SQLException sqlException
+                    && LOCK_NOT_AVAILABLE.equals(sqlException.getSQLState())) {
+                throw new CannotAcquireLockException("Не удалось заблокировать таблицу animals за " + lockTimeout, e);
+            }
+            throw e;
+        }
+        jdbcTemplate.execute("SET LOCAL lock_timeout TO DEFAULT");
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM animals", Long.class);
+        jdbcTemplate.execute("TRUNCATE animals");
+        return count != null ? count : 0;
+    }
+
+    private static String where(AnimalFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>(3);
+        if (filter.species() != null) {
+            conditions.add("species = ?");
+            args.add(filter.species());
+        }
+        if (filter.minAge() != null) {
+            conditions.add("age >= ?");
+            args.add(filter.minAge());
+        }
+        if (filter.maxAge() != null) {
+            conditions.add("age <= ?");
+            args.add(filter.maxAge());
+        }
+        // Пустой фильтр означал бы всю таблицу; для этого есть deleteAll
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("Нужен хотя бы один критерий отбора");
+        }
+        return " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
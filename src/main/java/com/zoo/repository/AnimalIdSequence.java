@@ -0,0 +1,45 @@
+package com.zoo.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обслуживание последовательности animals_seq, из которой Hibernate берет id пачками по 50.
+ * Таблицы, созданные до перехода с IDENTITY, уже содержат id, которые новая последовательность
+ * выдала бы повторно, поэтому она сдвигается выше максимального id.
+ * Сдвиг выполняется после создания всех бинов (схема уже создана Hibernate), но до запуска
+ * веб-сервера: первый же POST не должен получить id, занятый старой записью.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnimalIdSequence implements SmartInitializingSingleton {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseInfo databaseInfo;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        align();
+    }
+
+    /**
+     * Сдвинуть последовательность так, чтобы следующий пул id начинался после максимального id в таблице.
+     * Вызывается при старте и после загрузки записей с явными id.
+     */
+    public void align() {
+        if (!databaseInfo.isPostgres()) {
+            return;
+        }
+        Long value = jdbcTemplate.queryForObject(
+                "SELECT setval('animals_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM animals) + ?, " +
+                        "(SELECT last_value FROM animals_seq)))",
+                Long.class, ALLOCATION_SIZE);
+        log.info("Последовательность animals_seq выровнена, текущее значение: {}", value);
+    }
+}
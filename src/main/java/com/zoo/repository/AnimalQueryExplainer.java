@@ -0,0 +1,137 @@
+package com.zoo.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zoo.dto.AnimalQueryPlan;
+import com.zoo.dto.AnimalResponse;
+import com.zoo.model.Animal;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaQuery;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.sqm.internal.QuerySqmImpl;
+import org.hibernate.query.sqm.sql.SqmTranslation;
+import org.hibernate.query.sqm.tree.select.SqmSelectStatement;
+import org.hibernate.sql.ast.tree.select.SelectStatement;
+import org.hibernate.sql.exec.spi.JdbcOperationQuerySelect;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+/**
+ * План выборки по {@link Specification} для подбора индексов.
+ * Запрос строится тем же кодом, что и выборка {@link AnimalQueryRepository} (условие, сортировка, лимит),
+ * и переводится в SQL транслятором Hibernate без выполнения: соединение с базой для этого не нужно.
+ * План на PostgreSQL - общий план подготовленного оператора, без значений параметров.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnimalQueryExplainer {
+
+    private static final String PREPARED_NAME = "zoo_explain";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseInfo databaseInfo;
+    private final ObjectMapper objectMapper;
+
+    public AnimalQueryPlan explain(Specification<Animal> specification, Sort sort, int limit) {
+        String sql = captureSql(specification, sort, limit);
+        if (!databaseInfo.isPostgres()) {
+            return new AnimalQueryPlan(sql, null, "План доступен только на PostgreSQL");
+        }
+        try {
+            String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> explainGeneric(connection, sql));
+            return new AnimalQueryPlan(sql, objectMapper.readTree(plan), null);
+        } catch (DataAccessException | JsonProcessingException e) {
+            log.warn("Не удалось получить план выборки: {}", e.getMessage());
+            return new AnimalQueryPlan(sql, null, "Не удалось получить план: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Общий план оператора без значений параметров: оператор готовится через PREPARE (параметры $1, $2...
+     * в тексте SQL, драйвер их не связывает), план строится при plan_cache_mode = force_generic_plan,
+     * аргументы EXECUTE - NULL, на общий план они не влияют. Подготовленный оператор и настройка
+     * сеанса снимаются до возврата соединения в пул.
+     */
+    private static String explainGeneric(Connection connection, String sql) throws SQLException {
+        NumberedSql numbered = numberParameters(sql);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PREPARE " + PREPARED_NAME + " AS " + numbered.sql());
+            try {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                String arguments = numbered.parameters() == 0 ? ""
+                        : "(" + String.join(", ", Collections.nCopies(numbered.parameters(), "NULL")) + ")";
+                try (ResultSet resultSet = statement.executeQuery(
+                        "EXPLAIN (FORMAT JSON) EXECUTE " + PREPARED_NAME + arguments)) {
+                    return resultSet.next() ? resultSet.getString(1) : null;
+                }
+            } finally {
+                statement.execute("RESET plan_cache_mode");
+                statement.execute("DEALLOCATE " + PREPARED_NAME);
+            }
+        }
+    }
+
+    /**
+     * SQL выборки так, как его выполнил бы Hibernate: критерий переводится в дерево SQL
+     * и отрисовывается транслятором диалекта, лимит - параметром, как при выполнении
+     */
+    private String captureSql(Specification<Animal> specification, Sort sort, int limit) {
+        Session session = entityManager.unwrap(Session.class);
+        CriteriaQuery<AnimalResponse> criteria =
+                AnimalQueryRepositoryImpl.responseQuery(session.getCriteriaBuilder(), specification, sort);
+        QuerySqmImpl<?> query = session.createQuery(criteria)
+                .setMaxResults(limit)
+                .unwrap(QuerySqmImpl.class);
+
+        SessionFactoryImplementor sessionFactory = session.getSessionFactory().unwrap(SessionFactoryImplementor.class);
+        SqmTranslation<SelectStatement> translation = sessionFactory.getQueryEngine().getSqmTranslatorFactory()
+                .createSelectTranslator((SqmSelectStatement<?>) query.getSqmStatement(), query.getQueryOptions(),
+                        query.getDomainParameterXref(), query.getParameterBindings(), query.getLoadQueryInfluencers(),
+                        sessionFactory, false)
+                .translate();
+        JdbcOperationQuerySelect select = sessionFactory.getJdbcServices().getJdbcEnvironment().getSqlAstTranslatorFactory()
+                .buildSelectTranslator(sessionFactory, translation.getSqlAst())
+                .translate(null, query.getQueryOptions());
+        return select.getSqlString();
+    }
+
+    private record NumberedSql(String sql, int parameters) {
+    }
+
+    /**
+     * Параметры JDBC (?) в нумерованные ($1, $2, ...), как их ждет PREPARE;
+     * знаки вопроса внутри строковых литералов не трогаются
+     */
+    private static NumberedSql numberParameters(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 16);
+        boolean inLiteral = false;
+        int number = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            if (c == '?' && !inLiteral) {
+                result.append('$').append(++number);
+            } else {
+                result.append(c);
+            }
+        }
+        return new NumberedSql(result.toString(), number);
+    }
+}
@@ -0,0 +1,17 @@
+package com.zoo.repository;
+
+import com.zoo.dto.AnimalResponse;
+import com.zoo.model.Animal;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Выборки по {@link Specification} сразу в AnimalResponse, теми же столбцами, что и остальные
+ * чтения {@link AnimalRepository}: JpaSpecificationExecutor отдает только сущности
+ */
+public interface AnimalQueryRepository {
+
+    List<AnimalResponse> findResponses(Specification<Animal> specification, Sort sort, int limit);
+}
@@ -0,0 +1,44 @@
+package com.zoo.repository;
+
+import com.zoo.dto.AnimalResponse;
+import com.zoo.model.Animal;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class AnimalQueryRepositoryImpl implements AnimalQueryRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<AnimalResponse> findResponses(Specification<Animal> specification, Sort sort, int limit) {
+        return entityManager.createQuery(responseQuery(entityManager.getCriteriaBuilder(), specification, sort))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Запрос с конструктором AnimalResponse в SELECT; им же пользуется {@link AnimalQueryExplainer},
+     * чтобы план строился для того же оператора
+     */
+    static CriteriaQuery<AnimalResponse> responseQuery(CriteriaBuilder cb, Specification<Animal> specification, Sort sort) {
+        CriteriaQuery<AnimalResponse> query = cb.createQuery(AnimalResponse.class);
+        Root<Animal> root = query.from(Animal.class);
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return query.select(cb.construct(AnimalResponse.class,
+                        root.get("id"), root.get("name"), root.get("species"), root.get("age"), root.get("version")))
+                .orderBy(QueryUtils.toOrders(sort, root, cb));
+    }
+}
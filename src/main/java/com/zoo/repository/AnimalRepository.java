@@ -1,15 +1,32 @@
 package com.zoo.repository;
 
+import com.zoo.dto.AnimalResponse;
 import com.zoo.model.Animal;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface AnimalRepository extends JpaRepository<Animal, Long>{
+public interface AnimalRepository extends JpaRepository<Animal, Long>, AnimalQueryRepository {
+
+    /**
+     * Выборка для ответов API: только столбцы AnimalResponse, объекты строятся прямо из строк
+     * результата, минуя контекст персистентности (нет снимков для проверки изменений и отсоединения)
+     */
+    String SELECT_RESPONSE = "SELECT new com.zoo.dto.AnimalResponse(a.id, a.name, a.species, a.age, a.version) FROM Animal a";
 
     // Поиск животных по виду
     List<Animal> findBySpeciesContainingIgnoreCase(String species);
@@ -40,7 +57,115 @@ public interface AnimalRepository extends JpaRepository<Animal, Long>{
     @Query("SELECT DISTINCT a.species FROM Animal a ORDER BY a.species")
     List<String> findAllSpecies();
 
+    // Количество животных по виду и возрасту - начальное заполнение гистограммы видов
+    @Query("SELECT a.species AS species, a.age AS age, COUNT(a) AS total FROM Animal a GROUP BY a.species, a.age")
+    List<SpeciesAgeCount> countBySpeciesAndAge();
+
+    // Отпечаток таблицы для проверки актуальности бинарного снимка
+    @Query("SELECT COUNT(a) AS total, MAX(a.id) AS maxId, MAX(a.updatedAt) AS maxUpdatedAt FROM Animal a")
+    TableFingerprint fingerprint();
+
+    // Версия записи для условных запросов без загрузки сущности
+    @Query("SELECT a.version FROM Animal a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
     // Поиск по нескольким видам
     @Query("SELECT a FROM Animal a WHERE a.species IN :speciesList")
     List<Animal> findBySpeciesIn(@Param("speciesList") List<String> speciesList);
+
+    @Query(SELECT_RESPONSE + " WHERE a.id = :id")
+    Optional<AnimalResponse> findResponseById(@Param("id") Long id);
+
+    @Query(SELECT_RESPONSE + " WHERE a.id IN :ids")
+    List<AnimalResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Постраничная выборка по ключу: страница начинается после последнего отданного id (без OFFSET)
+    @Query(SELECT_RESPONSE + " WHERE a.id > :afterId ORDER BY a.id")
+    List<AnimalResponse> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Производные запросы с типом-записью выбирают только ее компоненты (конструктор в JPQL)
+    List<AnimalResponse> findBySpeciesContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String species, Long afterId, Limit limit);
+
+    List<AnimalResponse> findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String name, Long afterId, Limit limit);
+
+    // Постраничные выборки по возрасту упорядочены по (age, id), страница начинается после последней пары
+    @Query(SELECT_RESPONSE + " WHERE a.age < :age " +
+            "AND a.age >= :afterAge AND (a.age > :afterAge OR a.id > :afterId) ORDER BY a.age, a.id")
+    List<AnimalResponse> findYoungerPage(@Param("age") Integer age,
+                                 @Param("afterAge") Integer afterAge,
+                                 @Param("afterId") Long afterId,
+                                 Limit limit);
+
+    @Query(SELECT_RESPONSE + " WHERE a.age > :age " +
+            "AND a.age >= :afterAge AND (a.age > :afterAge OR a.id > :afterId) ORDER BY a.age, a.id")
+    List<AnimalResponse> findOlderPage(@Param("age") Integer age,
+                               @Param("afterAge") Integer afterAge,
+                               @Param("afterId") Long afterId,
+                               Limit limit);
+
+    @Query(SELECT_RESPONSE + " WHERE a.age BETWEEN :minAge AND :maxAge " +
+            "AND a.age >= :afterAge AND (a.age > :afterAge OR a.id > :afterId) ORDER BY a.age, a.id")
+    List<AnimalResponse> findAgeRangePage(@Param("minAge") Integer minAge,
+                                  @Param("maxAge") Integer maxAge,
+                                  @Param("afterAge") Integer afterAge,
+                                  @Param("afterId") Long afterId,
+                                  Limit limit);
+
+    @Query(SELECT_RESPONSE + " WHERE a.species = :species AND a.age BETWEEN :minAge AND :maxAge " +
+            "AND a.age >= :afterAge AND (a.age > :afterAge OR a.id > :afterId) ORDER BY a.age, a.id")
+    List<AnimalResponse> findSpeciesAgeRangePage(@Param("species") String species,
+                                         @Param("minAge") Integer minAge,
+                                         @Param("maxAge") Integer maxAge,
+                                         @Param("afterAge") Integer afterAge,
+                                         @Param("afterId") Long afterId,
+                                         Limit limit);
+
+    // Потоковое чтение всей таблицы курсором с ограниченным fetch size (для выгрузок)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Animal a ORDER BY a.id")
+    Stream<Animal> streamAll();
+
+    // Вся таблица в виде ответов API (потоковая выдача по HTTP, построение индексов в памяти)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_RESPONSE + " ORDER BY a.id")
+    Stream<AnimalResponse> streamAllResponses();
+
+    // Потоковые варианты поисковых запросов (для выдачи по HTTP без сборки списка)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<AnimalResponse> streamBySpeciesContainingIgnoreCase(String species);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<AnimalResponse> streamByNameContainingIgnoreCase(String name);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<AnimalResponse> streamByAgeBetween(Integer minAge, Integer maxAge);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<AnimalResponse> streamByAgeLessThan(Integer age);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<AnimalResponse> streamByAgeGreaterThan(Integer age);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<AnimalResponse> streamBySpeciesAndAgeBetween(String species, Integer minAge, Integer maxAge);
+
+    // Измененные после момента from (инкрементальная выгрузка), по индексу idx_animals_updated_at
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Animal a WHERE a.updatedAt > :from ORDER BY a.id")
+    Stream<Animal> streamChangedAfter(@Param("from") LocalDateTime from);
+
+    // Только столбцы для выборок по возрасту, в порядке индекса idx_animals_age_id
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.id AS id, a.age AS age, a.species AS species FROM Animal a " +
+            "WHERE a.age IS NOT NULL ORDER BY a.age, a.id")
+    Stream<AnimalAgeRow> streamAgeRows();
 }
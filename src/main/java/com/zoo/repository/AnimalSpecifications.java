@@ -0,0 +1,72 @@
+package com.zoo.repository;
+
+import com.zoo.dto.AnimalQuery;
+import com.zoo.model.Animal;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Условия выборки животных для {@link AnimalQueryRepository}.
+ * Из незаданных условий в SQL ничего не попадает: один оператор с WHERE только по заданным полям,
+ * поэтому планировщик может выбрать индекс под конкретную комбинацию.
+ */
+public final class AnimalSpecifications {
+
+    private AnimalSpecifications() {
+    }
+
+    public static Specification<Animal> matching(AnimalQuery query) {
+        return Specification.where(nameContains(query.name()))
+                .and(speciesIn(query.species()))
+                .and(ageBetween(query.minAge(), query.maxAge()))
+                .and(timeWindow("createdAt", query.createdFrom(), query.createdTo()))
+                .and(timeWindow("updatedAt", query.updatedFrom(), query.updatedTo()));
+    }
+
+    public static Specification<Animal> nameContains(String name) {
+        if (name == null) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(name.toLowerCase(Locale.ROOT)) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.<String>get("name")), pattern, '\\');
+    }
+
+    public static Specification<Animal> speciesIn(List<String> species) {
+        if (species == null) {
+            return null;
+        }
+        // Один вид - равенство: так условие совпадает с ведущим столбцом idx_animals_species_age_id
+        if (species.size() == 1) {
+            return (root, query, cb) -> cb.equal(root.get("species"), species.get(0));
+        }
+        return (root, query, cb) -> root.get("species").in(species);
+    }
+
+    public static Specification<Animal> ageBetween(Integer minAge, Integer maxAge) {
+        if (minAge != null && maxAge != null) {
+            return (root, query, cb) -> cb.between(root.<Integer>get("age"), minAge, maxAge);
+        }
+        if (minAge != null) {
+            return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Integer>get("age"), minAge);
+        }
+        if (maxAge != null) {
+            return (root, query, cb) -> cb.lessThanOrEqualTo(root.<Integer>get("age"), maxAge);
+        }
+        return null;
+    }
+
+    private static Specification<Animal> timeWindow(String attribute, LocalDateTime from, LocalDateTime to) {
+        Specification<Animal> lower = from == null ? null
+                : (root, query, cb) -> cb.greaterThanOrEqualTo(root.<LocalDateTime>get(attribute), from);
+        Specification<Animal> upper = to == null ? null
+                : (root, query, cb) -> cb.lessThan(root.<LocalDateTime>get(attribute), to);
+        return Specification.where(lower).and(upper);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
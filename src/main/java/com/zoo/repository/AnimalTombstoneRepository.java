@@ -0,0 +1,24 @@
+package com.zoo.repository;
+
+import com.zoo.model.AnimalTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AnimalTombstoneRepository extends JpaRepository<AnimalTombstone, Long> {
+
+    // Отметки об удалении после момента from в порядке удаления
+    @Query("SELECT t FROM AnimalTombstone t WHERE t.deletedAt > :from ORDER BY t.deletedAt, t.id")
+    List<AnimalTombstone> findDeletedAfter(@Param("from") LocalDateTime from);
+
+    // Отметки, которые уже получили все получатели дельт
+    @Modifying
+    @Query("DELETE FROM AnimalTombstone t WHERE t.deletedAt < :before")
+    int deleteOlderThan(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,29 @@
+package com.zoo.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сведения о подключенной СУБД для выбора специфичных для PostgreSQL путей (COPY, setval)
+ */
+@Component
+@RequiredArgsConstructor
+public class DatabaseInfo {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgres;
+
+    public boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            result = "PostgreSQL".equalsIgnoreCase(product);
+            postgres = result;
+        }
+        return result;
+    }
+}
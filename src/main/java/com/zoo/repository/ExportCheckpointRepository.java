@@ -0,0 +1,16 @@
+package com.zoo.repository;
+
+import com.zoo.model.ExportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ExportCheckpointRepository extends JpaRepository<ExportCheckpoint, String> {
+
+    // Самая старая позиция среди получателей: отметки об удалении до нее больше не нужны
+    @Query("SELECT MIN(c.changedUpTo) FROM ExportCheckpoint c")
+    LocalDateTime findOldestChangedUpTo();
+}
@@ -0,0 +1,13 @@
+package com.zoo.repository;
+
+/**
+ * Строка группировки животных по виду и возрасту
+ */
+public interface SpeciesAgeCount {
+
+    String getSpecies();
+
+    Integer getAge();
+
+    long getTotal();
+}
@@ -0,0 +1,16 @@
+package com.zoo.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Число записей, наибольший id и наибольший updated_at таблицы animals -
+ * по ним проверяется, что снимок таблицы не устарел
+ */
+public interface TableFingerprint {
+
+    long getTotal();
+
+    Long getMaxId();
+
+    LocalDateTime getMaxUpdatedAt();
+}
@@ -0,0 +1,132 @@
+package com.zoo.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zoo.config.BatchInsertProperties;
+import com.zoo.dto.AnimalRequest;
+import com.zoo.dto.AnimalResponse;
+import com.zoo.dto.BatchInsertResult;
+import com.zoo.event.AnimalsCreatedEvent;
+import com.zoo.model.Animal;
+import com.zoo.repository.AnimalRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Пакетная вставка животных из JSON-массива или NDJSON.
+ * Вход читается потоково, каждая запись проверяется отдельно, корректные записи
+ * вставляются пачками JDBC в транзакциях по app.batch.chunk-size записей.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnimalBatchService {
+
+    private final AnimalRepository animalRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final BatchInsertProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BatchInsertResult insertAll(InputStream body) {
+        log.info("Пакетная вставка животных");
+        long started = System.nanoTime();
+        long received = 0;
+        long inserted = 0;
+        long failed = 0;
+        List<BatchInsertResult.ItemError> errors = new ArrayList<>();
+        List<Animal> chunk = new ArrayList<>(properties.getChunkSize());
+
+        try (MappingIterator<AnimalRequest> items = objectMapper.readerFor(AnimalRequest.class).readValues(body)) {
+            while (items.hasNextValue()) {
+                long index = received++;
+                Map<String, String> itemErrors;
+                try {
+                    AnimalRequest request = items.nextValue();
+                    itemErrors = validate(request);
+                    if (itemErrors.isEmpty()) {
+                        chunk.add(new Animal(request.getName(), request.getSpecies(), request.getAge()));
+                    }
+                } catch (JsonMappingException e) {
+                    itemErrors = Map.of("record", "Некорректная запись: " + e.getOriginalMessage());
+                }
+
+                if (!itemErrors.isEmpty()) {
+                    failed++;
+                    addError(errors, index, itemErrors);
+                }
+                if (chunk.size() >= properties.getChunkSize()) {
+                    inserted += insertChunk(chunk);
+                }
+            }
+        } catch (IOException e) {
+            // Поток дальше не разобрать: уже вставленные пачки остаются, остаток входа отбрасывается
+            failed++;
+            addError(errors, received, Map.of("record", "Разбор входных данных прерван: " + e.getMessage()));
+        }
+
+        if (!chunk.isEmpty()) {
+            inserted += insertChunk(chunk);
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        double rowsPerSecond = elapsedMillis > 0 ? inserted * 1000.0 / elapsedMillis : inserted;
+        log.info("Пакетная вставка завершена: получено {}, вставлено {}, отклонено {}, {} мс ({} записей/с)",
+                received, inserted, failed, elapsedMillis, Math.round(rowsPerSecond));
+
+        return new BatchInsertResult(received, inserted, failed, errors, elapsedMillis, rowsPerSecond);
+    }
+
+    private Map<String, String> validate(AnimalRequest request) {
+        if (request == null) {
+            return Map.of("record", "Запись не может быть пустой");
+        }
+        Set<ConstraintViolation<AnimalRequest>> violations = validator.validate(request);
+        Map<String, String> fieldErrors = new LinkedHashMap<>();
+        for (ConstraintViolation<AnimalRequest> violation : violations) {
+            fieldErrors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return fieldErrors;
+    }
+
+    private void addError(List<BatchInsertResult.ItemError> errors, long index, Map<String, String> itemErrors) {
+        if (errors.size() < properties.getMaxReportedErrors()) {
+            errors.add(new BatchInsertResult.ItemError(index, itemErrors));
+        }
+    }
+
+    /**
+     * Вставить пачку в отдельной транзакции. После flush контекст очищается,
+     * чтобы сущности прошлых пачек не копились в памяти.
+     */
+    private int insertChunk(List<Animal> chunk) {
+        int size = chunk.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            animalRepository.saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+            // Одно событие на пачку: слушатели (кэш, индексы, выдача изменений) не обрабатывают каждую запись отдельно
+            eventPublisher.publishEvent(new AnimalsCreatedEvent(
+                    chunk.stream().map(AnimalResponse::fromEntity).toList()));
+        });
+        chunk.clear();
+        return size;
+    }
+}
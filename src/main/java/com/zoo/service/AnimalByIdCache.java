@@ -0,0 +1,53 @@
+package com.zoo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.zoo.config.CacheConfig;
+import com.zoo.dto.AnimalResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+
+/**
+ * Кэш animalById, в котором версия записи не идет назад.
+ * Запись кладется через merge с сравнением version(): обработчики фиксации параллельных изменений
+ * одной записи могут выполниться в обратном порядке, а чтение, начатое до фиксации, может положить
+ * прежнюю строку уже после нее - в обоих случаях более старая версия не заменяет более новую.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnimalByIdCache {
+
+    private final CacheManager cacheManager;
+
+    public AnimalResponse get(Long id) {
+        return (AnimalResponse) nativeCache().getIfPresent(id);
+    }
+
+    /**
+     * Положить запись, если в кэше нет более новой версии; возвращает то, что осталось в кэше
+     */
+    public AnimalResponse putIfNewer(AnimalResponse animal) {
+        return (AnimalResponse) nativeCache().asMap().merge(animal.id(), animal,
+                (cached, fresh) -> version((AnimalResponse) fresh) >= version((AnimalResponse) cached) ? fresh : cached);
+    }
+
+    public void evict(Long id) {
+        nativeCache().invalidate(id);
+    }
+
+    public void clear() {
+        nativeCache().invalidateAll();
+    }
+
+    private static long version(AnimalResponse animal) {
+        return animal.version() != null ? animal.version() : -1;
+    }
+
+    private Cache<Object, Object> nativeCache() {
+        if (cacheManager.getCache(CacheConfig.ANIMAL_BY_ID) instanceof CaffeineCache caffeineCache) {
+            return caffeineCache.getNativeCache();
+        }
+        throw new IllegalStateException("Кэш " + CacheConfig.ANIMAL_BY_ID + " должен быть Caffeine (spring.cache.type=caffeine)");
+    }
+}
@@ -0,0 +1,73 @@
+package com.zoo.service;
+
+import com.zoo.config.CacheConfig;
+import com.zoo.dto.AnimalResponse;
+import com.zoo.event.AnimalChangedEvent;
+import com.zoo.event.AnimalsBulkChangedEvent;
+import com.zoo.event.AnimalsCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * Точечная инвалидация кэша чтений после фиксации изменений.
+ * Затрагиваются только записи, которые изменение действительно могло сделать устаревшими.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnimalCacheInvalidator {
+
+    private static final String SPECIES_LIST_KEY = "all";
+
+    private final CacheManager cacheManager;
+    private final AnimalByIdCache animalByIdCache;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimalChanged(AnimalChangedEvent event) {
+        AnimalResponse before = event.before();
+        AnimalResponse after = event.after();
+
+        switch (event.type()) {
+            // Новую запись в кэш не кладем: ее может никто не прочитать, а место в кэше займет горячая запись
+            case CREATED -> evictSpeciesList();
+            // Обработчики параллельных изменений одной записи могут прийти в обратном порядке:
+            // кладем только версию новее той, что уже в кэше
+            case UPDATED -> {
+                animalByIdCache.putIfNewer(after);
+                if (!Objects.equals(before.species(), after.species())) {
+                    evictSpeciesList();
+                }
+            }
+            case DELETED -> {
+                animalByIdCache.evict(before.id());
+                evictSpeciesList();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimalsCreated(AnimalsCreatedEvent event) {
+        evictSpeciesList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChange(AnimalsBulkChangedEvent event) {
+        log.info("Сброс кэша чтений: {}", event.reason());
+        animalByIdCache.clear();
+        cache(CacheConfig.SPECIES_LIST).clear();
+    }
+
+    private void evictSpeciesList() {
+        cache(CacheConfig.SPECIES_LIST).evict(SPECIES_LIST_KEY);
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), "Кэш не настроен: " + name);
+    }
+}
@@ -0,0 +1,369 @@
+package com.zoo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zoo.config.ChangeFeedProperties;
+import com.zoo.dto.AnimalChange;
+import com.zoo.dto.AnimalResponse;
+import com.zoo.event.AnimalChangedEvent;
+import com.zoo.event.AnimalsBulkChangedEvent;
+import com.zoo.event.AnimalsCreatedEvent;
+import com.zoo.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Выдача изменений животных подписчикам SSE (GET /api/animals/changes).
+ * <p>
+ * События берутся из AnimalChangedEvent и AnimalsBulkChangedEvent после фиксации транзакции
+ * и складываются в кольцевой буфер {@link ChangeFeedRing}; пишущий поток только добавляет событие
+ * и будит рассылку, сам подписчикам ничего не отправляет. Массовое изменение выдается событием
+ * reset: точечных событий по нему нет, клиенту нужно перечитать список. Так же выдается
+ * каждая пачка пакетной вставки.
+ * <p>
+ * Подписчик - это позиция в буфере и асинхронный ответ; пока событий нет, поток он не занимает.
+ * Отправкой занимается небольшой пул: задача подписчика вычитывает из буфера все, что накопилось
+ * после его позиции. Отставший больше чем на maxLag событий или зависший в записи дольше
+ * sendTimeout подписчик отключается, не задерживая остальных и пишущих.
+ * <p>
+ * Id события - момент запуска процесса и номер события. Клиент, переподключаясь
+ * с Last-Event-ID, получает пропущенные события, если они еще в буфере; иначе (буфер ушел вперед,
+ * процесс перезапущен) - reset и дальше события с текущего момента.
+ */
+@Slf4j
+@Component
+public class AnimalChangeFeed {
+
+    public static final String RESET = "reset";
+
+    private static final int SEND_BATCH = 256;
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(5);
+
+    private final ChangeFeedProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry registry;
+    private final ChangeFeedRing ring;
+    private final int maxLag;
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    // Проверка зависших подписчиков, пульс и пробуждение после новых событий
+    private final ScheduledExecutorService dispatcher;
+    private final AtomicBoolean wakePending = new AtomicBoolean();
+
+    public AnimalChangeFeed(ChangeFeedProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.ring = new ChangeFeedRing(properties.getReplayCapacity());
+        this.maxLag = Math.min(properties.getMaxLag(), properties.getReplayCapacity());
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(),
+                Thread.ofPlatform().name("change-feed-", 0).daemon().factory());
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("change-feed-dispatcher").daemon().factory());
+
+        long checkMillis = Math.max(100, Math.min(properties.getHeartbeat().toMillis(),
+                properties.getSendTimeout().toMillis() / 2));
+        dispatcher.scheduleWithFixedDelay(this::checkSubscribers, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("app.changes.subscribers", subscribers, Set::size)
+                .description("Подписчики выдачи изменений")
+                .register(registry);
+    }
+
+    @Order(AnimalTableVersion.LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimalChanged(AnimalChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String type = event.type().name().toLowerCase(Locale.ROOT);
+        AnimalResponse animal = event.after() != null ? event.after() : event.before();
+        publish(type, new AnimalChange(type, event.animalId(), animal));
+    }
+
+    /**
+     * Пачка пакетной вставки выдается одним reset, а не событием на каждую запись:
+     * сериализация и рассылка не растут с размером пачки
+     */
+    @Order(AnimalTableVersion.LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimalsCreated(AnimalsCreatedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        publish(RESET, Map.of("reason", "пакетная вставка " + event.animals().size() + " записей"));
+    }
+
+    @Order(AnimalTableVersion.LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChange(AnimalsBulkChangedEvent event) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        publish(RESET, Map.of("reason", event.reason()));
+    }
+
+    /**
+     * Новый подписчик. lastEventId - id последнего полученного события при переподключении
+     * (заголовок Last-Event-ID), null - только события с текущего момента.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (!properties.isEnabled()) {
+            throw new EntityNotFoundException("Выдача изменений отключена");
+        }
+        if (subscribers.size() >= properties.getMaxSubscribers()) {
+            throw new ServiceOverloadedException("Превышено число подписчиков выдачи изменений", RETRY_AFTER);
+        }
+        SseEmitter emitter = new SseEmitter(properties.getConnectionTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter);
+        resume(subscriber, lastEventId);
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(error -> close(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        log.debug("Новый подписчик выдачи изменений с позиции {}, всего {}", subscriber.cursor, subscribers.size());
+        return emitter;
+    }
+
+    private void publish(String name, Object data) {
+        ring.append(name, toJson(data));
+        Counter.builder("app.changes.events")
+                .description("События, добавленные в выдачу изменений")
+                .tag("type", name)
+                .register(registry)
+                .increment();
+        wakeSubscribers();
+    }
+
+    /**
+     * Начальная позиция подписчика по Last-Event-ID; если продолжить нельзя, первым уйдет reset
+     */
+    private void resume(Subscriber subscriber, String lastEventId) {
+        long last = ring.last();
+        subscriber.cursor = last;
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return;
+        }
+        long after = parseSequence(lastEventId);
+        if (after < 0) {
+            subscriber.resetReason = "неизвестный Last-Event-ID " + lastEventId;
+        } else if (!ring.canResumeAfter(after) || last - after > maxLag) {
+            subscriber.resetReason = "события после " + lastEventId + " уже не хранятся";
+        } else {
+            subscriber.cursor = after;
+        }
+    }
+
+    /**
+     * Отправить подписчику все накопившееся. Выполняется в пуле отправки, для одного подписчика
+     * не более одной задачи одновременно.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            boolean sent = false;
+            if (subscriber.resetReason != null) {
+                send(subscriber, SseEmitter.event()
+                        .id(eventId(subscriber.cursor))
+                        .name(RESET)
+                        .data(toJson(Map.of("reason", subscriber.resetReason))));
+                subscriber.resetReason = null;
+                sent = true;
+            }
+            while (!subscriber.closed) {
+                List<ChangeFeedRing.Entry> batch = ring.last() - subscriber.cursor > maxLag
+                        ? null
+                        : ring.readAfter(subscriber.cursor, SEND_BATCH);
+                if (batch == null) {
+                    // Клиент переподключится с последним полученным id и получит reset или остаток событий
+                    drop(subscriber, "lagging");
+                    subscriber.emitter.complete();
+                    return;
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (ChangeFeedRing.Entry entry : batch) {
+                    send(subscriber, SseEmitter.event()
+                            .id(eventId(entry.sequence()))
+                            .name(entry.name())
+                            .data(entry.data()));
+                    subscriber.cursor = entry.sequence();
+                }
+                sent = true;
+            }
+            if (subscriber.heartbeatDue && !subscriber.closed) {
+                subscriber.heartbeatDue = false;
+                if (!sent) {
+                    send(subscriber, SseEmitter.event().comment(""));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Соединение закрыто клиентом или ответ уже завершен
+            close(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+            if (!subscriber.closed && (subscriber.cursor < ring.last() || subscriber.heartbeatDue)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendStartedNanos = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendStartedNanos = 0;
+            subscriber.lastSentNanos = System.nanoTime();
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.closed || !subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            // Остановка приложения
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    /**
+     * Пробуждение всех подписчиков после новых событий; серия событий дает один проход
+     */
+    private void wakeSubscribers() {
+        if (subscribers.isEmpty() || !wakePending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                wakePending.set(false);
+                subscribers.forEach(this::schedule);
+            });
+        } catch (RejectedExecutionException e) {
+            wakePending.set(false);
+        }
+    }
+
+    private void checkSubscribers() {
+        try {
+            long now = System.nanoTime();
+            long sendTimeout = properties.getSendTimeout().toNanos();
+            long heartbeat = properties.getHeartbeat().toNanos();
+            for (Subscriber subscriber : subscribers) {
+                long started = subscriber.sendStartedNanos;
+                if (started != 0 && now - started > sendTimeout) {
+                    // complete() ждет ту же блокировку, что и зависшая запись: поток отправки
+                    // освободится, когда запись завершится ошибкой, а подписчик больше не обслуживается
+                    drop(subscriber, "stalled");
+                } else if (now - subscriber.lastSentNanos >= heartbeat) {
+                    subscriber.heartbeatDue = true;
+                    schedule(subscriber);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка проверки подписчиков выдачи изменений: {}", e.getMessage(), e);
+        }
+    }
+
+    private void drop(Subscriber subscriber, String reason) {
+        if (close(subscriber)) {
+            log.debug("Подписчик выдачи изменений отключен ({}), позиция {}, последнее событие {}",
+                    reason, subscriber.cursor, ring.last());
+            Counter.builder("app.changes.dropped")
+                    .description("Подписчики, отключенные из-за отставания или зависшей записи")
+                    .tag("reason", reason)
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    private boolean close(Subscriber subscriber) {
+        subscriber.closed = true;
+        return subscribers.remove(subscriber);
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * Номер события из id, выданного этим процессом; -1 для чужого или искаженного id
+     */
+    private long parseSequence(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String toJson(Object data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие выдачи изменений", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            if (close(subscriber) && subscriber.sendStartedNanos == 0) {
+                subscriber.emitter.complete();
+            }
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Номер последнего отправленного события; меняется только задачей отправки
+        private volatile long cursor;
+        // Причина reset, который нужно отправить первым
+        private volatile String resetReason;
+        // Первый проход отправляет комментарий, чтобы клиент сразу получил заголовки ответа
+        private volatile boolean heartbeatDue = true;
+        private volatile boolean closed;
+        private volatile long sendStartedNanos;
+        private volatile long lastSentNanos = System.nanoTime();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
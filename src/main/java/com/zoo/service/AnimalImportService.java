@@ -0,0 +1,321 @@
+package com.zoo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zoo.config.BatchInsertProperties;
+import com.zoo.dto.ImportResult;
+import com.zoo.event.AnimalsBulkChangedEvent;
+import com.zoo.model.Animal;
+import com.zoo.model.AnimalTombstone;
+import com.zoo.repository.AnimalIdSequence;
+import com.zoo.repository.AnimalTombstoneRepository;
+import com.zoo.repository.DatabaseInfo;
+import com.zoo.service.export.SnapshotReader;
+import com.zoo.service.importer.AnimalRowReader;
+import com.zoo.service.importer.CsvAnimalReader;
+import com.zoo.service.importer.JsonAnimalReader;
+import com.zoo.service.importer.SnapshotAnimalReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Загрузка файлов, созданных экспортом (JSON, CSV и бинарный снимок), обратно в таблицу animals.
+ * Файл читается потоково. На PostgreSQL записи идут через COPY во временную таблицу
+ * и переносятся в animals одним INSERT ... ON CONFLICT, на других СУБД - пакетными INSERT/UPDATE.
+ * Id и версии из файла сохраняются; при upsert существующие записи перезаписываются со сдвигом
+ * версии, иначе пропускаются. Вся загрузка - одна транзакция; ход загрузки виден через
+ * задания /api/animals/import/jobs (ImportJobService).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnimalImportService {
+
+    // row_no нумерует строки в порядке COPY: по нему из повторов одного id выбирается последний в файле
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMP TABLE animals_import (row_no bigserial, id bigint, name varchar(100), species varchar(100), " +
+                    "age integer, created_at timestamp(6), updated_at timestamp(6), version bigint) ON COMMIT DROP";
+
+    private static final String COPY_SQL =
+            "COPY animals_import (id, name, species, age, created_at, updated_at, version) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_STAGING_SQL =
+            "INSERT INTO animals (id, name, species, age, created_at, updated_at, version) " +
+                    "SELECT DISTINCT ON (id) id, name, species, age, " +
+                    "COALESCE(created_at, now()), COALESCE(updated_at, now()), COALESCE(version, 0) " +
+                    "FROM animals_import ORDER BY id, row_no DESC ";
+
+    private static final String ON_CONFLICT_UPDATE =
+            "ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, species = EXCLUDED.species, " +
+                    "age = EXCLUDED.age, updated_at = EXCLUDED.updated_at, version = animals.version + 1";
+
+    private static final String ON_CONFLICT_SKIP = "ON CONFLICT (id) DO NOTHING";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO animals (id, name, species, age, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE animals SET name = ?, species = ?, age = ?, updated_at = ?, version = version + 1 WHERE id = ?";
+
+    private final FileStorageService fileStorageService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final DatabaseInfo databaseInfo;
+    private final AnimalIdSequence animalIdSequence;
+    private final AnimalTombstoneRepository tombstoneRepository;
+    private final BatchInsertProperties batchProperties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.import.progress-interval:100000}")
+    private long progressInterval;
+
+    public ImportResult importFile(String filename, boolean upsert) {
+        return importFile(filename, upsert, rows -> { });
+    }
+
+    /**
+     * Загрузить файл выгрузки в одной транзакции.
+     * progress получает число прочитанных записей после каждой записи; в лог оно пишется
+     * каждые app.import.progress-interval записей.
+     */
+    public ImportResult importFile(String filename, boolean upsert, LongConsumer progress) {
+        Path file = fileStorageService.resolveStoredFile(filename);
+        boolean copy = databaseInfo.isPostgres();
+        log.info("Загрузка файла {} ({}, upsert={})", filename, copy ? "COPY" : "BATCH", upsert);
+
+        long started = System.nanoTime();
+        ImportCounters counters = new ImportCounters(filename, progress);
+        Long written = transactionTemplate.execute(status -> {
+            try (AnimalRowReader reader = openReader(file)) {
+                // Даты изменения приходят из файла и могут быть в прошлом: дельты начнутся с полной выгрузки
+                tombstoneRepository.save(AnimalTombstone.reset(LocalDateTime.now()));
+                return copy ? copyRows(reader, upsert, counters) : batchRows(reader, upsert, counters);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось прочитать файл " + filename, e);
+            }
+        });
+
+        // Id пришли из файла, последовательность должна начинать выдачу после них
+        animalIdSequence.align();
+        eventPublisher.publishEvent(new AnimalsBulkChangedEvent("загрузка файла " + filename));
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Файл {} загружен: прочитано {}, отброшено {}, записано {}, {} мс",
+                filename, counters.read, counters.skipped, written, elapsedMillis);
+        return new ImportResult(filename, copy ? "COPY" : "BATCH", upsert,
+                counters.read, counters.skipped, written != null ? written : 0, elapsedMillis);
+    }
+
+    private AnimalRowReader openReader(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".json")) {
+            return new JsonAnimalReader(objectMapper, new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+        }
+        if (name.endsWith(".csv")) {
+            return new CsvAnimalReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+        }
+        if (name.endsWith(".zsnap")) {
+            return new SnapshotAnimalReader(SnapshotReader.open(file));
+        }
+        throw new IllegalArgumentException("Загрузка поддерживается только для файлов .json, .csv и .zsnap: " + file.getFileName());
+    }
+
+    /**
+     * Следующая корректная запись; некорректные пропускаются и учитываются в счетчике
+     */
+    private Animal nextValid(AnimalRowReader reader, ImportCounters counters) throws IOException {
+        while (true) {
+            Animal animal;
+            try {
+                animal = reader.next();
+            } catch (IllegalArgumentException e) {
+                counters.skip(e.getMessage());
+                continue;
+            }
+            if (animal == null) {
+                return null;
+            }
+            if (animal.getId() == null || isBlank(animal.getName()) || isBlank(animal.getSpecies())) {
+                counters.skip("Запись без id, имени или вида");
+                continue;
+            }
+            counters.read();
+            return animal;
+        }
+    }
+
+    private long copyRows(AnimalRowReader reader, boolean upsert, ImportCounters counters) {
+        jdbcTemplate.execute(CREATE_STAGING_SQL);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (Writer out = new OutputStreamWriter(
+                    new PGCopyOutputStream(pgConnection, COPY_SQL, 64 * 1024), StandardCharsets.UTF_8)) {
+                Animal animal;
+                while ((animal = nextValid(reader, counters)) != null) {
+                    writeCopyRow(out, animal);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+        return jdbcTemplate.update(MERGE_STAGING_SQL + (upsert ? ON_CONFLICT_UPDATE : ON_CONFLICT_SKIP));
+    }
+
+    private static void writeCopyRow(Writer out, Animal animal) throws IOException {
+        out.write(Long.toString(animal.getId()));
+        out.write(',');
+        writeQuoted(out, animal.getName());
+        out.write(',');
+        writeQuoted(out, animal.getSpecies());
+        out.write(',');
+        if (animal.getAge() != null) {
+            out.write(Integer.toString(animal.getAge()));
+        }
+        out.write(',');
+        if (animal.getCreatedAt() != null) {
+            out.write(animal.getCreatedAt().toString());
+        }
+        out.write(',');
+        if (animal.getUpdatedAt() != null) {
+            out.write(animal.getUpdatedAt().toString());
+        }
+        out.write(',');
+        if (animal.getVersion() != null) {
+            out.write(Long.toString(animal.getVersion()));
+        }
+        out.write('\n');
+    }
+
+    private static void writeQuoted(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private long batchRows(AnimalRowReader reader, boolean upsert, ImportCounters counters) throws IOException {
+        long written = 0;
+        List<Animal> chunk = new ArrayList<>(batchProperties.getChunkSize());
+        Animal animal;
+        while ((animal = nextValid(reader, counters)) != null) {
+            chunk.add(animal);
+            if (chunk.size() >= batchProperties.getChunkSize()) {
+                written += writeChunk(chunk, upsert);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            written += writeChunk(chunk, upsert);
+        }
+        return written;
+    }
+
+    private long writeChunk(List<Animal> chunk, boolean upsert) {
+        // Повторы id внутри пачки: побеждает последняя запись, как и в DISTINCT ON ... row_no DESC на пути COPY.
+        // Повтор из следующей пачки при upsert перезаписывает запись, без upsert - пропускается, как существующая
+        Map<Long, Animal> byId = new LinkedHashMap<>();
+        for (Animal animal : chunk) {
+            byId.put(animal.getId(), animal);
+        }
+
+        String placeholders = String.join(",", Collections.nCopies(byId.size(), "?"));
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM animals WHERE id IN (" + placeholders + ")", Long.class, byId.keySet().toArray()));
+
+        List<Animal> toInsert = new ArrayList<>();
+        List<Animal> toUpdate = new ArrayList<>();
+        for (Animal animal : byId.values()) {
+            (existing.contains(animal.getId()) ? toUpdate : toInsert).add(animal);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (!toInsert.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, toInsert, toInsert.size(), (ps, animal) -> {
+                ps.setLong(1, animal.getId());
+                ps.setString(2, animal.getName());
+                ps.setString(3, animal.getSpecies());
+                ps.setObject(4, animal.getAge());
+                ps.setTimestamp(5, animal.getCreatedAt() != null ? Timestamp.valueOf(animal.getCreatedAt()) : now);
+                ps.setTimestamp(6, animal.getUpdatedAt() != null ? Timestamp.valueOf(animal.getUpdatedAt()) : now);
+                ps.setLong(7, animal.getVersion() != null ? animal.getVersion() : 0);
+            });
+        }
+        if (upsert && !toUpdate.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, toUpdate, toUpdate.size(), (ps, animal) -> {
+                ps.setString(1, animal.getName());
+                ps.setString(2, animal.getSpecies());
+                ps.setObject(3, animal.getAge());
+                ps.setTimestamp(4, animal.getUpdatedAt() != null ? Timestamp.valueOf(animal.getUpdatedAt()) : now);
+                ps.setLong(5, animal.getId());
+            });
+        }
+        return toInsert.size() + (upsert ? toUpdate.size() : 0);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Счетчики одной загрузки и периодический отчет о прогрессе
+     */
+    private final class ImportCounters {
+
+        private final String filename;
+        private final LongConsumer progress;
+        private long read;
+        private long skipped;
+
+        private ImportCounters(String filename, LongConsumer progress) {
+            this.filename = filename;
+            this.progress = progress;
+        }
+
+        void read() {
+            read++;
+            progress.accept(read);
+            if (progressInterval > 0 && read % progressInterval == 0) {
+                log.info("Загрузка {}: прочитано {} записей", filename, read);
+            }
+        }
+
+        void skip(String reason) {
+            skipped++;
+            log.debug("Загрузка {}: запись пропущена: {}", filename, reason);
+        }
+    }
+}
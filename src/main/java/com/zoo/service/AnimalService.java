@@ -1,19 +1,64 @@
 package com.zoo.service;
 
+import com.zoo.config.CacheConfig;
+import com.zoo.config.PaginationProperties;
 import com.zoo.service.FileStorageService;
+import com.zoo.dto.AnimalBulkUpdateRequest;
+import com.zoo.dto.AnimalFilter;
+import com.zoo.dto.AnimalPage;
+import com.zoo.dto.AnimalPatchRequest;
+import com.zoo.dto.AnimalQuery;
+import com.zoo.dto.AnimalQueryPlan;
 import com.zoo.dto.AnimalRequest;
 import com.zoo.dto.AnimalResponse;
+import com.zoo.dto.BulkChangeResult;
+import com.zoo.dto.ExportFilePage;
+import com.zoo.dto.PageCursor;
+import com.zoo.dto.SpeciesStatsResponse;
+import com.zoo.event.AnimalChangedEvent;
+import com.zoo.event.AnimalsBulkChangedEvent;
+import com.zoo.exception.PreconditionFailedException;
+import com.zoo.exception.ServiceOverloadedException;
+import com.zoo.index.AgeColumnIndex;
+import com.zoo.index.AgeMatches;
+import com.zoo.index.AnimalSearchIndex;
+import com.zoo.index.SpeciesHistogram;
+import com.zoo.metrics.ExportMetrics;
 import com.zoo.model.Animal;
+import com.zoo.model.AnimalTombstone;
+import com.zoo.repository.AnimalBulkOperations;
+import com.zoo.repository.AnimalQueryExplainer;
 import com.zoo.repository.AnimalRepository;
+import com.zoo.repository.AnimalSpecifications;
+import com.zoo.repository.AnimalTombstoneRepository;
+import com.zoo.repository.DatabaseInfo;
+import com.zoo.service.export.ExportFormat;
+import com.zoo.service.export.ExportProgress;
+import com.zoo.service.export.StoredFile;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.core.io.Resource;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,8 +66,23 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class AnimalService {
 
+    private static final Duration DELETE_ALL_RETRY_AFTER = Duration.ofSeconds(10);
+
     private final AnimalRepository animalRepository;
+    private final AnimalTombstoneRepository tombstoneRepository;
+    private final AnimalBulkOperations bulkOperations;
+    private final AnimalQueryExplainer queryExplainer;
+    private final DatabaseInfo databaseInfo;
     private final FileStorageService fileStorageService;
+    private final EntityManager entityManager;
+    private final PaginationProperties pagination;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AnimalSearchIndex searchIndex;
+    private final SpeciesHistogram speciesHistogram;
+    private final AgeColumnIndex ageIndex;
+    private final AnimalTableVersion tableVersion;
+    private final AnimalByIdCache animalByIdCache;
+    private final ExportMetrics exportMetrics;
 
     @Transactional
     public AnimalResponse addAnimal(AnimalRequest request) {
@@ -36,142 +96,487 @@ public class AnimalService {
         Animal savedAnimal = animalRepository.save(animal);
         log.info("Животное добавлено с ID: {}", savedAnimal.getId());
 
-        return AnimalResponse.fromEntity(savedAnimal);
+        AnimalResponse response = AnimalResponse.fromEntity(savedAnimal);
+        eventPublisher.publishEvent(AnimalChangedEvent.created(response));
+        return response;
     }
 
-    public List<AnimalResponse> getAllAnimals() {
+    public AnimalPage getAllAnimals(String cursor, Integer limit) {
         log.info("Получение списка всех животных");
-        return animalRepository.findAll()
-                .stream()
-                .map(AnimalResponse::fromEntity)
-                .collect(Collectors.toList());
+        int size = pagination.resolveSize(limit);
+        PageCursor after = PageCursor.decodeById(cursor);
+        return toPage(animalRepository.findPageAfter(after.id(), Limit.of(size + 1)), size, AnimalService::idCursor);
+    }
+
+    /**
+     * Передать всех животных получателю по одной записи, не собирая список в памяти.
+     * Курсор открыт, пока идет вызов, поэтому метод должен вызываться через прокси сервиса.
+     */
+    public long streamAllAnimals(Consumer<AnimalResponse> consumer) {
+        log.info("Потоковая выдача всех животных");
+        return forEach(animalRepository.streamAllResponses(), consumer);
+    }
+
+    public long streamAnimalsBySpecies(String species, Consumer<AnimalResponse> consumer) {
+        log.info("Потоковая выдача животных по виду: {}", species);
+        return forEach(animalRepository.streamBySpeciesContainingIgnoreCase(species), consumer);
+    }
+
+    public long streamAnimalsByName(String name, Consumer<AnimalResponse> consumer) {
+        log.info("Потоковая выдача животных по имени: {}", name);
+        return forEach(animalRepository.streamByNameContainingIgnoreCase(name), consumer);
+    }
+
+    public long streamAnimalsByAgeRange(Integer minAge, Integer maxAge, Consumer<AnimalResponse> consumer) {
+        log.info("Потоковая выдача животных в возрасте от {} до {} лет", minAge, maxAge);
+        return forEach(animalRepository.streamByAgeBetween(minAge, maxAge), consumer);
+    }
+
+    public long streamYoungerAnimals(Integer age, Consumer<AnimalResponse> consumer) {
+        log.info("Потоковая выдача животных младше {} лет", age);
+        return forEach(animalRepository.streamByAgeLessThan(age), consumer);
     }
 
-    public String saveAllAnimalsToJson() {
-        List<Animal> animals = animalRepository.findAll();
-        return fileStorageService.saveAnimalsToJson(animals);
+    public long streamOlderAnimals(Integer age, Consumer<AnimalResponse> consumer) {
+        log.info("Потоковая выдача животных старше {} лет", age);
+        return forEach(animalRepository.streamByAgeGreaterThan(age), consumer);
     }
 
-    public String saveAllAnimalsToCsv() {
-        List<Animal> animals = animalRepository.findAll();
-        return fileStorageService.saveAnimalsToCsv(animals);
+    public long streamAnimalsBySpeciesAndAgeRange(String species, Integer minAge, Integer maxAge,
+                                                  Consumer<AnimalResponse> consumer) {
+        log.info("Потоковая выдача животных вида {} в возрасте от {} до {} лет", species, minAge, maxAge);
+        return forEach(animalRepository.streamBySpeciesAndAgeBetween(species, minAge, maxAge), consumer);
     }
 
-    public String saveAllAnimalsToTxt() {
-        List<Animal> animals = animalRepository.findAll();
-        return fileStorageService.saveAnimalsToTxt(animals);
+    // Строки приходят готовыми ответами и в контекст персистентности не попадают, отсоединять нечего
+    private static long forEach(Stream<AnimalResponse> animals, Consumer<AnimalResponse> consumer) {
+        long count = 0;
+        try (animals) {
+            Iterator<AnimalResponse> iterator = animals.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Выгрузить всех животных в файл; возвращает путь к файлу
+     */
+    public String saveAllAnimals(ExportFormat format, ExportProgress progress) {
+        log.info("Выгрузка всех животных в формате {}", format);
+        // Для TXT количество нужно до записей, в заголовке файла
+        long total = format == ExportFormat.TXT ? animalRepository.count() : 0;
+        ExportMetrics.Meter meter = exportMetrics.start(format.name().toLowerCase(), progress);
+        try (Stream<Animal> animals = streamAllDetached()) {
+            String file = switch (format) {
+                case JSON -> fileStorageService.saveAnimalsToJson(animals, meter);
+                case CSV -> fileStorageService.saveAnimalsToCsv(animals, meter);
+                case TXT -> fileStorageService.saveAnimalsToTxt(animals, total, meter);
+                case SNAPSHOT -> fileStorageService.saveAnimalsToSnapshot(animals, meter);
+            };
+            meter.success();
+            return file;
+        } catch (RuntimeException e) {
+            meter.failure();
+            throw e;
+        }
     }
 
-    public List<String> getSavedFiles() {
-        return fileStorageService.getSavedFiles();
+    /**
+     * Поток всех животных курсором. Каждая запись отсоединяется от контекста персистентности
+     * сразу после чтения, чтобы контекст не рос вместе с таблицей.
+     */
+    private Stream<Animal> streamAllDetached() {
+        return animalRepository.streamAll().peek(entityManager::detach);
     }
 
-    public Resource getFileAsResource(String filename) {
-        return fileStorageService.loadFileAsResource(filename);
+    public ExportFilePage getSavedFiles(String format, String nameContains, String cursor, Integer limit) {
+        return fileStorageService.getSavedFiles(format, nameContains, cursor, pagination.resolveSize(limit));
     }
 
-    public boolean fileExists(String filename) {
-        return fileStorageService.fileExists(filename);
+    public Optional<StoredFile> findStoredFile(String filename, boolean acceptGzip) {
+        return fileStorageService.findStoredFile(filename, acceptGzip);
     }
 
+    /**
+     * Запись из кэша animalById, иначе из базы. Кэш заполняется через {@link AnimalByIdCache#putIfNewer},
+     * а не @Cacheable: строка, прочитанная до фиксации изменения, не должна заменить более новую версию.
+     * Транзакция сервиса не открывается: попадание в кэш не занимает соединение с базой.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public AnimalResponse getAnimalById(Long id) {
+        return getAnimalById(id, -1);
+    }
+
+    /**
+     * То же, но не старее версии minVersion, прочитанной из базы: пока обработчик фиксации не обновил
+     * кэш, в нем лежит прежняя версия, и ее нельзя отдать с ETag новой
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public AnimalResponse getAnimalById(Long id, long minVersion) {
+        AnimalResponse cached = animalByIdCache.get(id);
+        if (cached != null && cached.version() != null && cached.version() >= minVersion) {
+            return cached;
+        }
         log.info("Поиск животного по ID: {}", id);
-        Animal animal = animalRepository.findById(id)
+        AnimalResponse animal = animalRepository.findResponseById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Животное с ID " + id + " не найдено"));
-        return AnimalResponse.fromEntity(animal);
+        return animalByIdCache.putIfNewer(animal);
     }
 
-    public List<AnimalResponse> getAnimalsBySpecies(String species) {
+    /**
+     * Версия животного для проверки If-None-Match: запрос одного столбца по первичному ключу,
+     * без загрузки сущности. Кэш чтений не используется: до обработки фиксации в нем может лежать
+     * прежняя версия, и клиент с устаревшим ETag получил бы 304
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public long getAnimalVersion(Long id) {
+        return animalRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Животное с ID " + id + " не найдено"));
+    }
+
+    /**
+     * Версия таблицы для ETag списков, см. {@link AnimalTableVersion}
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public String getTableVersion() {
+        return tableVersion.current();
+    }
+
+    public AnimalPage getAnimalsBySpecies(String species, String cursor, Integer limit) {
         log.info("Поиск животных по виду: {}", species);
-        return animalRepository.findBySpeciesContainingIgnoreCase(species)
-                .stream()
-                .map(AnimalResponse::fromEntity)
-                .collect(Collectors.toList());
+        int size = pagination.resolveSize(limit);
+        PageCursor after = PageCursor.decodeById(cursor);
+        if (searchIndex.isReady()) {
+            return toPage(searchIndex.searchBySpecies(species, after.id(), size + 1), size, AnimalService::idCursor);
+        }
+        return toPage(animalRepository.findBySpeciesContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                species, after.id(), Limit.of(size + 1)), size, AnimalService::idCursor);
     }
 
-    public List<AnimalResponse> getAnimalsByName(String name) {
+    public AnimalPage getAnimalsByName(String name, String cursor, Integer limit) {
         log.info("Поиск животных по имени: {}", name);
-        return animalRepository.findByNameContainingIgnoreCase(name)
-                .stream()
-                .map(AnimalResponse::fromEntity)
-                .collect(Collectors.toList());
+        int size = pagination.resolveSize(limit);
+        PageCursor after = PageCursor.decodeById(cursor);
+        if (searchIndex.isReady()) {
+            return toPage(searchIndex.searchByName(name, after.id(), size + 1), size, AnimalService::idCursor);
+        }
+        return toPage(animalRepository.findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                name, after.id(), Limit.of(size + 1)), size, AnimalService::idCursor);
     }
 
-    public List<AnimalResponse> getYoungerAnimals(Integer age) {
+    public AnimalPage getYoungerAnimals(Integer age, String cursor, Integer limit) {
         log.info("Поиск животных младше {} лет", age);
-        return animalRepository.findByAgeLessThan(age)
-                .stream()
-                .map(AnimalResponse::fromEntity)
-                .collect(Collectors.toList());
+        int size = pagination.resolveSize(limit);
+        PageCursor after = PageCursor.decodeByAge(cursor);
+        AgeMatches matches = ageIndex.find(null, Integer.MIN_VALUE, age - 1L, after, size + 1);
+        if (matches != null) {
+            return toPageByAge(matches, size);
+        }
+        return toPageByAge(animalRepository.findYoungerPage(
+                age, after.age(), after.id(), Limit.of(size + 1)), size);
     }
 
-    public List<AnimalResponse> getOlderAnimals(Integer age) {
+    public AnimalPage getOlderAnimals(Integer age, String cursor, Integer limit) {
         log.info("Поиск животных старше {} лет", age);
-        return animalRepository.findByAgeGreaterThan(age)
-                .stream()
-                .map(AnimalResponse::fromEntity)
-                .collect(Collectors.toList());
+        int size = pagination.resolveSize(limit);
+        PageCursor after = PageCursor.decodeByAge(cursor);
+        AgeMatches matches = ageIndex.find(null, age + 1L, Integer.MAX_VALUE, after, size + 1);
+        if (matches != null) {
+            return toPageByAge(matches, size);
+        }
+        return toPageByAge(animalRepository.findOlderPage(
+                age, after.age(), after.id(), Limit.of(size + 1)), size);
     }
 
-    public List<AnimalResponse> getAnimalsByAgeRange(Integer minAge, Integer maxAge) {
+    public AnimalPage getAnimalsByAgeRange(Integer minAge, Integer maxAge, String cursor, Integer limit) {
         log.info("Поиск животных в возрасте от {} до {} лет", minAge, maxAge);
-        return animalRepository.findByAgeBetween(minAge, maxAge)
-                .stream()
-                .map(AnimalResponse::fromEntity)
-                .collect(Collectors.toList());
+        int size = pagination.resolveSize(limit);
+        PageCursor after = PageCursor.decodeByAge(cursor);
+        AgeMatches matches = ageIndex.find(null, minAge, maxAge, after, size + 1);
+        if (matches != null) {
+            return toPageByAge(matches, size);
+        }
+        return toPageByAge(animalRepository.findAgeRangePage(
+                minAge, maxAge, after.age(), after.id(), Limit.of(size + 1)), size);
     }
 
-    public List<AnimalResponse> getAnimalsBySpeciesAndAgeRange(String species, Integer minAge, Integer maxAge) {
+    public AnimalPage getAnimalsBySpeciesAndAgeRange(String species, Integer minAge, Integer maxAge,
+                                                     String cursor, Integer limit) {
         log.info("Поиск животных вида {} в возрасте от {} до {} лет", species, minAge, maxAge);
-        return animalRepository.findBySpeciesAndAgeBetween(species, minAge, maxAge)
-                .stream()
-                .map(AnimalResponse::fromEntity)
-                .collect(Collectors.toList());
+        int size = pagination.resolveSize(limit);
+        PageCursor after = PageCursor.decodeByAge(cursor);
+        AgeMatches matches = ageIndex.find(species, minAge, maxAge, after, size + 1);
+        if (matches != null) {
+            return toPageByAge(matches, size);
+        }
+        return toPageByAge(animalRepository.findSpeciesAgeRangePage(
+                species, minAge, maxAge, after.age(), after.id(), Limit.of(size + 1)), size);
     }
 
+    /**
+     * Выборка по любой комбинации условий одним оператором SQL; limit ограничен app.pagination.max-size
+     */
+    public List<AnimalResponse> queryAnimals(AnimalQuery query, Integer limit) {
+        query.validate();
+        log.info("Выборка животных по условиям: {}", query);
+        int size = pagination.resolveSize(limit);
+        // Без подсчета общего числа строк, который добавил бы findAll(spec, pageable)
+        return animalRepository.findResponses(AnimalSpecifications.matching(query), query.toSort(), size);
+    }
+
+    /**
+     * SQL и план выборки queryAnimals для тех же условий; сама выборка не выполняется.
+     * Без транзакции: SQL строится без соединения, а неудачный EXPLAIN не должен прерывать транзакцию запроса
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public AnimalQueryPlan explainQuery(AnimalQuery query, Integer limit) {
+        query.validate();
+        log.info("План выборки животных по условиям: {}", query);
+        return queryExplainer.explain(AnimalSpecifications.matching(query), query.toSort(), pagination.resolveSize(limit));
+    }
+
+    /**
+     * Собрать страницу из выборки размером size + 1: лишняя запись только сигнализирует,
+     * что следующая страница есть, и в ответ не попадает
+     */
+    private AnimalPage toPage(List<AnimalResponse> rows, int size, Function<AnimalResponse, PageCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<AnimalResponse> items = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(items.get(size - 1)).encode() : null;
+        return new AnimalPage(items, nextCursor);
+    }
+
+    private AnimalPage toPageByAge(List<AnimalResponse> rows, int size) {
+        return toPage(rows, size, AnimalService::ageCursor);
+    }
+
+    /**
+     * Страница по результату столбцового индекса: из базы читаются только животные страницы.
+     * Наличие следующей страницы и ее позиция берутся из индекса, а не из прочитанных строк,
+     * чтобы животное, удаленное между поиском и чтением, не обрывало выдачу.
+     */
+    private AnimalPage toPageByAge(AgeMatches matches, int size) {
+        int count = Math.min(matches.size(), size);
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(matches.ids()[i]);
+        }
+        Map<Long, AnimalResponse> byId = new HashMap<>();
+        for (AnimalResponse animal : animalRepository.findResponsesByIdIn(ids)) {
+            byId.put(animal.id(), animal);
+        }
+
+        List<AnimalResponse> items = new ArrayList<>(count);
+        for (Long id : ids) {
+            AnimalResponse animal = byId.get(id);
+            if (animal != null) {
+                items.add(animal);
+            }
+        }
+        String nextCursor = matches.size() > size
+                ? PageCursor.afterAge(matches.ages()[size - 1], matches.ids()[size - 1]).encode()
+                : null;
+        return new AnimalPage(items, nextCursor);
+    }
+
+    private static PageCursor idCursor(AnimalResponse animal) {
+        return PageCursor.afterId(animal.id());
+    }
+
+    private static PageCursor ageCursor(AnimalResponse animal) {
+        return PageCursor.afterAge(animal.age(), animal.id());
+    }
+
+    @Cacheable(cacheNames = CacheConfig.SPECIES_LIST, key = "'all'")
     public List<String> getAllSpecies() {
         log.info("Получение списка всех видов животных");
         return animalRepository.findAllSpecies();
     }
 
+    // Транзакция не нужна: счетчик читается из гистограммы, запрос к базе идет только до ее загрузки
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Long getCountBySpecies(String species) {
         log.info("Подсчет количества животных вида: {}", species);
-        return animalRepository.countBySpecies(species);
+        return speciesHistogram.count(species);
+    }
+
+    /**
+     * Количество животных по всем видам, при withAge - с минимальным, максимальным и средним возрастом
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<SpeciesStatsResponse> getSpeciesStats(boolean withAge) {
+        log.info("Получение статистики по видам (возраст: {})", withAge);
+        return speciesHistogram.stats(withAge);
     }
 
+    /**
+     * Обновить животное. expectedVersions - версии из If-Match (null - без условия): если текущая
+     * версия в них не входит, изменение отклоняется.
+     */
     @Transactional
-    public AnimalResponse updateAnimal(Long id, AnimalRequest request) {
+    public AnimalResponse updateAnimal(Long id, AnimalRequest request, Set<Long> expectedVersions) {
         log.info("Обновление информации о животном с ID: {}", id);
+        return modify(id, request.getName(), request.getSpecies(), request.getAge(), expectedVersions);
+    }
 
-        Animal animal = animalRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Животное с ID " + id + " не найдено"));
-
-        animal.setName(request.getName());
-        animal.setSpecies(request.getSpecies());
-        animal.setAge(request.getAge());
+    /**
+     * Изменить только переданные поля животного; условие expectedVersions - как в updateAnimal
+     */
+    @Transactional
+    public AnimalResponse patchAnimal(Long id, AnimalPatchRequest request, Set<Long> expectedVersions) {
+        log.info("Частичное изменение животного с ID: {}", id);
+        if (request.isEmpty()) {
+            throw new IllegalArgumentException("Не передано ни одного поля для изменения");
+        }
+        return modify(id, request.name(), request.species(), request.age(), expectedVersions);
+    }
 
-        Animal updatedAnimal = animalRepository.save(animal);
+    /**
+     * Изменение одной записи. На PostgreSQL - один UPDATE ... RETURNING с проверкой версии
+     * в условии, без предварительного чтения. На других СУБД запись читается через JPA,
+     * а UPDATE проверяет версию, поэтому параллельное изменение той же записи завершается
+     * OptimisticLockingFailureException, а не перезаписывается молча.
+     */
+    private AnimalResponse modify(Long id, String name, String species, Integer age, Set<Long> expectedVersions) {
+        AnimalResponse before;
+        AnimalResponse after;
+        if (databaseInfo.isPostgres()) {
+            AnimalBulkOperations.RowChange change = bulkOperations
+                    .updateById(id, name, species, age, expectedVersions, LocalDateTime.now())
+                    .orElseThrow(() -> notUpdated(id, expectedVersions));
+            before = AnimalResponse.fromEntity(change.before());
+            after = AnimalResponse.fromEntity(change.after());
+        } else {
+            Animal animal = animalRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Животное с ID " + id + " не найдено"));
+            if (expectedVersions != null && !expectedVersions.contains(animal.getVersion())) {
+                throw versionMismatch(id, animal.getVersion());
+            }
+            before = AnimalResponse.fromEntity(animal);
+            if (name != null) {
+                animal.setName(name);
+            }
+            if (species != null) {
+                animal.setSpecies(species);
+            }
+            if (age != null) {
+                animal.setAge(age);
+            }
+            // Версия увеличивается при сбросе изменений; ответ и кэш должны получить уже новую
+            after = AnimalResponse.fromEntity(animalRepository.saveAndFlush(animal));
+        }
         log.info("Информация о животном с ID {} обновлена", id);
+        eventPublisher.publishEvent(AnimalChangedEvent.updated(before, after));
+        return after;
+    }
+
+    /**
+     * Причина, по которой UPDATE с условием на версию не затронул запись: ее нет или версия другая
+     */
+    private RuntimeException notUpdated(Long id, Set<Long> expectedVersions) {
+        Optional<Long> current = expectedVersions != null ? animalRepository.findVersionById(id) : Optional.empty();
+        if (current.isPresent()) {
+            return versionMismatch(id, current.get());
+        }
+        return new EntityNotFoundException("Животное с ID " + id + " не найдено");
+    }
 
-        return AnimalResponse.fromEntity(updatedAnimal);
+    private static PreconditionFailedException versionMismatch(Long id, long currentVersion) {
+        return new PreconditionFailedException("Животное с ID " + id + " изменено, текущая версия: " + currentVersion);
     }
 
     @Transactional
     public void deleteAnimal(Long id) {
         log.info("Удаление животного с ID: {}", id);
 
-        if (!animalRepository.existsById(id)) {
-            throw new EntityNotFoundException("Животное с ID " + id + " не найдено");
+        Animal animal;
+        if (databaseInfo.isPostgres()) {
+            // Один оператор: удаление, отметка для дельт и прежнее состояние для событий
+            animal = bulkOperations.deleteById(id, LocalDateTime.now())
+                    .orElseThrow(() -> new EntityNotFoundException("Животное с ID " + id + " не найдено"));
+        } else {
+            animal = animalRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Животное с ID " + id + " не найдено"));
+            animalRepository.delete(animal);
+            tombstoneRepository.save(new AnimalTombstone(id, LocalDateTime.now()));
         }
-
-        animalRepository.deleteById(id);
         log.info("Животное с ID {} удалено", id);
+        eventPublisher.publishEvent(AnimalChangedEvent.deleted(AnimalResponse.fromEntity(animal)));
     }
 
+    /**
+     * Удалить всех животных одним оператором (TRUNCATE на PostgreSQL), без загрузки записей.
+     * Если таблицу не удалось заблокировать за app.delete-all.lock-timeout (ее держат долгие
+     * чтения или выгрузки) - 503 с Retry-After вместо ожидания, блокирующего все запросы к таблице.
+     */
     @Transactional
-    public void deleteAllAnimals() {
+    public BulkChangeResult deleteAllAnimals() {
         log.info("Удаление всех животных");
-        animalRepository.deleteAll();
-        log.info("Все животные удалены");
+        long started = System.nanoTime();
+        long deleted;
+        try {
+            deleted = bulkOperations.deleteAll(databaseInfo.isPostgres());
+        } catch (CannotAcquireLockException e) {
+            log.warn("Удаление всех животных отклонено: таблица занята");
+            throw new ServiceOverloadedException(
+                    "Таблица занята другими запросами, повторите удаление позже", DELETE_ALL_RETRY_AFTER);
+        }
+        tombstoneRepository.save(AnimalTombstone.reset(LocalDateTime.now()));
+        log.info("Все животные удалены: {}", deleted);
+        eventPublisher.publishEvent(new AnimalsBulkChangedEvent("удаление всех животных"));
+        return new BulkChangeResult("удаление всех животных", deleted, elapsedMillis(started));
+    }
+
+    /**
+     * Удалить отобранных животных одним оператором. На PostgreSQL отметки об удалении для дельт
+     * пишутся тем же оператором, на других СУБД вместо них ставится отметка полной выгрузки.
+     */
+    @Transactional
+    public BulkChangeResult deleteAnimals(AnimalFilter filter) {
+        filter.validate();
+        log.info("Удаление животных по фильтру: {}", filter);
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long deleted;
+        if (databaseInfo.isPostgres()) {
+            deleted = bulkOperations.deleteMatching(filter, now);
+        } else {
+            deleted = bulkOperations.deleteMatchingPlain(filter);
+            tombstoneRepository.save(AnimalTombstone.reset(now));
+        }
+        log.info("Удалено животных по фильтру ({}): {}", filter, deleted);
+        String operation = "удаление по фильтру: " + filter;
+        if (deleted > 0) {
+            eventPublisher.publishEvent(new AnimalsBulkChangedEvent(operation));
+        }
+        return new BulkChangeResult(operation, deleted, elapsedMillis(started));
+    }
+
+    /**
+     * Изменить отобранных животных одним UPDATE: сдвиг возраста и/или новый вид.
+     * Дата изменения и версия сдвигаются у всех затронутых записей, дельты их подхватят.
+     */
+    @Transactional
+    public BulkChangeResult updateAnimals(AnimalFilter filter, AnimalBulkUpdateRequest request) {
+        filter.validate();
+        if (request.isEmpty()) {
+            throw new IllegalArgumentException("Не задано ни одного изменения: ageDelta или species");
+        }
+        log.info("Изменение животных по фильтру ({}): {}", filter, request);
+        long started = System.nanoTime();
+        long updated = bulkOperations.updateMatching(filter, request.ageDelta(), request.species(), LocalDateTime.now());
+        log.info("Изменено животных по фильтру ({}): {}", filter, updated);
+        String operation = "изменение по фильтру: " + filter;
+        if (updated > 0) {
+            eventPublisher.publishEvent(new AnimalsBulkChangedEvent(operation));
+        }
+        return new BulkChangeResult(operation, updated, elapsedMillis(started));
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
     }
 }
@@ -0,0 +1,54 @@
+package com.zoo.service;
+
+import com.zoo.event.AnimalChangedEvent;
+import com.zoo.event.AnimalsBulkChangedEvent;
+import com.zoo.event.AnimalsCreatedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счетчик изменений таблицы animals для ETag списков: увеличивается после фиксации каждого
+ * изменения, о котором сообщают AnimalChangedEvent и AnimalsBulkChangedEvent.
+ * Счетчик живет в памяти процесса, как и индексы чтения; момент запуска входит в значение,
+ * чтобы ETag, выданные до перезапуска, не совпали с новыми. Слушатели выполняются последними,
+ * после обновления индексов чтения: иначе список, прочитанный из индекса до обновления,
+ * получил бы уже новый ETag и клиент продолжал бы получать 304 на устаревшие данные.
+ */
+@Component
+public class AnimalTableVersion {
+
+    public static final int LISTENER_ORDER = Ordered.LOWEST_PRECEDENCE;
+
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong changes = new AtomicLong();
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimalChanged(AnimalChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAnimalsCreated(AnimalsCreatedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    @Order(LISTENER_ORDER)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChange(AnimalsBulkChangedEvent event) {
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Текущее значение. Читается до запроса к базе: изменение, зафиксированное между чтением
+     * счетчика и запросом, попадет в ответ со старым ETag, и следующий опрос получит данные, а не 304
+     */
+    public String current() {
+        return epoch + "-" + changes.get();
+    }
+}
@@ -0,0 +1,62 @@
+package com.zoo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Кольцевой буфер последних событий выдачи изменений. Номера событий идут подряд с 1;
+ * при переполнении затираются самые старые. Данные хранятся уже сериализованными,
+ * чтобы каждое событие переводилось в JSON один раз, а не для каждого подписчика.
+ */
+final class ChangeFeedRing {
+
+    record Entry(long sequence, String name, String data) {
+    }
+
+    private final Entry[] entries;
+    // Номер последнего добавленного события, 0 - событий еще не было
+    private long last;
+
+    ChangeFeedRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер буфера событий должен быть положительным: " + capacity);
+        }
+        this.entries = new Entry[capacity];
+    }
+
+    synchronized long append(String name, String data) {
+        long sequence = ++last;
+        entries[index(sequence)] = new Entry(sequence, name, data);
+        return sequence;
+    }
+
+    synchronized long last() {
+        return last;
+    }
+
+    /**
+     * Можно ли продолжить выдачу после события after: все последующие события еще в буфере
+     */
+    synchronized boolean canResumeAfter(long after) {
+        return after >= 0 && after <= last && after >= last - entries.length;
+    }
+
+    /**
+     * До max событий после события after; null, если часть из них уже затерта
+     */
+    synchronized List<Entry> readAfter(long after, int max) {
+        if (!canResumeAfter(after)) {
+            return null;
+        }
+        int count = (int) Math.min(max, last - after);
+        List<Entry> result = new ArrayList<>(count);
+        for (long sequence = after + 1; sequence <= after + count; sequence++) {
+            result.add(entries[index(sequence)]);
+        }
+        return result;
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % entries.length);
+    }
+}
@@ -0,0 +1,141 @@
+package com.zoo.service;
+
+import com.zoo.dto.CompactionRequest;
+import com.zoo.dto.DeltaExportResponse;
+import com.zoo.dto.ExportCheckpointResponse;
+import com.zoo.metrics.ExportMetrics;
+import com.zoo.model.Animal;
+import com.zoo.model.AnimalTombstone;
+import com.zoo.model.ExportCheckpoint;
+import com.zoo.repository.AnimalRepository;
+import com.zoo.repository.AnimalTombstoneRepository;
+import com.zoo.repository.ExportCheckpointRepository;
+import com.zoo.service.export.ExportProgress;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Инкрементальные выгрузки: в файл попадают только животные, измененные после позиции получателя
+ * (по индексу на updated_at), и отметки об удалении. Позиция хранится отдельно для каждого получателя.
+ * Нижняя граница сдвигается назад на app.delta.overlap: updated_at выставляется до фиксации транзакции,
+ * и запись, зафиксированная позже начала выгрузки, иначе могла бы не попасть ни в одну дельту.
+ * Повтор записи в соседних дельтах безопасен - UPSERT и DELETE идемпотентны.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeltaExportService {
+
+    private static final Pattern CONSUMER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final AnimalRepository animalRepository;
+    private final AnimalTombstoneRepository tombstoneRepository;
+    private final ExportCheckpointRepository checkpointRepository;
+    private final FileStorageService fileStorageService;
+    private final EntityManager entityManager;
+    private final ExportMetrics exportMetrics;
+
+    @Value("${app.delta.overlap:5s}")
+    private Duration overlap;
+
+    /**
+     * Выгрузить изменения с позиции получателя и сдвинуть позицию.
+     * Без позиции или после изменения таблицы целиком (удаление всех, загрузка файла)
+     * выгружается вся таблица с RESET в начале.
+     */
+    @Transactional
+    public DeltaExportResponse exportDelta(String consumer) {
+        checkConsumerName(consumer);
+        LocalDateTime upTo = LocalDateTime.now();
+        LocalDateTime after = checkpointRepository.findById(consumer)
+                .map(checkpoint -> checkpoint.getChangedUpTo().minus(overlap))
+                .orElse(null);
+
+        List<AnimalTombstone> tombstones = after != null ? tombstoneRepository.findDeletedAfter(after) : List.of();
+        boolean reset = after == null || tombstones.stream().anyMatch(AnimalTombstone::isReset);
+        List<Long> deletedIds = reset ? List.of() : tombstones.stream()
+                .map(AnimalTombstone::getAnimalId)
+                .distinct()
+                .toList();
+
+        AtomicLong upserts = new AtomicLong();
+        String file;
+        ExportMetrics.Meter meter = exportMetrics.start("delta", ExportProgress.NONE);
+        try (Stream<Animal> changed = (reset ? animalRepository.streamAll() : animalRepository.streamChangedAfter(after))
+                .peek(entityManager::detach)
+                .peek(animal -> upserts.incrementAndGet())) {
+            file = fileStorageService.saveAnimalDelta(consumer, reset, deletedIds, changed, meter);
+            meter.success();
+        } catch (RuntimeException e) {
+            meter.failure();
+            throw e;
+        }
+
+        checkpointRepository.save(new ExportCheckpoint(
+                consumer, upTo, Paths.get(file).getFileName().toString(), LocalDateTime.now()));
+        purgeTombstones();
+
+        log.info("Дельта для {}: {} изменено, {} удалено{}", consumer, upserts.get(), deletedIds.size(),
+                reset ? " (полная выгрузка)" : "");
+        return new DeltaExportResponse(consumer, file, reset ? null : after, upTo, reset,
+                upserts.get(), deletedIds.size());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExportCheckpointResponse> getCheckpoints() {
+        return checkpointRepository.findAll(Sort.by("consumer")).stream()
+                .map(ExportCheckpointResponse::fromEntity)
+                .toList();
+    }
+
+    /**
+     * Забыть позицию получателя: следующая его выгрузка будет полной
+     */
+    @Transactional
+    public void resetCheckpoint(String consumer) {
+        ExportCheckpoint checkpoint = checkpointRepository.findById(consumer)
+                .orElseThrow(() -> new EntityNotFoundException("Позиция получателя " + consumer + " не найдена"));
+        checkpointRepository.delete(checkpoint);
+        log.info("Позиция получателя {} сброшена", consumer);
+    }
+
+    /**
+     * Собрать новый базовый снимок из базы и цепочки дельт
+     */
+    public String compact(CompactionRequest request) {
+        return fileStorageService.compactSnapshot(request.base(), request.deltas());
+    }
+
+    /**
+     * Удалить отметки, которые уже получили все получатели (с тем же перекрытием)
+     */
+    private void purgeTombstones() {
+        LocalDateTime oldest = checkpointRepository.findOldestChangedUpTo();
+        if (oldest != null) {
+            int purged = tombstoneRepository.deleteOlderThan(oldest.minus(overlap));
+            if (purged > 0) {
+                log.info("Удалено {} отметок об удалении", purged);
+            }
+        }
+    }
+
+    private static void checkConsumerName(String consumer) {
+        if (consumer == null || !CONSUMER_NAME.matcher(consumer).matches()) {
+            throw new IllegalArgumentException("Имя получателя: латинские буквы, цифры, '-' и '_', до 64 символов");
+        }
+    }
+}
@@ -1,37 +1,82 @@
 package com.zoo.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zoo.config.ExportProperties;
+import com.zoo.dto.ExportFilePage;
 import com.zoo.model.Animal;
+import com.zoo.service.export.ChannelRowWriter;
+import com.zoo.service.export.DeltaRecord;
+import com.zoo.service.export.ExportCatalog;
+import com.zoo.service.export.ExportProgress;
+import com.zoo.service.export.SnapshotCompactor;
+import com.zoo.service.export.SnapshotReader;
+import com.zoo.service.export.SnapshotWriter;
+import com.zoo.service.export.StoredFile;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 
-import java.io.File;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
-import java.net.MalformedURLException;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 @Slf4j
 public class FileStorageService {
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+    private static final String SNAPSHOT_EXTENSION = "zsnap";
+    private static final String DELTA_EXTENSION = "delta.ndjson";
+
     private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final ObjectWriter deltaWriter;
     private final String storageDirectory;
+    private final ExportCatalog exportCatalog;
+    private final boolean gzipVariants;
 
-    public FileStorageService(@Value("${app.storage.directory:./storage}") String storageDirectory) {
+    public FileStorageService(@Value("${app.storage.directory:./storage}") String storageDirectory,
+                              ExportCatalog exportCatalog,
+                              ExportProperties exportProperties) {
         this.storageDirectory = storageDirectory;
+        this.exportCatalog = exportCatalog;
+        this.gzipVariants = exportProperties.isGzipVariants();
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        // Без flush после каждой записи, иначе буфер сбрасывается на диск на каждой строке
+        this.rowWriter = objectMapper.writerFor(Animal.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        // Дельты - по записи на строку, даты строками ISO-8601
+        this.deltaWriter = objectMapper.writerFor(DeltaRecord.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
 
         // Создаем директорию для хранения, если её нет
         createStorageDirectory();
@@ -50,130 +95,387 @@ public class FileStorageService {
     }
 
     /**
-     * Сохранить список животных в JSON файл
+     * Сохранить животных в JSON файл.
+     * Записи читаются из потока и пишутся в файл по одной, весь список в памяти не собирается.
      */
-    public String saveAnimalsToJson(List<Animal> animals) {
-        try {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String filename = String.format("animals_%s.json", timestamp);
-            Path filePath = Paths.get(storageDirectory, filename);
+    public String saveAnimalsToJson(Stream<Animal> animals, ExportProgress progress) {
+        Path filePath = newExportPath("json");
+        long count = 0;
+
+        try (OutputStream out = openExportStream(filePath, progress);
+             JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.useDefaultPrettyPrinter();
+            generator.writeStartArray();
 
-            objectMapper.writeValue(filePath.toFile(), animals);
-            log.info("Сохранено {} животных в файл: {}", animals.size(), filePath);
+            Iterator<Animal> iterator = animals.iterator();
+            while (iterator.hasNext()) {
+                rowWriter.writeValue(generator, iterator.next());
+                count++;
+                progress.rowWritten();
+            }
 
-            return filePath.toString();
+            generator.writeEndArray();
         } catch (IOException e) {
             log.error("Ошибка при сохранении в файл: {}", e.getMessage());
+            deleteIncomplete(filePath);
             throw new RuntimeException("Не удалось сохранить животных в файл", e);
+        } catch (RuntimeException e) {
+            deleteIncomplete(filePath);
+            throw e;
         }
+
+        log.info("Сохранено {} животных в файл: {}", count, filePath);
+        exportCatalog.register(filePath, count);
+        writeGzipVariant(filePath, count);
+        return filePath.toString();
     }
 
     /**
-     * Сохранить список животных в CSV файл
+     * Сохранить животных в CSV файл (потоково, по одной строке).
+     * Имя и вид всегда в кавычках, кавычки внутри значений удваиваются (RFC 4180).
      */
-    public String saveAnimalsToCsv(List<Animal> animals) {
-        try {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String filename = String.format("animals_%s.csv", timestamp);
-            Path filePath = Paths.get(storageDirectory, filename);
+    public String saveAnimalsToCsv(Stream<Animal> animals, ExportProgress progress) {
+        Path filePath = newExportPath("csv");
+        long count = 0;
 
-            StringBuilder csv = new StringBuilder();
+        try (ChannelRowWriter out = openRowWriter(filePath, progress)) {
             // Заголовки
-            csv.append("ID,Name,Species,Age,CreatedAt\n");
+            out.text("ID,Name,Species,Age,CreatedAt\n");
 
             // Данные
-            for (Animal animal : animals) {
-                csv.append(String.format("%d,\"%s\",\"%s\",%d,%s\n",
-                        animal.getId(),
-                        animal.getName(),
-                        animal.getSpecies(),
-                        animal.getAge(),
-                        animal.getCreatedAt() != null ? animal.getCreatedAt().toString() : "null"
-                ));
+            Iterator<Animal> iterator = animals.iterator();
+            while (iterator.hasNext()) {
+                Animal animal = iterator.next();
+                out.number(animal.getId()).ascii(',')
+                        .csvQuoted(animal.getName()).ascii(',')
+                        .csvQuoted(animal.getSpecies()).ascii(',')
+                        .number(animal.getAge()).ascii(',')
+                        .dateTime(animal.getCreatedAt()).ascii('\n');
+                count++;
+                progress.rowWritten();
             }
-
-            Files.write(filePath, csv.toString().getBytes());
-            log.info("Сохранено {} животных в CSV файл: {}", animals.size(), filePath);
-
-            return filePath.toString();
         } catch (IOException e) {
             log.error("Ошибка при сохранении в CSV: {}", e.getMessage());
+            deleteIncomplete(filePath);
             throw new RuntimeException("Не удалось сохранить животных в CSV файл", e);
+        } catch (RuntimeException e) {
+            deleteIncomplete(filePath);
+            throw e;
         }
+
+        log.info("Сохранено {} животных в CSV файл: {}", count, filePath);
+        exportCatalog.register(filePath, count);
+        writeGzipVariant(filePath, count);
+        return filePath.toString();
     }
 
     /**
-     * Сохранить список животных в текстовый файл (простой формат)
+     * Сохранить животных в текстовый файл (простой формат).
+     * Общее количество передается заранее, так как оно выводится в заголовке до самих записей.
      */
-    public String saveAnimalsToTxt(List<Animal> animals) {
-        try {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String filename = String.format("animals_%s.txt", timestamp);
-            Path filePath = Paths.get(storageDirectory, filename);
-
-            StringBuilder content = new StringBuilder();
-            content.append("СПИСОК ЖИВОТНЫХ В ЗООПАРКЕ\n");
-            content.append("=".repeat(50)).append("\n");
-            content.append(String.format("Всего животных: %d\n", animals.size()));
-            content.append("=".repeat(50)).append("\n\n");
-
-            for (int i = 0; i < animals.size(); i++) {
-                Animal animal = animals.get(i);
-                content.append(String.format("%d. %s (%s) - %d лет\n",
-                        i + 1,
-                        animal.getName(),
-                        animal.getSpecies(),
-                        animal.getAge()
-                ));
-            }
+    public String saveAnimalsToTxt(Stream<Animal> animals, long total, ExportProgress progress) {
+        Path filePath = newExportPath("txt");
+        long count = 0;
 
-            content.append("\n").append("=".repeat(50)).append("\n");
-            content.append(String.format("Дата выгрузки: %s\n",
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"))));
+        try (ChannelRowWriter out = openRowWriter(filePath, progress)) {
+            out.text("СПИСОК ЖИВОТНЫХ В ЗООПАРКЕ\n");
+            out.text("=".repeat(50) + "\n");
+            out.text("Всего животных: ").number(total).ascii('\n');
+            out.text("=".repeat(50) + "\n\n");
 
-            Files.write(filePath, content.toString().getBytes());
-            log.info("Сохранено {} животных в TXT файл: {}", animals.size(), filePath);
+            Iterator<Animal> iterator = animals.iterator();
+            while (iterator.hasNext()) {
+                Animal animal = iterator.next();
+                count++;
+                out.number(count).text(". ")
+                        .text(animal.getName()).text(" (")
+                        .text(animal.getSpecies()).text(") - ")
+                        .number(animal.getAge()).text(" лет\n");
+                progress.rowWritten();
+            }
 
-            return filePath.toString();
+            out.text("\n" + "=".repeat(50) + "\n");
+            out.text("Дата выгрузки: ")
+                    .text(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss")))
+                    .ascii('\n');
         } catch (IOException e) {
             log.error("Ошибка при сохранении в TXT: {}", e.getMessage());
+            deleteIncomplete(filePath);
             throw new RuntimeException("Не удалось сохранить животных в TXT файл", e);
+        } catch (RuntimeException e) {
+            deleteIncomplete(filePath);
+            throw e;
         }
+
+        log.info("Сохранено {} животных в TXT файл: {}", count, filePath);
+        exportCatalog.register(filePath, count);
+        writeGzipVariant(filePath, count);
+        return filePath.toString();
     }
 
     /**
-     * Получить список всех сохраненных файлов
+     * Сохранить животных в бинарный снимок *.zsnap (раскладка - SnapshotLayout).
+     * Снимок читается через отображение в память: загрузка обратно в таблицу и прогрев
+     * индексов при старте без разбора текста.
      */
-    public List<String> getSavedFiles() {
+    public String saveAnimalsToSnapshot(Stream<Animal> animals, ExportProgress progress) {
+        Path filePath = newExportPath(SNAPSHOT_EXTENSION);
+        long count;
+
+        try (SnapshotWriter out = new SnapshotWriter(filePath, EXPORT_BUFFER_SIZE, progress)) {
+            Iterator<Animal> iterator = animals.iterator();
+            while (iterator.hasNext()) {
+                out.write(iterator.next());
+                progress.rowWritten();
+            }
+            count = out.finish();
+        } catch (IOException e) {
+            log.error("Ошибка при сохранении снимка: {}", e.getMessage());
+            deleteIncomplete(filePath);
+            throw new RuntimeException("Не удалось сохранить снимок животных", e);
+        } catch (RuntimeException e) {
+            deleteIncomplete(filePath);
+            throw e;
+        }
+
+        log.info("Сохранено {} животных в снимок: {}", count, filePath);
+        exportCatalog.register(filePath, count);
+        return filePath.toString();
+    }
+
+    /**
+     * Сохранить инкрементальную выгрузку (NDJSON, строки - DeltaRecord): сначала RESET, если нужен,
+     * затем удаления, затем текущее состояние измененных животных
+     */
+    public String saveAnimalDelta(String consumer, boolean reset, List<Long> deletedIds, Stream<Animal> changed,
+                                  ExportProgress progress) {
+        Path filePath = newExportPath("animals_delta_" + consumer + "_", DELTA_EXTENSION);
+        long count = 0;
+
+        try (OutputStream out = openExportStream(filePath, progress);
+             SequenceWriter lines = deltaWriter.writeValues(out)) {
+            if (reset) {
+                lines.write(DeltaRecord.reset());
+            }
+            for (Long id : deletedIds) {
+                lines.write(DeltaRecord.delete(id));
+                count++;
+                progress.rowWritten();
+            }
+            Iterator<Animal> iterator = changed.iterator();
+            while (iterator.hasNext()) {
+                lines.write(DeltaRecord.upsert(iterator.next()));
+                count++;
+                progress.rowWritten();
+            }
+        } catch (IOException e) {
+            log.error("Ошибка при сохранении дельты: {}", e.getMessage());
+            deleteIncomplete(filePath);
+            throw new RuntimeException("Не удалось сохранить инкрементальную выгрузку", e);
+        } catch (RuntimeException e) {
+            deleteIncomplete(filePath);
+            throw e;
+        }
+
+        log.info("Сохранено {} изменений для {} в файл: {}", count, consumer, filePath);
+        exportCatalog.register(filePath, count);
+        writeGzipVariant(filePath, count);
+        return filePath.toString();
+    }
+
+    /**
+     * Собрать новый базовый снимок из снимка baseFilename (null - с пустой базы)
+     * и дельт deltaFilenames, применяемых в переданном порядке
+     */
+    public String compactSnapshot(String baseFilename, List<String> deltaFilenames) {
+        List<Path> deltas = deltaFilenames.stream().map(this::resolveStoredFile).toList();
+        Path filePath = newExportPath(SNAPSHOT_EXTENSION);
+        long count;
+
         try {
-            return Files.list(Paths.get(storageDirectory))
-                    .filter(Files::isRegularFile)
-                    .map(Path::getFileName)         // получаем имя файла
-                    .map(Path::toString)            // преобразуем в строку
-                    .toList();
+            SnapshotReader base = baseFilename != null ? SnapshotReader.open(resolveStoredFile(baseFilename)) : null;
+            if (base != null && !base.verifyChecksum()) {
+                throw new IllegalArgumentException("Контрольная сумма снимка " + baseFilename + " не совпадает");
+            }
+            try (SnapshotWriter out = new SnapshotWriter(filePath, EXPORT_BUFFER_SIZE, ExportProgress.NONE)) {
+                count = new SnapshotCompactor(objectMapper.reader()).compact(base, deltas, out, ExportProgress.NONE);
+            }
         } catch (IOException e) {
-            log.error("Ошибка при получении списка файлов: {}", e.getMessage());
-            return List.of();
+            log.error("Ошибка при сборке снимка: {}", e.getMessage());
+            deleteIncomplete(filePath);
+            throw new RuntimeException("Не удалось собрать снимок из дельт", e);
+        } catch (RuntimeException e) {
+            deleteIncomplete(filePath);
+            throw e;
         }
+
+        log.info("Снимок {} собран из {} и {} дельт: {} животных", filePath, baseFilename, deltas.size(), count);
+        exportCatalog.register(filePath, count);
+        return filePath.toString();
     }
 
-    public Resource loadFileAsResource(String filename) {
+    /**
+     * Записать рядом с файлом сжатый вариант .gz (app.export.gzip-variants).
+     * Ошибка здесь выгрузку не отменяет: без варианта файл просто отдается несжатым.
+     */
+    private void writeGzipVariant(Path filePath, long count) {
+        if (!gzipVariants) {
+            return;
+        }
+        Path gzipPath = filePath.resolveSibling(filePath.getFileName() + ".gz");
+        exportCatalog.beginWrite(gzipPath);
+        try (OutputStream out = new GZIPOutputStream(openExportStream(gzipPath, ExportProgress.NONE), EXPORT_BUFFER_SIZE)) {
+            Files.copy(filePath, out);
+        } catch (IOException e) {
+            log.warn("Не удалось записать сжатый вариант {}: {}", gzipPath, e.getMessage());
+            deleteIncomplete(gzipPath);
+            return;
+        }
+        exportCatalog.register(gzipPath, count);
+    }
+
+    /**
+     * Файл для отдачи клиенту; при acceptGzip и наличии не устаревшего варианта .gz - сжатый вариант.
+     * Пусто, если файла нет или имя ведет за пределы директории хранения.
+     */
+    public Optional<StoredFile> findStoredFile(String filename, boolean acceptGzip) {
+        Path root = Paths.get(storageDirectory).toAbsolutePath().normalize();
+        Path filePath = root.resolve(filename).normalize();
+        if (!filePath.startsWith(root) || filePath.getFileName().toString().startsWith(".")) {
+            return Optional.empty();
+        }
         try {
-            Path filePath = Paths.get(storageDirectory).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return Optional.empty();
+            }
+            long lastModified = attributes.lastModifiedTime().toMillis();
+
+            Path gzipPath = filePath.resolveSibling(filePath.getFileName() + ".gz");
+            BasicFileAttributes gzipAttributes = Files.isRegularFile(gzipPath)
+                    ? Files.readAttributes(gzipPath, BasicFileAttributes.class)
+                    : null;
+            // Вариант, записанный раньше исходного файла, относится к его прежнему содержимому
+            boolean hasVariant = gzipAttributes != null
+                    && gzipAttributes.lastModifiedTime().toMillis() >= lastModified;
+
+            if (acceptGzip && hasVariant) {
+                long gzipModified = gzipAttributes.lastModifiedTime().toMillis();
+                return Optional.of(new StoredFile(filePath.getFileName().toString(), gzipPath,
+                        gzipAttributes.size(), gzipModified,
+                        etag(gzipPath, gzipAttributes.size(), gzipModified), true, true));
+            }
+            return Optional.of(new StoredFile(filePath.getFileName().toString(), filePath,
+                    attributes.size(), lastModified,
+                    etag(filePath, attributes.size(), lastModified), false, hasVariant));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Не удалось прочитать атрибуты файла {}: {}", filename, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String etag(Path file, long size, long lastModified) {
+        return exportCatalog.find(file.getFileName().toString(), size, lastModified)
+                .map(info -> "\"" + info.checksum() + "-" + Long.toHexString(size) + "\"")
+                .orElseGet(() -> "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"");
+    }
+
+    /**
+     * Самый свежий бинарный снимок в директории хранения
+     */
+    public Optional<Path> findLatestSnapshot() {
+        return exportCatalog.latest("snapshot");
+    }
+
+    private Path newExportPath(String extension) {
+        return newExportPath("animals_", extension);
+    }
+
+    /**
+     * Новый файл выгрузки с точностью имени до миллисекунд. Файл создается сразу (CREATE_NEW): если имя
+     * уже занято выгрузкой, снимком или сборкой в ту же миллисекунду, к нему добавляется суффикс _1, _2...
+     * Готовый файл никогда не перезаписывается - ни под ETag каталога, ни под идущей докачкой по Range.
+     */
+    private Path newExportPath(String prefix, String extension) {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS"));
+        for (int attempt = 0; ; attempt++) {
+            String suffix = attempt == 0 ? "" : "_" + attempt;
+            Path filePath = Paths.get(storageDirectory, prefix + timestamp + suffix + "." + extension);
+            try {
+                Files.createFile(filePath);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Не удалось создать файл выгрузки " + filePath, e);
+            }
+            exportCatalog.beginWrite(filePath);
+            return filePath;
+        }
+    }
+
+    /**
+     * Открыть файл выгрузки через FileChannel с буфером фиксированного размера.
+     * Записанные на диск байты передаются в progress при каждом сбросе буфера.
+     */
+    private OutputStream openExportStream(Path filePath, ExportProgress progress) throws IOException {
+        FileChannel channel = FileChannel.open(filePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream counting = new FilterOutputStream(Channels.newOutputStream(channel)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                progress.bytesWritten(len);
+            }
 
-            if (resource.exists()) {
-                return resource;
-            } else {
-                throw new RuntimeException("Файл не найден: " + filename);
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                progress.bytesWritten(1);
             }
-        } catch (MalformedURLException ex) {
-            throw new RuntimeException("Ошибка при загрузке файла: " + filename, ex);
+        };
+        return new BufferedOutputStream(counting, EXPORT_BUFFER_SIZE);
+    }
+
+    /**
+     * Открыть файл выгрузки для побайтовой записи строк через direct-буфер
+     */
+    private ChannelRowWriter openRowWriter(Path filePath, ExportProgress progress) throws IOException {
+        FileChannel channel = FileChannel.open(filePath,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new ChannelRowWriter(channel, EXPORT_BUFFER_SIZE, progress);
+    }
+
+    /**
+     * Удалить недописанный файл выгрузки (ошибка или отмена), чтобы он не попал в список файлов
+     */
+    private void deleteIncomplete(Path filePath) {
+        try {
+            Files.deleteIfExists(filePath);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить недописанный файл {}: {}", filePath, e.getMessage());
+        } finally {
+            exportCatalog.abandon(filePath);
         }
     }
 
-    public boolean fileExists(String filename) {
-        Path filePath = Paths.get(storageDirectory).resolve(filename).normalize();
-        return Files.exists(filePath) && Files.isRegularFile(filePath);
+    /**
+     * Страница сохраненных файлов с метаданными из каталога, начиная с самых новых
+     */
+    public ExportFilePage getSavedFiles(String format, String nameContains, String cursor, int limit) {
+        return exportCatalog.list(format, nameContains, cursor, limit);
+    }
+
+    /**
+     * Путь к сохраненному файлу; имена, ведущие за пределы директории хранения, не принимаются
+     */
+    public Path resolveStoredFile(String filename) {
+        Path root = Paths.get(storageDirectory).toAbsolutePath().normalize();
+        Path filePath = root.resolve(filename).normalize();
+        if (!filePath.startsWith(root) || !Files.isRegularFile(filePath)) {
+            throw new IllegalArgumentException("Файл не найден: " + filename);
+        }
+        return filePath;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package com.zoo.service.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.LocalDateTime;
+
+/**
+ * Запись строк выгрузки байтами UTF-8 в переиспользуемый direct-буфер со сбросом в FileChannel.
+ * Числа и даты пишутся цифрами прямо в буфер, без промежуточных строк, поэтому на запись строки
+ * выгрузки память почти не выделяется. Текст совпадает побайтно с String.valueOf / toString
+ * соответствующих значений (null пишется как "null").
+ */
+public final class ChannelRowWriter implements Closeable {
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] LONG_MIN = Long.toString(Long.MIN_VALUE).getBytes();
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final ExportProgress progress;
+    // Цифры числа в обратном порядке
+    private final byte[] digits = new byte[20];
+
+    public ChannelRowWriter(FileChannel channel, int bufferSize, ExportProgress progress) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.progress = progress;
+    }
+
+    public ChannelRowWriter ascii(char c) throws IOException {
+        ensure(1);
+        buffer.put((byte) c);
+        return this;
+    }
+
+    /**
+     * Текст в UTF-8; одиночные суррогаты заменяются на '?', как при String.getBytes
+     */
+    public ChannelRowWriter text(CharSequence value) throws IOException {
+        return value == null ? bytes(NULL) : text(value, 0, value.length());
+    }
+
+    private ChannelRowWriter text(CharSequence value, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                ensure(1);
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                ensure(2);
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < to && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    ensure(4);
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    ensure(1);
+                    buffer.put((byte) '?');
+                }
+            } else {
+                ensure(3);
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Поле CSV по RFC 4180: всегда в кавычках, кавычки внутри значения удваиваются
+     */
+    public ChannelRowWriter csvQuoted(String value) throws IOException {
+        ascii('"');
+        if (value == null) {
+            bytes(NULL);
+        } else if (value.indexOf('"') < 0) {
+            text(value);
+        } else {
+            int start = 0;
+            int quote;
+            while ((quote = value.indexOf('"', start)) >= 0) {
+                text(value, start, quote + 1);
+                ascii('"');
+                start = quote + 1;
+            }
+            text(value, start, value.length());
+        }
+        return ascii('"');
+    }
+
+    public ChannelRowWriter number(Long value) throws IOException {
+        return value == null ? bytes(NULL) : number(value.longValue());
+    }
+
+    public ChannelRowWriter number(Integer value) throws IOException {
+        return value == null ? bytes(NULL) : number(value.longValue());
+    }
+
+    public ChannelRowWriter number(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return bytes(LONG_MIN);
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (count > 0) {
+            buffer.put(digits[--count]);
+        }
+        return this;
+    }
+
+    /**
+     * Дата и время в формате LocalDateTime.toString (ISO-8601, секунды и доли - только если не нулевые)
+     */
+    public ChannelRowWriter dateTime(LocalDateTime value) throws IOException {
+        if (value == null) {
+            return bytes(NULL);
+        }
+        ensure(40);
+        int year = value.getYear();
+        if (Math.abs(year) < 1000) {
+            if (year < 0) {
+                buffer.put((byte) '-');
+            }
+            padded(Math.abs(year), 4);
+        } else {
+            if (year > 9999) {
+                buffer.put((byte) '+');
+            }
+            number(year);
+        }
+        buffer.put((byte) '-');
+        padded(value.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        padded(value.getDayOfMonth(), 2);
+        buffer.put((byte) 'T');
+        padded(value.getHour(), 2);
+        buffer.put((byte) ':');
+        padded(value.getMinute(), 2);
+
+        int second = value.getSecond();
+        int nano = value.getNano();
+        if (second > 0 || nano > 0) {
+            buffer.put((byte) ':');
+            padded(second, 2);
+            if (nano > 0) {
+                buffer.put((byte) '.');
+                if (nano % 1_000_000 == 0) {
+                    padded(nano / 1_000_000, 3);
+                } else if (nano % 1000 == 0) {
+                    padded(nano / 1000, 6);
+                } else {
+                    padded(nano, 9);
+                }
+            }
+        }
+        return this;
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+        if (written > 0) {
+            progress.bytesWritten(written);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private ChannelRowWriter bytes(byte[] value) throws IOException {
+        ensure(value.length);
+        buffer.put(value);
+        return this;
+    }
+
+    /**
+     * Неотрицательное число ровно из width цифр с ведущими нулями (место в буфере уже проверено)
+     */
+    private void padded(int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        buffer.put(digits, 0, width);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.zoo.service.export;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.zoo.model.Animal;
+
+/**
+ * Строка файла инкрементальной выгрузки (*.delta.ndjson), по одному JSON-объекту на строку.
+ * Файл начинается с RESET, если получатель должен отбросить все, что у него есть; затем идут
+ * DELETE по отметкам об удалении и UPSERT с текущим состоянием измененных животных.
+ * Применять строки нужно по порядку.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeltaRecord(Op op, Long id, Animal animal) {
+
+    public enum Op {
+        RESET,
+        DELETE,
+        UPSERT
+    }
+
+    public static DeltaRecord reset() {
+        return new DeltaRecord(Op.RESET, null, null);
+    }
+
+    public static DeltaRecord delete(long id) {
+        return new DeltaRecord(Op.DELETE, id, null);
+    }
+
+    public static DeltaRecord upsert(Animal animal) {
+        return new DeltaRecord(Op.UPSERT, animal.getId(), animal);
+    }
+}
@@ -0,0 +1,470 @@
+package com.zoo.service.export;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zoo.config.ExportProperties;
+import com.zoo.dto.ExportFilePage;
+import com.zoo.dto.ExportFileResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Каталог файлов в директории хранения с метаданными (формат, размер, число записей, CRC32C).
+ * Выгрузки сообщают о своих файлах сами (beginWrite / register / abandon), файлы, появившиеся
+ * или удаленные в обход приложения, замечает WatchService. Каталог сохраняется в .catalog.json
+ * той же директории и при старте сверяется с ней: пересчитываются только файлы, у которых
+ * изменились размер или время изменения. После каждой выгрузки и раз в минуту применяется
+ * ротация app.export.file-retention.*. Файлы с именем на точку (служебные) в каталог не входят.
+ */
+@Component
+@Slf4j
+public class ExportCatalog {
+
+    private static final String INDEX_FILE = ".catalog.json";
+    private static final long SETTLE_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final long RETENTION_CHECK_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // Сначала новые; при равном времени - по имени в обратном порядке
+    private static final Comparator<ExportFileInfo> NEWEST_FIRST = Comparator
+            .comparing(ExportFileInfo::createdAt, Comparator.reverseOrder())
+            .thenComparing(ExportFileInfo::name, Comparator.reverseOrder());
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final ExportProperties.FileRetention retention;
+    private final Map<String, ExportFileInfo> files = new ConcurrentHashMap<>();
+    // Файлы, которые сейчас пишутся выгрузками: watcher и ротация их не трогают
+    private final Set<String> writing = ConcurrentHashMap.newKeySet();
+    // Файлы, измененные в обход приложения, ждут, пока запись в них не затихнет (только поток watcher)
+    private final Map<String, Long> settling = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    public ExportCatalog(@Value("${app.storage.directory:./storage}") String storageDirectory,
+                         ObjectMapper objectMapper,
+                         ExportProperties exportProperties) {
+        this.directory = Paths.get(storageDirectory).toAbsolutePath().normalize();
+        this.objectMapper = objectMapper;
+        this.retention = exportProperties.getFileRetention();
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        Files.createDirectories(directory);
+        loadIndex();
+        reconcile();
+        applyRetention();
+
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        watcher = Thread.ofPlatform().daemon().name("export-catalog-watcher").start(this::watch);
+        log.info("Каталог выгрузок: {} файлов в {}", files.size(), directory);
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+
+    /**
+     * Выгрузка начала писать файл: до register или abandon он не попадает в каталог
+     */
+    public void beginWrite(Path file) {
+        writing.add(file.getFileName().toString());
+    }
+
+    /**
+     * Выгрузка дописала файл; rowCount - число записей в нем
+     */
+    public void register(Path file, Long rowCount) {
+        String name = file.getFileName().toString();
+        try {
+            files.put(name, describe(directory.resolve(name), rowCount));
+        } catch (IOException e) {
+            log.warn("Не удалось добавить файл {} в каталог: {}", name, e.getMessage());
+        } finally {
+            writing.remove(name);
+        }
+        saveIndex();
+        applyRetention();
+    }
+
+    /**
+     * Выгрузка не удалась, недописанный файл удален
+     */
+    public void abandon(Path file) {
+        String name = file.getFileName().toString();
+        writing.remove(name);
+        if (files.remove(name) != null) {
+            saveIndex();
+        }
+    }
+
+    /**
+     * Страница файлов, начиная с самых новых. format и nameContains - необязательные фильтры,
+     * cursor - токен из предыдущей страницы.
+     */
+    public ExportFilePage list(String format, String nameContains, String cursor, int limit) {
+        ExportFileInfo after = decodeCursor(cursor);
+        List<ExportFileInfo> matching = files.values().stream()
+                .filter(info -> format == null || info.format().equalsIgnoreCase(format))
+                .filter(info -> nameContains == null || info.name().contains(nameContains))
+                .filter(info -> after == null || NEWEST_FIRST.compare(info, after) > 0)
+                .sorted(NEWEST_FIRST)
+                .limit(limit + 1L)
+                .toList();
+
+        boolean hasMore = matching.size() > limit;
+        List<ExportFileInfo> page = hasMore ? matching.subList(0, limit) : matching;
+        return new ExportFilePage(
+                page.stream().map(ExportFileResponse::fromInfo).toList(),
+                hasMore ? encodeCursor(page.get(page.size() - 1)) : null);
+    }
+
+    /**
+     * Запись каталога о файле, если она соответствует файлу на диске (тот же размер и время изменения)
+     */
+    public Optional<ExportFileInfo> find(String name, long size, long modifiedMillis) {
+        ExportFileInfo info = files.get(name);
+        return info != null && info.size() == size && info.modifiedMillis() == modifiedMillis
+                ? Optional.of(info)
+                : Optional.empty();
+    }
+
+    /**
+     * Самый новый файл формата format
+     */
+    public Optional<Path> latest(String format) {
+        return files.values().stream()
+                .filter(info -> info.format().equals(format))
+                .min(NEWEST_FIRST)
+                .map(info -> directory.resolve(info.name()));
+    }
+
+    private void watch() {
+        long lastRetention = System.nanoTime();
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            try {
+                if (key != null) {
+                    handleEvents(key);
+                    if (!key.reset()) {
+                        log.warn("Директория хранения {} больше недоступна, каталог не обновляется", directory);
+                        return;
+                    }
+                }
+                registerSettled();
+                if (System.nanoTime() - lastRetention > RETENTION_CHECK_NANOS) {
+                    lastRetention = System.nanoTime();
+                    applyRetention();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Ошибка обновления каталога выгрузок: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void handleEvents(WatchKey key) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // События потеряны: сверяемся с директорией целиком
+                reconcile();
+                continue;
+            }
+            String name = event.context().toString();
+            if (isHidden(name) || writing.contains(name)) {
+                continue;
+            }
+            if (event.kind() == ENTRY_DELETE) {
+                settling.remove(name);
+                if (files.remove(name) != null) {
+                    saveIndex();
+                }
+            } else {
+                settling.put(name, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * Добавить в каталог файлы, которые не менялись последние пару секунд
+     */
+    private void registerSettled() {
+        boolean changed = false;
+        Iterator<Map.Entry<String, Long>> iterator = settling.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (System.nanoTime() - entry.getValue() < SETTLE_NANOS) {
+                continue;
+            }
+            iterator.remove();
+            String name = entry.getKey();
+            if (writing.contains(name)) {
+                continue;
+            }
+            changed |= refresh(directory.resolve(name));
+        }
+        if (changed) {
+            saveIndex();
+            applyRetention();
+        }
+    }
+
+    /**
+     * Сверить каталог с директорией: убрать исчезнувшие файлы, описать новые и измененные
+     */
+    private synchronized void reconcile() {
+        Set<String> present = new HashSet<>();
+        boolean changed = false;
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) listing::iterator) {
+                String name = file.getFileName().toString();
+                if (isHidden(name) || writing.contains(name) || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                present.add(name);
+                changed |= refresh(file);
+            }
+        } catch (IOException e) {
+            log.error("Ошибка при чтении директории хранения: {}", e.getMessage());
+            return;
+        }
+        changed |= files.keySet().retainAll(present);
+        if (changed) {
+            saveIndex();
+        }
+    }
+
+    /**
+     * Описать файл заново, если каталог о нем не знает или он изменился; true, если запись изменилась
+     */
+    private boolean refresh(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            if (!Files.isRegularFile(file)) {
+                return files.remove(name) != null;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            ExportFileInfo known = files.get(name);
+            if (known != null && known.size() == attributes.size()
+                    && known.modifiedMillis() == attributes.lastModifiedTime().toMillis()) {
+                return false;
+            }
+            files.put(name, describe(file, null));
+            return true;
+        } catch (IOException e) {
+            log.warn("Не удалось описать файл {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private ExportFileInfo describe(Path file, Long rowCount) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        String name = file.getFileName().toString();
+        String format = formatOf(name);
+        if (rowCount == null && format.equals("snapshot")) {
+            try {
+                rowCount = SnapshotReader.open(file).getRowCount();
+            } catch (IOException e) {
+                log.warn("Файл {} не читается как снимок: {}", name, e.getMessage());
+            }
+        }
+        return new ExportFileInfo(
+                name,
+                format,
+                attributes.size(),
+                rowCount,
+                checksum(file),
+                LocalDateTime.ofInstant(attributes.creationTime().toInstant(), ZoneId.systemDefault()),
+                attributes.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Ротация: удалять самые старые файлы, пока нарушено хоть одно ограничение.
+     * Самый новый снимок .zsnap не удаляется - он нужен для прогрева и сборки из дельт.
+     */
+    private synchronized void applyRetention() {
+        List<ExportFileInfo> oldestFirst = new ArrayList<>(files.values());
+        oldestFirst.sort(NEWEST_FIRST.reversed());
+        ExportFileInfo keep = files.values().stream()
+                .filter(info -> info.format().equals("snapshot"))
+                .min(NEWEST_FIRST)
+                .orElse(null);
+
+        int count = oldestFirst.size();
+        long total = oldestFirst.stream().mapToLong(ExportFileInfo::size).sum();
+        LocalDateTime expired = retention.getMaxAge() != null ? LocalDateTime.now().minus(retention.getMaxAge()) : null;
+        long maxBytes = retention.getMaxTotalSize() != null ? retention.getMaxTotalSize().toBytes() : Long.MAX_VALUE;
+        int maxFiles = retention.getMaxFiles() > 0 ? retention.getMaxFiles() : Integer.MAX_VALUE;
+
+        boolean changed = false;
+        for (ExportFileInfo info : oldestFirst) {
+            boolean tooOld = expired != null && info.createdAt().isBefore(expired);
+            if (count <= maxFiles && total <= maxBytes && !tooOld) {
+                break;
+            }
+            if (info == keep || writing.contains(info.name()) || !files.containsKey(info.name())) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(info.name()));
+                files.remove(info.name());
+                count--;
+                total -= info.size();
+                // Сжатый вариант без исходного файла не отдается, удаляется вместе с ним
+                ExportFileInfo variant = files.remove(info.name() + ".gz");
+                if (variant != null) {
+                    Files.deleteIfExists(directory.resolve(variant.name()));
+                    count--;
+                    total -= variant.size();
+                }
+                changed = true;
+                log.info("Файл {} удален по ротации ({} байт, создан {})", info.name(), info.size(), info.createdAt());
+            } catch (IOException e) {
+                log.warn("Не удалось удалить файл {} по ротации: {}", info.name(), e.getMessage());
+            }
+        }
+        if (changed) {
+            saveIndex();
+        }
+    }
+
+    private void loadIndex() {
+        Path index = directory.resolve(INDEX_FILE);
+        if (!Files.isRegularFile(index)) {
+            return;
+        }
+        try {
+            List<ExportFileInfo> saved = objectMapper.readValue(index.toFile(), new TypeReference<List<ExportFileInfo>>() { });
+            saved.forEach(info -> files.put(info.name(), info));
+        } catch (IOException e) {
+            log.warn("Каталог {} не прочитан, будет построен заново: {}", index, e.getMessage());
+        }
+    }
+
+    /**
+     * Сохранить каталог: запись во временный файл и атомарная замена
+     */
+    private synchronized void saveIndex() {
+        Path index = directory.resolve(INDEX_FILE);
+        Path temp = directory.resolve(INDEX_FILE + ".tmp");
+        try {
+            List<ExportFileInfo> snapshot = files.values().stream().sorted(NEWEST_FIRST).toList();
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Не удалось сохранить каталог {}: {}", index, e.getMessage());
+        }
+    }
+
+    private static String checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return String.format("%08x", crc.getValue());
+    }
+
+    static String formatOf(String name) {
+        if (name.endsWith(".delta.ndjson")) {
+            return "delta";
+        }
+        if (name.endsWith(".zsnap")) {
+            return "snapshot";
+        }
+        if (name.endsWith(".json")) {
+            return "json";
+        }
+        if (name.endsWith(".csv")) {
+            return "csv";
+        }
+        if (name.endsWith(".txt")) {
+            return "txt";
+        }
+        if (name.endsWith(".gz")) {
+            return "gzip";
+        }
+        return "other";
+    }
+
+    private static boolean isHidden(String name) {
+        return name.startsWith(".");
+    }
+
+    private static String encodeCursor(ExportFileInfo last) {
+        String raw = last.createdAt() + "|" + last.name();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Позиция в списке по токену: достаточно времени создания и имени последнего отданного файла
+     */
+    private static ExportFileInfo decodeCursor(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new ExportFileInfo(raw.substring(separator + 1), "", 0, null, "",
+                    LocalDateTime.parse(raw.substring(0, separator)), 0);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный токен страницы: " + token);
+        }
+    }
+}
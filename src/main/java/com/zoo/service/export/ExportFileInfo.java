@@ -0,0 +1,20 @@
+package com.zoo.service.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись каталога выгрузок о файле в директории хранения
+ *
+ * @param format        json, csv, txt, snapshot, delta или other - по расширению
+ * @param rowCount      число записей; null, если файл создан не выгрузкой и формат его не хранит
+ * @param checksum      CRC32C всего файла, шестнадцатеричная
+ * @param modifiedMillis время изменения файла: по нему и размеру видно, что файл менялся в обход каталога
+ */
+public record ExportFileInfo(String name,
+                             String format,
+                             long size,
+                             Long rowCount,
+                             String checksum,
+                             LocalDateTime createdAt,
+                             long modifiedMillis) {
+}
@@ -0,0 +1,27 @@
+package com.zoo.service.export;
+
+import java.util.Locale;
+
+/**
+ * Формат файла выгрузки
+ */
+public enum ExportFormat {
+    JSON,
+    CSV,
+    TXT,
+    /**
+     * Бинарный снимок *.zsnap для быстрого восстановления таблицы и прогрева при старте
+     */
+    SNAPSHOT;
+
+    /**
+     * Формат по имени из запроса (json, csv, txt, snapshot) без учета регистра
+     */
+    public static ExportFormat fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Неизвестный формат выгрузки: " + name + " (допустимы json, csv, txt, snapshot)");
+        }
+    }
+}
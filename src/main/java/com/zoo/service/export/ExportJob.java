@@ -0,0 +1,146 @@
+package com.zoo.service.export;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Одно задание выгрузки: состояние, счетчики прогресса и результат.
+ * Счетчики обновляет поток выгрузки, читают их запросы статуса.
+ */
+@Getter
+public final class ExportJob implements ExportProgress {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+
+    private final String id;
+    private final ExportFormat format;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String file;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    @Getter(AccessLevel.NONE)
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    @Getter(AccessLevel.NONE)
+    private volatile Future<?> task;
+
+    ExportJob(String id, ExportFormat format) {
+        this.id = id;
+        this.format = format;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public boolean isFinished() {
+        return result.isDone();
+    }
+
+    /**
+     * Дождаться завершения и вернуть путь к файлу; при ошибке - исключение задания,
+     * при отмене - CancellationException (join выбрасывает его без обертки в CompletionException)
+     */
+    public String await() {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    @Override
+    public void rowWritten() {
+        rowsWritten.incrementAndGet();
+        if (cancelRequested) {
+            throw new CancellationException("Выгрузка " + id + " отменена");
+        }
+    }
+
+    @Override
+    public void bytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    void setTask(Future<?> task) {
+        this.task = task;
+    }
+
+    /**
+     * Перевести задание в работу; false, если его отменили, пока оно ждало очереди
+     */
+    synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    synchronized void complete(String file) {
+        this.file = file;
+        finish(Status.COMPLETED);
+        result.complete(file);
+    }
+
+    synchronized void fail(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+        result.completeExceptionally(new IllegalStateException("Выгрузка " + id + " завершилась ошибкой: " + error));
+    }
+
+    synchronized void cancelled() {
+        if (isFinished()) {
+            return;
+        }
+        finish(Status.CANCELLED);
+        result.completeExceptionally(new CancellationException("Выгрузка " + id + " отменена"));
+    }
+
+    /**
+     * Запросить отмену. Задание из очереди отменяется сразу, выполняемое - на следующей записи.
+     */
+    synchronized void cancel() {
+        if (isFinished()) {
+            return;
+        }
+        cancelRequested = true;
+        if (status == Status.QUEUED) {
+            cancelled();
+            Future<?> queued = task;
+            if (queued != null) {
+                queued.cancel(true);
+            }
+        }
+    }
+
+    private void finish(Status finalStatus) {
+        status = finalStatus;
+        finishedAt = LocalDateTime.now();
+    }
+}
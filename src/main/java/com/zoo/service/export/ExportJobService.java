@@ -0,0 +1,173 @@
+package com.zoo.service.export;
+
+import com.zoo.config.ExportProperties;
+import com.zoo.exception.ServiceOverloadedException;
+import com.zoo.service.AnimalService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновые задания выгрузки всех животных в файл.
+ * Одновременно выполняется не больше app.export.max-concurrent выгрузок, остальные ждут в очереди;
+ * когда незавершенных заданий больше app.export.max-jobs, новые отклоняются.
+ * Запрос выгрузки в формате, выгрузка в котором уже идет или ждет очереди, присоединяется к ней.
+ */
+@Service
+@Slf4j
+public class ExportJobService {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final AnimalService animalService;
+    private final ExportProperties properties;
+    private final ExecutorService executor;
+    private final Semaphore running;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    // Незавершенное задание по каждому формату; доступ под блокировкой this
+    private final Map<ExportFormat, ExportJob> activeByFormat = new EnumMap<>(ExportFormat.class);
+
+    public ExportJobService(AnimalService animalService, ExportProperties properties) {
+        this.animalService = animalService;
+        this.properties = properties;
+        this.running = new Semaphore(properties.getMaxConcurrent(), true);
+        this.executor = properties.isVirtualThreads()
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("export-", 0).factory())
+                : Executors.newFixedThreadPool(properties.getMaxConcurrent(), platformThreads());
+    }
+
+    /**
+     * Запустить выгрузку или вернуть уже идущую выгрузку в том же формате
+     */
+    public synchronized ExportJob submit(ExportFormat format) {
+        purgeFinished();
+
+        ExportJob active = activeByFormat.get(format);
+        if (active != null && !active.isFinished()) {
+            log.info("Выгрузка {} уже выполняется, запрос присоединен к заданию {}", format, active.getId());
+            return active;
+        }
+
+        long unfinished = jobs.values().stream().filter(job -> !job.isFinished()).count();
+        if (unfinished >= properties.getMaxJobs()) {
+            throw new ServiceOverloadedException(
+                    "Слишком много незавершенных выгрузок (" + unfinished + "), повторите запрос позже", RETRY_AFTER);
+        }
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), format);
+        jobs.put(job.getId(), job);
+        activeByFormat.put(format, job);
+        job.setTask(executor.submit(() -> run(job)));
+        log.info("Создано задание выгрузки {} ({})", job.getId(), format);
+        return job;
+    }
+
+    public ExportJob getJob(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Задание выгрузки " + id + " не найдено");
+        }
+        return job;
+    }
+
+    /**
+     * Все известные задания, новые первыми
+     */
+    public List<ExportJob> getJobs() {
+        synchronized (this) {
+            purgeFinished();
+        }
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ExportJob::getCreatedAt).reversed())
+                .toList();
+    }
+
+    public ExportJob cancel(String id) {
+        ExportJob job = getJob(id);
+        log.info("Отмена задания выгрузки {}", id);
+        job.cancel();
+        if (job.isFinished()) {
+            release(job);
+        }
+        return job;
+    }
+
+    private void run(ExportJob job) {
+        try {
+            running.acquire();
+        } catch (InterruptedException e) {
+            // Задание отменено, пока ждало очереди
+            job.cancelled();
+            release(job);
+            return;
+        }
+
+        try {
+            if (!job.start()) {
+                return;
+            }
+            log.info("Выгрузка {} ({}) начата", job.getId(), job.getFormat());
+            String file = animalService.saveAllAnimals(job.getFormat(), job);
+            job.complete(file);
+            log.info("Выгрузка {} завершена: {} записей, {} байт, файл {}",
+                    job.getId(), job.getRowsWritten(), job.getBytesWritten(), file);
+        } catch (CancellationException e) {
+            job.cancelled();
+            log.info("Выгрузка {} отменена после {} записей", job.getId(), job.getRowsWritten());
+        } catch (RuntimeException e) {
+            if (job.isCancelRequested()) {
+                job.cancelled();
+            } else {
+                log.error("Выгрузка {} завершилась ошибкой: {}", job.getId(), e.getMessage());
+                job.fail(e.getMessage());
+            }
+        } finally {
+            running.release();
+            release(job);
+        }
+    }
+
+    private synchronized void release(ExportJob job) {
+        activeByFormat.remove(job.getFormat(), job);
+    }
+
+    /**
+     * Забыть задания, завершившиеся раньше срока хранения
+     */
+    private void purgeFinished() {
+        LocalDateTime threshold = LocalDateTime.now().minus(properties.getJobRetention());
+        jobs.values().removeIf(job -> job.isFinished()
+                && job.getFinishedAt() != null && job.getFinishedAt().isBefore(threshold));
+    }
+
+    private static ThreadFactory platformThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "export-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
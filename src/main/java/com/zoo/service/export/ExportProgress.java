@@ -0,0 +1,22 @@
+package com.zoo.service.export;
+
+/**
+ * Получатель прогресса выгрузки. Вызывается из потока, который пишет файл;
+ * rowWritten может прервать выгрузку, выбросив CancellationException.
+ */
+public interface ExportProgress {
+
+    ExportProgress NONE = new ExportProgress() {
+        @Override
+        public void rowWritten() {
+        }
+
+        @Override
+        public void bytesWritten(long bytes) {
+        }
+    };
+
+    void rowWritten();
+
+    void bytesWritten(long bytes);
+}
@@ -0,0 +1,90 @@
+package com.zoo.service.export;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.zoo.model.Animal;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Слияние базового снимка с цепочкой дельт в новый снимок.
+ * Дельты применяются по порядку к набору изменений в памяти (он пропорционален дельтам, а не
+ * таблице), затем базовый снимок и измененные записи сливаются по id одним проходом:
+ * строки базы и результат упорядочены по id.
+ */
+public final class SnapshotCompactor {
+
+    private final ObjectReader deltaReader;
+
+    public SnapshotCompactor(ObjectReader deltaReader) {
+        this.deltaReader = deltaReader.forType(DeltaRecord.class);
+    }
+
+    /**
+     * Записать в out базу base (может быть null - пустая база) с примененными дельтами;
+     * возвращает число строк нового снимка
+     */
+    public long compact(SnapshotReader base, List<Path> deltas, SnapshotWriter out, ExportProgress progress)
+            throws IOException {
+        TreeMap<Long, Animal> upserts = new TreeMap<>();
+        Set<Long> deleted = new HashSet<>();
+        boolean useBase = base != null;
+
+        for (Path delta : deltas) {
+            try (MappingIterator<DeltaRecord> records = deltaReader.readValues(delta.toFile())) {
+                while (records.hasNext()) {
+                    DeltaRecord record = records.next();
+                    switch (record.op()) {
+                        case RESET -> {
+                            upserts.clear();
+                            deleted.clear();
+                            useBase = false;
+                        }
+                        case DELETE -> {
+                            upserts.remove(record.id());
+                            deleted.add(record.id());
+                        }
+                        case UPSERT -> upserts.put(record.animal().getId(), record.animal());
+                    }
+                }
+            }
+        }
+
+        Iterator<Map.Entry<Long, Animal>> changed = upserts.entrySet().iterator();
+        Map.Entry<Long, Animal> next = changed.hasNext() ? changed.next() : null;
+        if (useBase) {
+            SnapshotReader.Cursor cursor = base.cursor();
+            while (cursor.next()) {
+                long id = cursor.id();
+                while (next != null && next.getKey() < id) {
+                    write(out, next.getValue(), progress);
+                    next = changed.hasNext() ? changed.next() : null;
+                }
+                if (next != null && next.getKey() == id) {
+                    // Запись из дельты заменяет строку базы
+                    write(out, next.getValue(), progress);
+                    next = changed.hasNext() ? changed.next() : null;
+                } else if (!deleted.contains(id)) {
+                    write(out, cursor.toAnimal(), progress);
+                }
+            }
+        }
+        while (next != null) {
+            write(out, next.getValue(), progress);
+            next = changed.hasNext() ? changed.next() : null;
+        }
+        return out.finish();
+    }
+
+    private static void write(SnapshotWriter out, Animal animal, ExportProgress progress) throws IOException {
+        out.write(animal);
+        progress.rowWritten();
+    }
+}
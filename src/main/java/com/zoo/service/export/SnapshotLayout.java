@@ -0,0 +1,67 @@
+package com.zoo.service.export;
+
+import java.nio.ByteOrder;
+
+/**
+ * Раскладка бинарного снимка таблицы animals (*.zsnap), версия 2. Все числа little-endian.
+ * <pre>
+ * заголовок   128 байт: магическое число, версия, размер строки, число строк,
+ *             смещения и длины секций, отпечаток таблицы (max id, max updated_at), CRC32C
+ * строки      rowCount * 64 байта (в версии 1 - 56), по возрастанию id
+ * имена       UTF-8 байты имен подряд, строка ссылается на (смещение, длина)
+ * словарь     число видов, затем для каждого вида длина и UTF-8 байты; строка хранит номер вида
+ * </pre>
+ * CRC32C считается по всем байтам после заголовка. При несовместимом изменении раскладки
+ * увеличивается VERSION; читатель отказывается открывать файлы версий вне MIN_VERSION..VERSION.
+ * Версия 2 добавила в конец строки версию записи (@Version, 8 байт), строка выросла до 64 байт.
+ * У файлов версии 1 версия записи читается как 0 - значение столбца version для записей того времени.
+ */
+final class SnapshotLayout {
+
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    // "ZOOSNAP\0"
+    static final long MAGIC = 0x0050414E534F4F5AL;
+    static final int VERSION = 2;
+    static final int MIN_VERSION = 1;
+    static final int HEADER_SIZE = 128;
+    static final int ROW_SIZE = 64;
+    static final int V1_ROW_SIZE = 56;
+
+    // Поля заголовка
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 8;
+    static final int H_ROW_SIZE = 12;
+    static final int H_ROW_COUNT = 16;
+    static final int H_NAMES_OFFSET = 24;
+    static final int H_NAMES_LENGTH = 32;
+    static final int H_SPECIES_OFFSET = 40;
+    static final int H_SPECIES_LENGTH = 48;
+    static final int H_MAX_ID = 56;
+    static final int H_MAX_UPDATED_SECONDS = 64;
+    static final int H_MAX_UPDATED_NANOS = 72;
+    static final int H_CHECKSUM = 76;
+    static final int H_WRITTEN_AT_MILLIS = 80;
+
+    // Поля строки
+    static final int R_ID = 0;
+    static final int R_CREATED_SECONDS = 8;
+    static final int R_UPDATED_SECONDS = 16;
+    static final int R_NAME_OFFSET = 24;
+    static final int R_CREATED_NANOS = 32;
+    static final int R_UPDATED_NANOS = 36;
+    static final int R_AGE = 40;
+    static final int R_SPECIES = 44;
+    static final int R_NAME_LENGTH = 48;
+    static final int R_PADDING = 52;
+    static final int R_VERSION = 56;
+
+    // Отсутствующие значения
+    static final int NO_AGE = Integer.MIN_VALUE;
+    static final long NO_TIME = Long.MIN_VALUE;
+    static final int NO_STRING = -1;
+    static final long NO_ID = Long.MIN_VALUE;
+
+    private SnapshotLayout() {
+    }
+}
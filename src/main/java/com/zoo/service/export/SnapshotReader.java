@@ -0,0 +1,216 @@
+package com.zoo.service.export;
+
+import com.zoo.model.Animal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+import static com.zoo.service.export.SnapshotLayout.*;
+
+/**
+ * Чтение бинарного снимка (раскладка - {@link SnapshotLayout}) через отображение файла в память.
+ * Строки не разбираются целиком: курсор читает нужное поле по смещению прямо из отображения,
+ * вид берется из словаря (один экземпляр String на вид), имя декодируется только по запросу.
+ * Секции строк и имен отображаются отдельно, каждая не больше 2 ГБ (около 38 млн строк).
+ * Отображение живет до сборки мусора, отдельного закрытия не требует.
+ */
+public final class SnapshotReader {
+
+    private final Path file;
+    private final long rowCount;
+    // Размер строки по версии файла: у версии 1 строка короче и без версии записи
+    private final int rowSize;
+    private final long maxId;
+    private final LocalDateTime maxUpdatedAt;
+    private final Instant writtenAt;
+    private final int checksum;
+    private final MappedByteBuffer rows;
+    private final MappedByteBuffer names;
+    private final MappedByteBuffer dictionary;
+    private final String[] species;
+
+    private SnapshotReader(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        long size = channel.size();
+        if (size < HEADER_SIZE) {
+            throw new IOException("Файл " + file.getFileName() + " не является снимком: слишком короткий");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ORDER);
+        if (header.getLong(H_MAGIC) != MAGIC) {
+            throw new IOException("Файл " + file.getFileName() + " не является снимком или записан не полностью");
+        }
+        int version = header.getInt(H_VERSION);
+        this.rowSize = version == 1 ? V1_ROW_SIZE : ROW_SIZE;
+        if (version < MIN_VERSION || version > VERSION || header.getInt(H_ROW_SIZE) != rowSize) {
+            throw new IOException("Неподдерживаемая версия снимка " + version + " в файле " + file.getFileName());
+        }
+        this.rowCount = header.getLong(H_ROW_COUNT);
+        this.maxId = header.getLong(H_MAX_ID);
+        this.maxUpdatedAt = time(header.getLong(H_MAX_UPDATED_SECONDS), header.getInt(H_MAX_UPDATED_NANOS));
+        this.writtenAt = Instant.ofEpochMilli(header.getLong(H_WRITTEN_AT_MILLIS));
+        this.checksum = header.getInt(H_CHECKSUM);
+
+        long namesOffset = header.getLong(H_NAMES_OFFSET);
+        long namesLength = header.getLong(H_NAMES_LENGTH);
+        long speciesOffset = header.getLong(H_SPECIES_OFFSET);
+        long speciesLength = header.getLong(H_SPECIES_LENGTH);
+        if (namesOffset != HEADER_SIZE + rowCount * rowSize || speciesOffset != namesOffset + namesLength
+                || speciesOffset + speciesLength != size) {
+            throw new IOException("Поврежден заголовок снимка " + file.getFileName());
+        }
+
+        this.rows = map(channel, HEADER_SIZE, rowCount * rowSize);
+        this.names = map(channel, namesOffset, namesLength);
+        this.dictionary = map(channel, speciesOffset, speciesLength);
+        this.species = readDictionary(dictionary.duplicate().order(ORDER));
+    }
+
+    /**
+     * Открыть снимок: проверяются магическое число, версия и согласованность смещений.
+     * Контрольная сумма не проверяется, для этого нужен полный проход - см. verifyChecksum().
+     */
+    public static SnapshotReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new SnapshotReader(file, channel);
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Наибольший id в снимке, null для пустого снимка
+     */
+    public Long getMaxId() {
+        return maxId == NO_ID ? null : maxId;
+    }
+
+    public LocalDateTime getMaxUpdatedAt() {
+        return maxUpdatedAt;
+    }
+
+    public Instant getWrittenAt() {
+        return writtenAt;
+    }
+
+    /**
+     * Сверить CRC32C всех секций после заголовка с записанной в заголовке
+     */
+    public boolean verifyChecksum() {
+        CRC32C crc = new CRC32C();
+        crc.update(rows.duplicate());
+        crc.update(names.duplicate());
+        crc.update(dictionary.duplicate());
+        return (int) crc.getValue() == checksum;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Секция снимка больше 2 ГБ не поддерживается");
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        mapped.order(ORDER);
+        return mapped;
+    }
+
+    private static String[] readDictionary(ByteBuffer buffer) {
+        String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            values[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    private static LocalDateTime time(long seconds, int nanos) {
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    /**
+     * Проход по строкам снимка в порядке id. Один курсор - один поток.
+     */
+    public final class Cursor {
+
+        private long row = -1;
+        private int base = -rowSize;
+
+        public boolean next() {
+            if (row + 1 >= rowCount) {
+                return false;
+            }
+            row++;
+            base += rowSize;
+            return true;
+        }
+
+        public long id() {
+            return rows.getLong(base + R_ID);
+        }
+
+        public boolean hasAge() {
+            return rows.getInt(base + R_AGE) != NO_AGE;
+        }
+
+        public int age() {
+            return rows.getInt(base + R_AGE);
+        }
+
+        public Integer ageOrNull() {
+            return hasAge() ? age() : null;
+        }
+
+        public String species() {
+            int code = rows.getInt(base + R_SPECIES);
+            return code == NO_STRING ? null : species[code];
+        }
+
+        public String name() {
+            int length = rows.getInt(base + R_NAME_LENGTH);
+            if (length == NO_STRING) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            names.get((int) rows.getLong(base + R_NAME_OFFSET), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        public long version() {
+            return rowSize > R_VERSION ? rows.getLong(base + R_VERSION) : 0;
+        }
+
+        public LocalDateTime createdAt() {
+            return time(rows.getLong(base + R_CREATED_SECONDS), rows.getInt(base + R_CREATED_NANOS));
+        }
+
+        public LocalDateTime updatedAt() {
+            return time(rows.getLong(base + R_UPDATED_SECONDS), rows.getInt(base + R_UPDATED_NANOS));
+        }
+
+        /**
+         * Текущая строка целиком в виде сущности (для загрузки в таблицу)
+         */
+        public Animal toAnimal() {
+            long id = id();
+            return new Animal(id == NO_ID ? null : id, name(), species(), ageOrNull(), createdAt(), updatedAt(), version());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.zoo.service.export;
+
+import com.zoo.model.Animal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import static com.zoo.service.export.SnapshotLayout.*;
+
+/**
+ * Потоковая запись бинарного снимка (раскладка - {@link SnapshotLayout}).
+ * Строки фиксированной ширины пишутся сразу за местом под заголовок, имена копятся во временном
+ * файле рядом и дописываются после строк, словарь видов держится в памяти. Заголовок с числом
+ * строк и контрольной суммой записывается в finish(); файл без finish() не проходит проверку
+ * магического числа и не откроется читателем.
+ */
+public final class SnapshotWriter implements Closeable {
+
+    private final FileChannel channel;
+    private final FileChannel names;
+    private final ByteBuffer rows;
+    private final ByteBuffer nameBuffer;
+    private final ExportProgress progress;
+    private final CRC32C checksum = new CRC32C();
+    private final Map<String, Integer> speciesCodes = new HashMap<>();
+    private final List<String> species = new ArrayList<>();
+
+    private long rowCount;
+    private long namesLength;
+    private long maxId = NO_ID;
+    private LocalDateTime maxUpdatedAt;
+
+    public SnapshotWriter(Path target, int bufferSize, ExportProgress progress) throws IOException {
+        this.progress = progress;
+        this.channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Path namesFile = Files.createTempFile(target.toAbsolutePath().getParent(), ".names-", ".tmp");
+            this.names = FileChannel.open(namesFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.rows = ByteBuffer.allocateDirect(bufferSize - bufferSize % ROW_SIZE).order(ORDER);
+        this.nameBuffer = ByteBuffer.allocateDirect(bufferSize).order(ORDER);
+        this.channel.position(HEADER_SIZE);
+    }
+
+    public void write(Animal animal) throws IOException {
+        if (!rows.hasRemaining()) {
+            flushRows();
+        }
+        long id = animal.getId() != null ? animal.getId() : NO_ID;
+        int nameLength = writeName(animal.getName());
+        int position = rows.position();
+        rows.putLong(position + R_ID, id);
+        putTime(position + R_CREATED_SECONDS, position + R_CREATED_NANOS, animal.getCreatedAt());
+        putTime(position + R_UPDATED_SECONDS, position + R_UPDATED_NANOS, animal.getUpdatedAt());
+        rows.putLong(position + R_NAME_OFFSET, nameLength == NO_STRING ? 0 : namesLength - nameLength);
+        rows.putInt(position + R_AGE, animal.getAge() != null ? animal.getAge() : NO_AGE);
+        rows.putInt(position + R_SPECIES, speciesCode(animal.getSpecies()));
+        rows.putInt(position + R_NAME_LENGTH, nameLength);
+        rows.putInt(position + R_PADDING, 0);
+        rows.putLong(position + R_VERSION, animal.getVersion() != null ? animal.getVersion() : 0);
+        rows.position(position + ROW_SIZE);
+
+        rowCount++;
+        maxId = Math.max(maxId, id);
+        if (animal.getUpdatedAt() != null
+                && (maxUpdatedAt == null || animal.getUpdatedAt().isAfter(maxUpdatedAt))) {
+            maxUpdatedAt = animal.getUpdatedAt();
+        }
+    }
+
+    /**
+     * Дописать имена, словарь видов и заголовок; возвращает число строк
+     */
+    public long finish() throws IOException {
+        flushRows();
+        flushNames();
+
+        long namesOffset = channel.position();
+        names.position(0);
+        ByteBuffer copy = nameBuffer.clear();
+        while (names.read(copy) > 0) {
+            copy.flip();
+            writeBody(copy);
+            copy.clear();
+        }
+
+        long speciesOffset = channel.position();
+        ByteBuffer dictionary = encodeSpecies();
+        writeBody(dictionary);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+        header.putLong(H_MAGIC, MAGIC);
+        header.putInt(H_VERSION, VERSION);
+        header.putInt(H_ROW_SIZE, ROW_SIZE);
+        header.putLong(H_ROW_COUNT, rowCount);
+        header.putLong(H_NAMES_OFFSET, namesOffset);
+        header.putLong(H_NAMES_LENGTH, namesLength);
+        header.putLong(H_SPECIES_OFFSET, speciesOffset);
+        header.putLong(H_SPECIES_LENGTH, channel.position() - speciesOffset);
+        header.putLong(H_MAX_ID, maxId);
+        header.putLong(H_MAX_UPDATED_SECONDS, seconds(maxUpdatedAt));
+        header.putInt(H_MAX_UPDATED_NANOS, maxUpdatedAt != null ? maxUpdatedAt.getNano() : 0);
+        header.putInt(H_CHECKSUM, (int) checksum.getValue());
+        header.putLong(H_WRITTEN_AT_MILLIS, System.currentTimeMillis());
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        progress.bytesWritten(HEADER_SIZE);
+        channel.force(false);
+        return rowCount;
+    }
+
+    /**
+     * Закрыть файл; временный файл имен удаляется при закрытии (DELETE_ON_CLOSE)
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            names.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int writeName(String name) throws IOException {
+        if (name == null) {
+            return NO_STRING;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBuffer.remaining() < bytes.length) {
+            flushNames();
+        }
+        if (bytes.length > nameBuffer.capacity()) {
+            writeFully(names, ByteBuffer.wrap(bytes));
+        } else {
+            nameBuffer.put(bytes);
+        }
+        namesLength += bytes.length;
+        return bytes.length;
+    }
+
+    private int speciesCode(String name) {
+        if (name == null) {
+            return NO_STRING;
+        }
+        Integer code = speciesCodes.get(name);
+        if (code == null) {
+            code = species.size();
+            species.add(name);
+            speciesCodes.put(name, code);
+        }
+        return code;
+    }
+
+    private ByteBuffer encodeSpecies() {
+        List<byte[]> encoded = new ArrayList<>(species.size());
+        int size = Integer.BYTES;
+        for (String name : species) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += Integer.BYTES + bytes.length;
+        }
+        ByteBuffer dictionary = ByteBuffer.allocate(size).order(ORDER);
+        dictionary.putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            dictionary.putInt(bytes.length).put(bytes);
+        }
+        return dictionary.flip();
+    }
+
+    private void putTime(int secondsIndex, int nanosIndex, LocalDateTime value) {
+        rows.putLong(secondsIndex, seconds(value));
+        rows.putInt(nanosIndex, value != null ? value.getNano() : 0);
+    }
+
+    private static long seconds(LocalDateTime value) {
+        return value != null ? value.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    }
+
+    private void flushRows() throws IOException {
+        rows.flip();
+        writeBody(rows);
+        rows.clear();
+    }
+
+    private void flushNames() throws IOException {
+        nameBuffer.flip();
+        writeFully(names, nameBuffer);
+        nameBuffer.clear();
+    }
+
+    /**
+     * Запись секции после заголовка: байты учитываются в контрольной сумме и прогрессе
+     */
+    private void writeBody(ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        checksum.update(buffer.duplicate());
+        writeFully(channel, buffer);
+        progress.bytesWritten(length);
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+}
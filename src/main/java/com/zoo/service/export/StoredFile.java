@@ -0,0 +1,21 @@
+package com.zoo.service.export;
+
+import java.nio.file.Path;
+
+/**
+ * Файл из директории хранения, подготовленный к отдаче клиенту
+ *
+ * @param name         имя, под которым клиент запросил файл
+ * @param path         файл на диске: сам файл или его сжатый вариант .gz
+ * @param etag         строгий ETag: CRC32C из каталога или, если каталог о файле еще не знает, размер и время изменения
+ * @param gzip         path - сжатый вариант, отдается с Content-Encoding: gzip
+ * @param gzipVariant  у файла есть сжатый вариант (ответ зависит от Accept-Encoding)
+ */
+public record StoredFile(String name,
+                         Path path,
+                         long size,
+                         long lastModified,
+                         String etag,
+                         boolean gzip,
+                         boolean gzipVariant) {
+}
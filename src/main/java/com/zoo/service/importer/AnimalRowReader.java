@@ -0,0 +1,18 @@
+package com.zoo.service.importer;
+
+import com.zoo.model.Animal;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Последовательное чтение животных из файла выгрузки, по одной записи
+ */
+public interface AnimalRowReader extends Closeable {
+
+    /**
+     * Следующая запись или null, если файл закончился.
+     * Некорректная запись приводит к IllegalArgumentException, после которого чтение можно продолжить.
+     */
+    Animal next() throws IOException;
+}
@@ -0,0 +1,94 @@
+package com.zoo.service.importer;
+
+import com.zoo.model.Animal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Чтение CSV-выгрузки формата ID,Name,Species,Age,CreatedAt
+ */
+public class CsvAnimalReader implements AnimalRowReader {
+
+    private static final String NULL_VALUE = "null";
+
+    private final Reader source;
+    private final CsvTokenizer tokenizer;
+    private boolean headerChecked;
+
+    public CsvAnimalReader(Reader source) {
+        this.source = source;
+        this.tokenizer = new CsvTokenizer(source);
+    }
+
+    @Override
+    public Animal next() throws IOException {
+        List<String> record = tokenizer.nextRecord();
+        if (!headerChecked) {
+            headerChecked = true;
+            if (record != null && "ID".equalsIgnoreCase(record.get(0).trim())) {
+                record = tokenizer.nextRecord();
+            }
+        }
+        if (record == null) {
+            return null;
+        }
+        if (record.size() < 4) {
+            throw new IllegalArgumentException("Некорректная строка CSV: ожидалось не меньше 4 полей, получено " + record.size());
+        }
+
+        Animal animal = new Animal();
+        animal.setId(parseLong(record.get(0)));
+        animal.setName(record.get(1));
+        animal.setSpecies(record.get(2));
+        animal.setAge(parseInteger(record.get(3)));
+        if (record.size() > 4) {
+            animal.setCreatedAt(parseDateTime(record.get(4)));
+        }
+        return animal;
+    }
+
+    private static Long parseLong(String value) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty() || NULL_VALUE.equals(trimmed)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный ID: " + value);
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty() || NULL_VALUE.equals(trimmed)) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(trimmed);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный возраст: " + value);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty() || NULL_VALUE.equals(trimmed)) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректная дата создания: " + value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
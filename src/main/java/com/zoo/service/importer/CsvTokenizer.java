@@ -0,0 +1,109 @@
+package com.zoo.service.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбор CSV по RFC 4180 без загрузки файла в память: поля в кавычках,
+ * удвоенные кавычки внутри них, переводы строк внутри кавычек, окончания строк LF и CRLF.
+ * Одиночная кавычка внутри поля, за которой нет разделителя, считается обычным символом:
+ * так читаются старые выгрузки, где кавычки в именах не экранировались.
+ */
+final class CsvTokenizer {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+
+    CsvTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Следующая запись или null в конце файла. Возвращаемый список переиспользуется между вызовами.
+     */
+    List<String> nextRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+
+        int c = read();
+        // Пустые строки между записями пропускаются
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == EOF) {
+            return null;
+        }
+
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == EOF) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else if (next == ',' || next == '\r' || next == '\n' || next == EOF) {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    } else {
+                        field.append('"');
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == EOF) {
+                fields.add(field.toString());
+                if (c == '\r') {
+                    skipLineFeed();
+                }
+                return fields;
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private void skipLineFeed() throws IOException {
+        if (fill() && buffer[position] == '\n') {
+            position++;
+        }
+    }
+
+    private int read() throws IOException {
+        return fill() ? buffer[position++] : EOF;
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,80 @@
+package com.zoo.service.importer;
+
+import com.zoo.dto.ImportResult;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Одно задание загрузки файла: состояние, число прочитанных записей и итог.
+ * Счетчик обновляет поток загрузки, читают его запросы статуса.
+ */
+@Getter
+public final class ImportJob implements LongConsumer {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final String filename;
+    private final boolean upsert;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final AtomicLong rowsRead = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile ImportResult result;
+    private volatile String error;
+
+    ImportJob(String id, String filename, boolean upsert) {
+        this.id = id;
+        this.filename = filename;
+        this.upsert = upsert;
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * Прогресс от AnimalImportService: сколько записей прочитано из файла.
+     * Записи становятся видны в таблице только после завершения задания - загрузка идет одной транзакцией.
+     */
+    @Override
+    public void accept(long read) {
+        rowsRead.set(read);
+    }
+
+    void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    void complete(ImportResult result) {
+        this.result = result;
+        rowsRead.set(result.rowsRead());
+        finish(Status.COMPLETED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    private void finish(Status finalStatus) {
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+}
@@ -0,0 +1,119 @@
+package com.zoo.service.importer;
+
+import com.zoo.exception.ServiceOverloadedException;
+import com.zoo.service.AnimalImportService;
+import com.zoo.service.FileStorageService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Фоновые задания загрузки файлов выгрузки в базу.
+ * Загрузки выполняются по одной: каждая - одна транзакция на всю таблицу, параллельные
+ * только соперничали бы за те же строки. Когда незавершенных заданий больше app.import.max-jobs,
+ * новые отклоняются.
+ */
+@Service
+@Slf4j
+public class ImportJobService {
+
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+
+    private final AnimalImportService animalImportService;
+    private final FileStorageService fileStorageService;
+    private final int maxJobs;
+    private final Duration jobRetention;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(AnimalImportService animalImportService,
+                            FileStorageService fileStorageService,
+                            @Value("${app.import.max-jobs:4}") int maxJobs,
+                            @Value("${app.import.job-retention:1h}") Duration jobRetention) {
+        this.animalImportService = animalImportService;
+        this.fileStorageService = fileStorageService;
+        this.maxJobs = maxJobs;
+        this.jobRetention = jobRetention;
+    }
+
+    /**
+     * Поставить загрузку в очередь. Имя файла проверяется сразу, чтобы ошибка пришла в ответе на запрос.
+     */
+    public synchronized ImportJob submit(String filename, boolean upsert) {
+        fileStorageService.resolveStoredFile(filename);
+        purgeFinished();
+
+        long unfinished = jobs.values().stream().filter(job -> !job.isFinished()).count();
+        if (unfinished >= maxJobs) {
+            throw new ServiceOverloadedException(
+                    "Слишком много незавершенных загрузок (" + unfinished + "), повторите запрос позже", RETRY_AFTER);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), filename, upsert);
+        jobs.put(job.getId(), job);
+        executor.execute(() -> run(job));
+        log.info("Создано задание загрузки {} ({}, upsert={})", job.getId(), filename, upsert);
+        return job;
+    }
+
+    public ImportJob getJob(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Задание загрузки " + id + " не найдено");
+        }
+        return job;
+    }
+
+    /**
+     * Все известные задания, новые первыми
+     */
+    public List<ImportJob> getJobs() {
+        synchronized (this) {
+            purgeFinished();
+        }
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(ImportJob::getCreatedAt).reversed())
+                .toList();
+    }
+
+    private void run(ImportJob job) {
+        job.start();
+        try {
+            job.complete(animalImportService.importFile(job.getFilename(), job.isUpsert(), job));
+        } catch (RuntimeException e) {
+            log.error("Загрузка {} завершилась ошибкой: {}", job.getId(), e.getMessage());
+            job.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * Забыть задания, завершившиеся раньше срока хранения
+     */
+    private void purgeFinished() {
+        LocalDateTime threshold = LocalDateTime.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.isFinished()
+                && job.getFinishedAt() != null && job.getFinishedAt().isBefore(threshold));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package com.zoo.service.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.zoo.model.Animal;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Чтение JSON-выгрузки (массив объектов Animal) потоковым парсером Jackson.
+ * В памяти одновременно находится только текущий элемент массива.
+ */
+public class JsonAnimalReader implements AnimalRowReader {
+
+    private final JsonParser parser;
+    private final ObjectReader animalReader;
+    private boolean started;
+
+    public JsonAnimalReader(ObjectMapper objectMapper, InputStream in) throws IOException {
+        this.parser = objectMapper.createParser(in);
+        this.animalReader = objectMapper.readerFor(Animal.class);
+    }
+
+    @Override
+    public Animal next() throws IOException {
+        if (!started) {
+            started = true;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Ожидался JSON-массив животных");
+            }
+        }
+
+        JsonToken token = parser.nextToken();
+        if (token == null || token == JsonToken.END_ARRAY) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            throw new IllegalArgumentException("Элемент массива не является объектом: " + token);
+        }
+
+        // Элемент сначала читается целиком, чтобы ошибка в нем не сбивала позицию парсера
+        JsonNode node = parser.readValueAsTree();
+        try {
+            return animalReader.readValue(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Некорректная запись: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.zoo.service.importer;
+
+import com.zoo.model.Animal;
+import com.zoo.service.export.SnapshotReader;
+
+import java.io.IOException;
+
+/**
+ * Чтение бинарного снимка *.zsnap: строки берутся из отображенного в память файла,
+ * разбор текста не нужен. Контрольная сумма проверяется при открытии, до первой записи.
+ */
+public class SnapshotAnimalReader implements AnimalRowReader {
+
+    private final SnapshotReader.Cursor cursor;
+
+    public SnapshotAnimalReader(SnapshotReader snapshot) {
+        if (!snapshot.verifyChecksum()) {
+            throw new IllegalArgumentException("Контрольная сумма снимка " + snapshot.getFile().getFileName() + " не совпадает");
+        }
+        this.cursor = snapshot.cursor();
+    }
+
+    @Override
+    public Animal next() {
+        return cursor.next() ? cursor.toAnimal() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+}